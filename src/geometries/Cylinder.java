@@ -6,6 +6,8 @@ import primitives.*;
  * Class Cylinder represents a three-dimensional cylinder.
  */
 public class Cylinder extends Tube {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/** Height of the cylinder */
 	@SuppressWarnings("unused")
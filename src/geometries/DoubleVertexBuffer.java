@@ -0,0 +1,44 @@
+package geometries;
+
+/**
+ * Vertex buffer keeping the coordinates in a flat array of doubles (x, y, z of
+ * each point one after another).
+ */
+class DoubleVertexBuffer implements VertexBuffer {
+	/** The coordinates, three per point */
+	private final double[] coords;
+
+	/**
+	 * Constructs a buffer over the given coordinates.
+	 *
+	 * @param coords the coordinates, three per point
+	 */
+	DoubleVertexBuffer(double[] coords) {
+		this.coords = coords;
+	}
+
+	@Override
+	public int size() {
+		return coords.length / 3;
+	}
+
+	@Override
+	public double x(int index) {
+		return coords[3 * index];
+	}
+
+	@Override
+	public double y(int index) {
+		return coords[3 * index + 1];
+	}
+
+	@Override
+	public double z(int index) {
+		return coords[3 * index + 2];
+	}
+
+	@Override
+	public long bytes() {
+		return (long) coords.length * Double.BYTES;
+	}
+}
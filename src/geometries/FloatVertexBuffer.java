@@ -0,0 +1,73 @@
+package geometries;
+
+/**
+ * Vertex buffer keeping the coordinates in single precision - half of the
+ * memory of {@link DoubleVertexBuffer}. The values are converted back to double
+ * on reading, so all the calculations using them are still done in double
+ * precision.
+ */
+class FloatVertexBuffer implements VertexBuffer {
+	/** The coordinates, three per point */
+	private final float[] coords;
+
+	/**
+	 * Constructs a buffer from double coordinates, rounding each one to the
+	 * nearest float value.
+	 *
+	 * @param coords the coordinates, three per point
+	 */
+	FloatVertexBuffer(double[] coords) {
+		this.coords = new float[coords.length];
+		for (int i = 0; i < coords.length; ++i)
+			this.coords[i] = (float) coords[i];
+	}
+
+	@Override
+	public int size() {
+		return coords.length / 3;
+	}
+
+	@Override
+	public double x(int index) {
+		return coords[3 * index];
+	}
+
+	@Override
+	public double y(int index) {
+		return coords[3 * index + 1];
+	}
+
+	@Override
+	public double z(int index) {
+		return coords[3 * index + 2];
+	}
+
+	@Override
+	public long bytes() {
+		return (long) coords.length * Float.BYTES;
+	}
+
+	/**
+	 * Rounds a number down to the closest value representable as a float. Used for
+	 * the lower corner of a bounding box, so the box never shrinks on conversion.
+	 *
+	 * @param value the number to round
+	 * @return the greatest float value which is not greater than the number
+	 */
+	static double roundDown(double value) {
+		float f = (float) value;
+		return f > value ? Math.nextDown(f) : f;
+	}
+
+	/**
+	 * Rounds a number up to the closest value representable as a float. Used for
+	 * the upper corner of a bounding box, so the box never shrinks on conversion.
+	 *
+	 * @param value the number to round
+	 * @return the smallest float value which is not lower than the number
+	 */
+	static double roundUp(double value) {
+		float f = (float) value;
+		return f < value ? Math.nextUp(f) : f;
+	}
+}
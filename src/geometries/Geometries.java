@@ -1,5 +1,6 @@
 package geometries;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -13,9 +14,11 @@ import primitives.Ray;
  * Class representing a collection of geometric shapes that are intersectable.
  */
 public class Geometries extends Intersectable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/** List to hold the geometric shapes */
-	private final List<Intersectable> geometries = new LinkedList<>();
+	private final LinkedList<Intersectable> geometries = new LinkedList<>();
 
 	/**
 	 * Default constructor for creating an empty Geometries object.
@@ -41,17 +44,31 @@ public class Geometries extends Intersectable {
 		Collections.addAll(this.geometries, geometries);
 	}
 
+	/**
+	 * Finds the intersections of a ray with all the geometries. When a single
+	 * geometry is intersected, its own list is returned as is - a new list is
+	 * allocated only for merging the intersections of several geometries.
+	 *
+	 * @param ray The ray to intersect with.
+	 * @return the intersections, or null if there are none
+	 */
 	@Override
 	protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
 		List<GeoPoint> intersections = null;
+		boolean merged = false;
 
 		for (Intersectable geometry : this.geometries) {
 			List<GeoPoint> intersections1 = geometry.findGeoIntersections(ray);
 			if (intersections1 != null) {
 				if (intersections == null)
-					intersections = new LinkedList<>(intersections1);
-				else
+					intersections = intersections1;
+				else {
+					if (!merged) {
+						intersections = new ArrayList<>(intersections);
+						merged = true;
+					}
 					intersections.addAll(intersections1);
+				}
 			}
 		}
 
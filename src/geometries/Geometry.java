@@ -10,6 +10,8 @@ import primitives.Material;
  * Abstract class Geometry represents any geometric body.
  */
 public abstract class Geometry extends Intersectable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Field representing the emission color of the geometry.
@@ -69,4 +71,14 @@ public abstract class Geometry extends Intersectable {
 	 * @return a vector
 	 */
 	public abstract Vector getNormal(Point point);
+
+	/**
+	 * Method that returns the body this geometry belongs to in the scene - the
+	 * geometry itself, unless it is a part of a larger body (as a face of a mesh).
+	 *
+	 * @return the body of the geometry
+	 */
+	public Geometry getBody() {
+		return this;
+	}
 }
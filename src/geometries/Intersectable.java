@@ -4,13 +4,17 @@ package geometries;
 import primitives.Point;
 import primitives.Ray;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * Abstract class Intersectable represents a geometry object that can be
  * intersected by a ray.
  */
-public abstract class Intersectable {
+public abstract class Intersectable implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 
 	/**
 	 * Finds intersection points between the intersectable object and a given ray.
@@ -0,0 +1,805 @@
+package geometries;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import static primitives.Util.*;
+
+/**
+ * Class Mesh represents a triangle mesh - a set of triangles sharing one vertex
+ * buffer, where each triangle is given by the indices of its three vertices.
+ * <p>
+ * The triangles are grouped into chunks of consequent triangles, each chunk has
+ * its bounding box, so a ray is tested only against the triangles of the chunks
+ * whose box it crosses. Both the vertices and the boxes may be kept in single
+ * precision (see {@link Storage}) - the boxes are then rounded outwards, so a
+ * ray hitting a triangle never misses its box.
+ * <p>
+ * With {@link Storage#OFF_HEAP} all the mesh data (vertices, boxes and indices)
+ * is kept outside of the Java heap, either in direct memory or in a memory
+ * mapped file (see {@link #Mesh(Point[], int[], Path)}). The memory lives as
+ * long as the mesh object itself, so the heap usage of the scene does not grow
+ * with the amount of its triangles. The data is split into segments of up to
+ * 1GB, each one a separate buffer, so a mesh is not limited by the 2GB size of
+ * a single buffer.
+ * <p>
+ * With {@link Storage#QUANTIZED} the vertices are compressed to 16 bits per
+ * coordinate and the normals of the triangles are stored in octahedral encoding
+ * in 32 bits. The compression error is reported by {@link #getMaxError()} and
+ * may be bounded on construction, see {@link #Mesh(Point[], int[], double)}.
+ * <p>
+ * A mesh is serialized by its stored vertices and indices, and deserialized
+ * into the same storage mode - an off-heap mesh backed by a file is restored
+ * into direct memory, and a quantized mesh is restored with its quantized
+ * vertices and encoded normals as they are, with no further error.
+ */
+public class Mesh extends Geometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The way the vertices and the bounding boxes of a mesh are kept in memory
+	 */
+	public enum Storage {
+		/** Double precision coordinates */
+		DOUBLE,
+		/** Single precision coordinates - half of the memory of {@link #DOUBLE} */
+		FLOAT,
+		/** Single precision coordinates and the indices kept outside of the heap */
+		OFF_HEAP,
+		/** 16-bit coordinates relative to chunks of vertices, octahedral normals */
+		QUANTIZED
+	}
+
+	/** The amount of triangles grouped under one bounding box */
+	private static final int CHUNK_SIZE = 32;
+	/** Binary logarithm of the amount of vertices quantized relative to one box */
+	private static final int VERTEX_CHUNK_SHIFT = 6;
+	/** The largest octahedral normal component value */
+	private static final int OCTAHEDRAL_LEVELS = 0x7FFF;
+	/** The relative tolerance of a point laying on the surface of the mesh */
+	private static final double ON_SURFACE = 1e-9;
+	/** Binary logarithm of the amount of off-heap indices in one segment - 1GB */
+	private static final int INDEX_SEGMENT_SHIFT = 28;
+	/** The position of an off-heap index in its segment */
+	private static final int INDEX_SEGMENT_MASK = (1 << INDEX_SEGMENT_SHIFT) - 1;
+
+	/** The vertices of the mesh */
+	private final transient VertexBuffer vertices;
+	/** Indices of the vertices of the triangles, three per triangle, null if off the heap */
+	private final transient int[] indices;
+	/** Segments of the indices kept outside of the heap, null if they are on the heap */
+	private final transient IntBuffer[] offHeapIndices;
+	/** Lower and upper corners of the bounding box of each chunk of triangles */
+	private final transient VertexBuffer boxes;
+	/** Octahedral encoded normals of the triangles, null if not stored */
+	private final int[] normals;
+	/** The largest distance between an original vertex and the stored one */
+	private final double maxError;
+
+	/**
+	 * Constructs a mesh keeping its data in double precision.
+	 *
+	 * @param vertices the vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @throws IllegalArgumentException if the amount of the indices is not a
+	 *                                  multiple of 3 or an index is out of the
+	 *                                  vertices range
+	 */
+	public Mesh(Point[] vertices, int[] indices) {
+		this(vertices, indices, Storage.DOUBLE);
+	}
+
+	/**
+	 * Constructs a mesh keeping its data in the given storage mode.
+	 *
+	 * @param vertices the vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @param storage  the way the vertices and the bounding boxes are kept
+	 * @throws IllegalArgumentException if the amount of the indices is not a
+	 *                                  multiple of 3 or an index is out of the
+	 *                                  vertices range
+	 */
+	public Mesh(Point[] vertices, int[] indices, Storage storage) {
+		this(vertices, indices, storage, null, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Constructs a mesh with {@link Storage#QUANTIZED quantized} vertices, where
+	 * the vertices are chunked finely enough for the compression error to stay
+	 * within the given bound. To keep the error below a fraction of a pixel use
+	 * {@code fraction * camera.getPixelSize()}.
+	 *
+	 * @param vertices the vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @param maxError the largest allowed distance between an original vertex and
+	 *                 the stored one
+	 * @throws IllegalArgumentException if the amount of the indices is not a
+	 *                                  multiple of 3, an index is out of the
+	 *                                  vertices range or the error bound is not
+	 *                                  positive or cannot be met even by the
+	 *                                  finest quantization
+	 */
+	public Mesh(Point[] vertices, int[] indices, double maxError) {
+		this(vertices, indices, Storage.QUANTIZED, null, maxError);
+	}
+
+	/**
+	 * Constructs a mesh keeping its data off the heap in a memory mapped file. The
+	 * file is created or overwritten.
+	 *
+	 * @param vertices the vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @param file     the file backing the mesh data
+	 * @throws IllegalArgumentException if the amount of the indices is not a
+	 *                                  multiple of 3 or an index is out of the
+	 *                                  vertices range
+	 * @throws IllegalStateException    in case of I/O error mapping the file
+	 */
+	public Mesh(Point[] vertices, int[] indices, Path file) {
+		this(vertices, indices, Storage.OFF_HEAP, file, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Constructs a mesh keeping its data in the given storage mode.
+	 *
+	 * @param vertices the vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @param storage  the way the vertices and the bounding boxes are kept
+	 * @param file     the file backing off-heap data, null for direct memory
+	 * @param maxError the largest allowed quantization error
+	 */
+	private Mesh(Point[] vertices, int[] indices, Storage storage, Path file, double maxError) {
+		if (indices.length == 0 || indices.length % 3 != 0)
+			throw new IllegalArgumentException("A mesh must have 3 vertex indices per triangle");
+		for (int index : indices)
+			if (index < 0 || index >= vertices.length)
+				throw new IllegalArgumentException("Vertex index out of range: " + index);
+		if (alignZero(maxError) <= 0)
+			throw new IllegalArgumentException("Mesh error bound must be positive");
+
+		double[] coords = new double[3 * vertices.length];
+		for (int i = 0; i < vertices.length; ++i) {
+			coords[3 * i] = vertices[i].xyz.d1;
+			coords[3 * i + 1] = vertices[i].xyz.d2;
+			coords[3 * i + 2] = vertices[i].xyz.d3;
+		}
+
+		int chunks = (indices.length / 3 + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if (storage == Storage.OFF_HEAP) {
+			ByteBuffer[][] memory = allocate(file,
+					segments(vertices.length, OffHeapVertexBuffer.SEGMENT_SHIFT, OffHeapVertexBuffer.POINT_BYTES),
+					segments(2 * chunks, OffHeapVertexBuffer.SEGMENT_SHIFT, OffHeapVertexBuffer.POINT_BYTES),
+					segments(indices.length, INDEX_SEGMENT_SHIFT, Integer.BYTES));
+			this.indices = null;
+			this.offHeapIndices = new IntBuffer[memory[2].length];
+			for (int segment = 0; segment < offHeapIndices.length; ++segment) {
+				IntBuffer buffer = memory[2][segment].asIntBuffer();
+				offHeapIndices[segment] = buffer.put(indices, segment << INDEX_SEGMENT_SHIFT, buffer.limit()).clear();
+			}
+			this.vertices = new OffHeapVertexBuffer(memory[0], coords);
+			// the boxes are built from the stored vertices, so they enclose them exactly
+			this.boxes = new OffHeapVertexBuffer(memory[1], buildBoxes(chunks, true));
+		} else if (storage == Storage.QUANTIZED) {
+			this.indices = indices.clone();
+			this.offHeapIndices = null;
+			VertexBuffer quantized = new QuantizedVertexBuffer(coords, VERTEX_CHUNK_SHIFT);
+			// smaller chunks of vertices have smaller boxes and therefore finer steps
+			for (int shift = VERTEX_CHUNK_SHIFT - 1; shift >= 0 && error(quantized, coords) > maxError; --shift)
+				quantized = new QuantizedVertexBuffer(coords, shift);
+			double error = error(quantized, coords);
+			if (error > maxError)
+				throw new IllegalArgumentException(
+						"Mesh error bound " + maxError + " is below the finest quantization error " + error);
+			this.vertices = quantized;
+			this.boxes = new FloatVertexBuffer(buildBoxes(chunks, true));
+		} else {
+			this.indices = indices.clone();
+			this.offHeapIndices = null;
+			this.vertices = storage == Storage.FLOAT ? new FloatVertexBuffer(coords) : new DoubleVertexBuffer(coords);
+			double[] corners = buildBoxes(chunks, storage == Storage.FLOAT);
+			this.boxes = storage == Storage.FLOAT ? new FloatVertexBuffer(corners) : new DoubleVertexBuffer(corners);
+		}
+		this.maxError = error(this.vertices, coords);
+		this.normals = storage == Storage.QUANTIZED ? encodeNormals(coords) : null;
+	}
+
+	/**
+	 * Restores a quantized mesh from its serialized form, keeping the quantized
+	 * vertices and the encoded normals as they are.
+	 *
+	 * @param vertices the quantized vertices of the mesh
+	 * @param indices  indices of the vertices of the triangles, three per triangle
+	 * @param normals  octahedral encoded normals of the triangles
+	 * @param maxError the quantization error of the mesh
+	 */
+	private Mesh(QuantizedVertexBuffer vertices, int[] indices, int[] normals, double maxError) {
+		this.indices = indices;
+		this.offHeapIndices = null;
+		this.vertices = vertices;
+		this.boxes = new FloatVertexBuffer(buildBoxes((indices.length / 3 + CHUNK_SIZE - 1) / CHUNK_SIZE, true));
+		this.normals = normals;
+		this.maxError = maxError;
+	}
+
+	/**
+	 * Calculates the largest distance between an original vertex and the stored
+	 * one.
+	 *
+	 * @param buffer   the stored vertices
+	 * @param original the original coordinates, three per vertex
+	 * @return the error of the storage
+	 */
+	private static double error(VertexBuffer buffer, double[] original) {
+		double max = 0;
+		for (int i = 0; i < buffer.size(); ++i) {
+			double dx = buffer.x(i) - original[3 * i];
+			double dy = buffer.y(i) - original[3 * i + 1];
+			double dz = buffer.z(i) - original[3 * i + 2];
+			max = Math.max(max, dx * dx + dy * dy + dz * dz);
+		}
+		return Math.sqrt(max);
+	}
+
+	/**
+	 * Calculates the normals of the triangles from the original vertices and
+	 * encodes them in octahedral encoding.
+	 *
+	 * @param coords the original coordinates, three per vertex
+	 * @return the encoded normals, one per triangle
+	 */
+	private int[] encodeNormals(double[] coords) {
+		int[] encoded = new int[getTrianglesCount()];
+		for (int triangle = 0; triangle < encoded.length; ++triangle) {
+			int a = 3 * index(3 * triangle), b = 3 * index(3 * triangle + 1), c = 3 * index(3 * triangle + 2);
+			double e1x = coords[b] - coords[a], e1y = coords[b + 1] - coords[a + 1], e1z = coords[b + 2] - coords[a + 2];
+			double e2x = coords[c] - coords[a], e2y = coords[c + 1] - coords[a + 1], e2z = coords[c + 2] - coords[a + 2];
+			double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+			// project the normal onto the octahedron |x|+|y|+|z| = 1 and unfold it
+			double length = Math.abs(nx) + Math.abs(ny) + Math.abs(nz);
+			if (isZero(length))
+				continue; // degenerate triangle is never intersected
+			double u = nx / length, v = ny / length;
+			if (nz < 0) {
+				double fu = (1 - Math.abs(v)) * signNotZero(u);
+				v = (1 - Math.abs(u)) * signNotZero(v);
+				u = fu;
+			}
+			encoded[triangle] = (int) Math.round(u * OCTAHEDRAL_LEVELS) << 16
+					| (int) Math.round(v * OCTAHEDRAL_LEVELS) & 0xFFFF;
+		}
+		return encoded;
+	}
+
+	/**
+	 * Decodes an octahedral encoded normal.
+	 *
+	 * @param code the encoded normal
+	 * @return the normal vector
+	 */
+	private static Vector decodeNormal(int code) {
+		double u = (double) (short) (code >> 16) / OCTAHEDRAL_LEVELS;
+		double v = (double) (short) code / OCTAHEDRAL_LEVELS;
+		double w = 1 - Math.abs(u) - Math.abs(v);
+		if (w < 0) {
+			double fu = (1 - Math.abs(v)) * signNotZero(u);
+			v = (1 - Math.abs(u)) * signNotZero(v);
+			u = fu;
+		}
+		return new Vector(u, v, w).normalize();
+	}
+
+	/**
+	 * Returns the sign of a number, treating zero as positive.
+	 *
+	 * @param number the number
+	 * @return -1 for a negative number, 1 otherwise
+	 */
+	private static double signNotZero(double number) {
+		return number < 0 ? -1 : 1;
+	}
+
+	/**
+	 * Splits an amount of elements into the sizes of the memory segments holding
+	 * them.
+	 *
+	 * @param count the amount of the elements
+	 * @param shift binary logarithm of the amount of the elements in a segment
+	 * @param bytes the size of an element in bytes
+	 * @return the sizes of the segments in bytes
+	 */
+	private static long[] segments(int count, int shift, int bytes) {
+		long[] sizes = new long[(int) (((long) count + (1L << shift) - 1) >> shift)];
+		for (int segment = 0; segment < sizes.length; ++segment)
+			sizes[segment] = Math.min(1L << shift, count - ((long) segment << shift)) * bytes;
+		return sizes;
+	}
+
+	/**
+	 * Allocates memory outside of the heap, a separate buffer per segment. In a
+	 * file the segments are mapped one after the other.
+	 *
+	 * @param file    the file to map the memory to, null for direct memory
+	 * @param layouts the sizes of the segments of each part of the memory
+	 * @return the segments of each part, in the native byte order
+	 * @throws IllegalStateException in case of I/O error mapping the file
+	 */
+	private static ByteBuffer[][] allocate(Path file, long[]... layouts) {
+		try (FileChannel channel = file == null ? null
+				: FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[][] memory = new ByteBuffer[layouts.length][];
+			long position = 0;
+			for (int part = 0; part < layouts.length; ++part) {
+				memory[part] = new ByteBuffer[layouts[part].length];
+				for (int segment = 0; segment < memory[part].length; ++segment) {
+					long bytes = layouts[part][segment];
+					// the mapping stays valid after the channel is closed
+					ByteBuffer buffer = channel == null ? ByteBuffer.allocateDirect((int) bytes)
+							: channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+					memory[part][segment] = buffer.order(ByteOrder.nativeOrder());
+					position += bytes;
+				}
+			}
+			return memory;
+		} catch (IOException e) {
+			throw new IllegalStateException("I/O error mapping mesh file " + file, e);
+		}
+	}
+
+	/**
+	 * Calculates the bounding boxes of the chunks of triangles.
+	 *
+	 * @param chunks      the amount of the chunks
+	 * @param singleFloat whether the boxes are going to be kept in single precision
+	 *                    (and must be rounded outwards)
+	 * @return the lower and upper corners of each chunk box
+	 */
+	private double[] buildBoxes(int chunks, boolean singleFloat) {
+		double[] corners = new double[6 * chunks];
+		int count = 3 * getTrianglesCount();
+		for (int chunk = 0; chunk < chunks; ++chunk) {
+			double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+			double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+			int end = Math.min(3 * (chunk + 1) * CHUNK_SIZE, count);
+			for (int i = 3 * chunk * CHUNK_SIZE; i < end; ++i) {
+				int v = index(i);
+				minX = Math.min(minX, vertices.x(v));
+				minY = Math.min(minY, vertices.y(v));
+				minZ = Math.min(minZ, vertices.z(v));
+				maxX = Math.max(maxX, vertices.x(v));
+				maxY = Math.max(maxY, vertices.y(v));
+				maxZ = Math.max(maxZ, vertices.z(v));
+			}
+			int i = 6 * chunk;
+			if (singleFloat) {
+				// round outwards - the box may only grow on conversion to float
+				corners[i] = FloatVertexBuffer.roundDown(minX);
+				corners[i + 1] = FloatVertexBuffer.roundDown(minY);
+				corners[i + 2] = FloatVertexBuffer.roundDown(minZ);
+				corners[i + 3] = FloatVertexBuffer.roundUp(maxX);
+				corners[i + 4] = FloatVertexBuffer.roundUp(maxY);
+				corners[i + 5] = FloatVertexBuffer.roundUp(maxZ);
+			} else {
+				corners[i] = minX;
+				corners[i + 1] = minY;
+				corners[i + 2] = minZ;
+				corners[i + 3] = maxX;
+				corners[i + 4] = maxY;
+				corners[i + 5] = maxZ;
+			}
+		}
+		return corners;
+	}
+
+	/**
+	 * Returns the amount of triangles in the mesh.
+	 *
+	 * @return the number of triangles
+	 */
+	public int getTrianglesCount() {
+		if (indices != null)
+			return indices.length / 3;
+		int last = offHeapIndices.length - 1;
+		return ((last << INDEX_SEGMENT_SHIFT) + offHeapIndices[last].limit()) / 3;
+	}
+
+	/**
+	 * Returns a vertex index of a triangle. The heap indices are read from a plain
+	 * array, so the intersection kernel does not go through a buffer.
+	 *
+	 * @param i the position of the vertex index, three per triangle
+	 * @return the index of the vertex
+	 */
+	private int index(int i) {
+		return indices != null ? indices[i] : offHeapIndices[i >>> INDEX_SEGMENT_SHIFT].get(i & INDEX_SEGMENT_MASK);
+	}
+
+	/**
+	 * Returns the amount of memory used for the coordinates of the vertices and of
+	 * the bounding boxes and for the stored normals, in bytes.
+	 *
+	 * @return the size of the geometric data storage in bytes
+	 */
+	public long getStorageBytes() {
+		return vertices.bytes() + boxes.bytes() + (normals == null ? 0 : (long) normals.length * Integer.BYTES);
+	}
+
+	/**
+	 * Returns the error bound of the vertices storage - the largest distance
+	 * between an original vertex and the stored one.
+	 *
+	 * @return the error bound, 0 for double precision storage
+	 */
+	public double getMaxError() {
+		return maxError;
+	}
+
+	/**
+	 * Checks whether the mesh data is kept outside of the Java heap.
+	 *
+	 * @return true if the mesh data is off the heap
+	 */
+	public boolean isOffHeap() {
+		return offHeapIndices != null;
+	}
+
+	/**
+	 * Returns the normal of a triangle of the mesh.
+	 *
+	 * @param triangle the index of the triangle
+	 * @return the normal vector of the triangle
+	 */
+	public Vector getNormal(int triangle) {
+		if (normals != null)
+			return decodeNormal(normals[triangle]);
+		Point a = vertices.getPoint(index(3 * triangle));
+		Vector e1 = vertices.getPoint(index(3 * triangle + 1)).subtract(a);
+		Vector e2 = vertices.getPoint(index(3 * triangle + 2)).subtract(a);
+		return e1.crossProduct(e2).normalize();
+	}
+
+	/**
+	 * Returns the normal of the mesh at a point on its surface - the normal of the
+	 * triangle the point lays on, found through the bounding boxes of the chunks.
+	 * On an edge shared by triangles, the first of them is taken. The intersection
+	 * points of the mesh refer to their triangles directly, see
+	 * {@link #getNormal(int)}.
+	 *
+	 * @param point the point on the mesh surface
+	 * @return the normal vector at the point
+	 * @throws IllegalArgumentException if the point is not on the mesh
+	 */
+	@Override
+	public Vector getNormal(Point point) {
+		double px = point.xyz.d1, py = point.xyz.d2, pz = point.xyz.d3;
+		int triangles = getTrianglesCount();
+		for (int chunk = 0; chunk < boxes.size() / 2; ++chunk) {
+			if (!containsPoint(chunk, px, py, pz))
+				continue;
+			int end = Math.min((chunk + 1) * CHUNK_SIZE, triangles);
+			for (int triangle = chunk * CHUNK_SIZE; triangle < end; ++triangle)
+				if (onTriangle(triangle, px, py, pz))
+					return getNormal(triangle);
+		}
+		throw new IllegalArgumentException("Point is not on the mesh: " + point);
+	}
+
+	/**
+	 * Checks whether a point is in the bounding box of a chunk, up to the surface
+	 * tolerance.
+	 *
+	 * @param chunk the index of the chunk
+	 * @param px    x of the point
+	 * @param py    y of the point
+	 * @param pz    z of the point
+	 * @return true if the point is in the box
+	 */
+	private boolean containsPoint(int chunk, double px, double py, double pz) {
+		int min = 2 * chunk, max = min + 1;
+		double tolerance = ON_SURFACE * (1 + boxes.x(max) - boxes.x(min) + boxes.y(max) - boxes.y(min)
+				+ boxes.z(max) - boxes.z(min));
+		return px >= boxes.x(min) - tolerance && px <= boxes.x(max) + tolerance //
+				&& py >= boxes.y(min) - tolerance && py <= boxes.y(max) + tolerance //
+				&& pz >= boxes.z(min) - tolerance && pz <= boxes.z(max) + tolerance;
+	}
+
+	/**
+	 * Checks whether a point lays on a triangle of the mesh, edges included, up to
+	 * the surface tolerance relative to the size of the triangle.
+	 *
+	 * @param triangle the index of the triangle
+	 * @param px       x of the point
+	 * @param py       y of the point
+	 * @param pz       z of the point
+	 * @return true if the point is on the triangle
+	 */
+	private boolean onTriangle(int triangle, double px, double py, double pz) {
+		int a = index(3 * triangle), b = index(3 * triangle + 1), c = index(3 * triangle + 2);
+		double ax = vertices.x(a), ay = vertices.y(a), az = vertices.z(a);
+		double e1x = vertices.x(b) - ax, e1y = vertices.y(b) - ay, e1z = vertices.z(b) - az;
+		double e2x = vertices.x(c) - ax, e2y = vertices.y(c) - ay, e2z = vertices.z(c) - az;
+		double wx = px - ax, wy = py - ay, wz = pz - az;
+		double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+		double nn = nx * nx + ny * ny + nz * nz;
+		if (isZero(nn))
+			return false; // degenerate triangle
+		double size = Math.sqrt(e1x * e1x + e1y * e1y + e1z * e1z) + Math.sqrt(e2x * e2x + e2y * e2y + e2z * e2z);
+		double distance = (wx * nx + wy * ny + wz * nz) / Math.sqrt(nn);
+		if (Math.abs(distance) > ON_SURFACE * size)
+			return false;
+		// the barycentric coordinates of the point: (w x e2).n and (e1 x w).n over n.n
+		double u = ((wy * e2z - wz * e2y) * nx + (wz * e2x - wx * e2z) * ny + (wx * e2y - wy * e2x) * nz) / nn;
+		double v = ((e1y * wz - e1z * wy) * nx + (e1z * wx - e1x * wz) * ny + (e1x * wy - e1y * wx) * nz) / nn;
+		return u >= -ON_SURFACE && v >= -ON_SURFACE && u + v <= 1 + ON_SURFACE;
+	}
+
+	@Override
+	protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+		Point head = ray.getHead();
+		Vector dir = ray.getDirection();
+		double ox = head.xyz.d1, oy = head.xyz.d2, oz = head.xyz.d3;
+		double dx = dir.xyz.d1, dy = dir.xyz.d2, dz = dir.xyz.d3;
+
+		List<GeoPoint> intersections = null;
+		int triangles = getTrianglesCount();
+		for (int chunk = 0; chunk < boxes.size() / 2; ++chunk) {
+			if (!crossesBox(chunk, ox, oy, oz, dx, dy, dz))
+				continue;
+			int end = Math.min((chunk + 1) * CHUNK_SIZE, triangles);
+			for (int triangle = chunk * CHUNK_SIZE; triangle < end; ++triangle) {
+				double t = intersect(triangle, ox, oy, oz, dx, dy, dz);
+				if (t > 0) {
+					if (intersections == null)
+						intersections = new LinkedList<>();
+					intersections.add(new GeoPoint(new Face(triangle), ray.getPoint(t)));
+				}
+			}
+		}
+		return intersections;
+	}
+
+	/**
+	 * Checks whether a ray crosses the bounding box of a chunk (slabs method).
+	 *
+	 * @param chunk the index of the chunk
+	 * @param ox    x of the ray head
+	 * @param oy    y of the ray head
+	 * @param oz    z of the ray head
+	 * @param dx    x of the ray direction
+	 * @param dy    y of the ray direction
+	 * @param dz    z of the ray direction
+	 * @return true if the ray crosses the box
+	 */
+	private boolean crossesBox(int chunk, double ox, double oy, double oz, double dx, double dy, double dz) {
+		int min = 2 * chunk, max = min + 1;
+		double near = 0, far = Double.POSITIVE_INFINITY;
+
+		if (dx == 0) {
+			if (ox < boxes.x(min) || ox > boxes.x(max))
+				return false;
+		} else {
+			double t1 = (boxes.x(min) - ox) / dx, t2 = (boxes.x(max) - ox) / dx;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+		if (dy == 0) {
+			if (oy < boxes.y(min) || oy > boxes.y(max))
+				return false;
+		} else {
+			double t1 = (boxes.y(min) - oy) / dy, t2 = (boxes.y(max) - oy) / dy;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+		if (dz == 0) {
+			if (oz < boxes.z(min) || oz > boxes.z(max))
+				return false;
+		} else {
+			double t1 = (boxes.z(min) - oz) / dz, t2 = (boxes.z(max) - oz) / dz;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+		return near <= far;
+	}
+
+	/**
+	 * Intersects a ray with a triangle of the mesh (Möller–Trumbore algorithm). As
+	 * with {@link Triangle}, a ray crossing an edge or a vertex does not intersect.
+	 *
+	 * @param triangle the index of the triangle
+	 * @param ox       x of the ray head
+	 * @param oy       y of the ray head
+	 * @param oz       z of the ray head
+	 * @param dx       x of the ray direction
+	 * @param dy       y of the ray direction
+	 * @param dz       z of the ray direction
+	 * @return the ray parameter of the intersection, or 0 if there is none
+	 */
+	private double intersect(int triangle, double ox, double oy, double oz, double dx, double dy, double dz) {
+		int a = index(3 * triangle), b = index(3 * triangle + 1), c = index(3 * triangle + 2);
+		double ax = vertices.x(a), ay = vertices.y(a), az = vertices.z(a);
+		double e1x = vertices.x(b) - ax, e1y = vertices.y(b) - ay, e1z = vertices.z(b) - az;
+		double e2x = vertices.x(c) - ax, e2y = vertices.y(c) - ay, e2z = vertices.z(c) - az;
+
+		// p = d x e2
+		double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+		double det = e1x * px + e1y * py + e1z * pz;
+		if (isZero(det))
+			return 0; // the ray is parallel to the triangle plane
+		double invDet = 1 / det;
+
+		double sx = ox - ax, sy = oy - ay, sz = oz - az;
+		double u = (sx * px + sy * py + sz * pz) * invDet;
+		if (alignZero(u) <= 0 || alignZero(u - 1) >= 0)
+			return 0;
+
+		// q = s x e1
+		double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+		double v = (dx * qx + dy * qy + dz * qz) * invDet;
+		if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0)
+			return 0;
+
+		double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+		return t > 0 ? t : 0;
+	}
+
+	/**
+	 * Replaces the mesh by its serialized form on serialization, since the buffers
+	 * of the mesh data are not serializable.
+	 *
+	 * @return the serialized form of the mesh
+	 * @throws ObjectStreamException never
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		int[] triangles = new int[3 * getTrianglesCount()];
+		for (int i = 0; i < triangles.length; ++i)
+			triangles[i] = index(i);
+		if (vertices instanceof QuantizedVertexBuffer quantized)
+			return new SerializedMesh(null, quantized, normals, triangles, Storage.QUANTIZED, maxError, getEmission(),
+					getMaterial());
+
+		Storage storage = vertices instanceof OffHeapVertexBuffer ? Storage.OFF_HEAP
+				: vertices instanceof FloatVertexBuffer ? Storage.FLOAT : Storage.DOUBLE;
+		double[] coords = new double[3 * vertices.size()];
+		for (int i = 0; i < vertices.size(); ++i) {
+			coords[3 * i] = vertices.x(i);
+			coords[3 * i + 1] = vertices.y(i);
+			coords[3 * i + 2] = vertices.z(i);
+		}
+		return new SerializedMesh(coords, null, null, triangles, storage, maxError, getEmission(), getMaterial());
+	}
+
+	/**
+	 * The serialized form of a mesh - its stored vertices (as the quantized words
+	 * and the chunk corners and steps for a quantized mesh) and indices, its
+	 * storage mode, emission and material.
+	 */
+	private static class SerializedMesh implements Serializable {
+		/** Serialization version */
+		private static final long serialVersionUID = 1L;
+		/** The coordinates of the stored vertices, three per vertex, null if quantized */
+		private final double[] coords;
+		/** The quantized vertices, null if not quantized */
+		private final QuantizedVertexBuffer quantized;
+		/** Octahedral encoded normals of the triangles, null if not stored */
+		private final int[] normals;
+		/** Indices of the vertices of the triangles, three per triangle */
+		private final int[] indices;
+		/** The way the vertices and the bounding boxes are kept */
+		private final Storage storage;
+		/** The quantization error of the mesh */
+		private final double maxError;
+		/** The emission of the mesh */
+		private final Color emission;
+		/** The material of the mesh */
+		private final Material material;
+
+		/**
+		 * Constructs the serialized form of a mesh.
+		 *
+		 * @param coords    the coordinates of the stored vertices, three per vertex,
+		 *                  null if quantized
+		 * @param quantized the quantized vertices, null if not quantized
+		 * @param normals   octahedral encoded normals of the triangles, null if not
+		 *                  stored
+		 * @param indices   indices of the vertices of the triangles, three per
+		 *                  triangle
+		 * @param storage   the way the vertices and the bounding boxes are kept
+		 * @param maxError  the quantization error of the mesh
+		 * @param emission  the emission of the mesh
+		 * @param material  the material of the mesh
+		 */
+		SerializedMesh(double[] coords, QuantizedVertexBuffer quantized, int[] normals, int[] indices, Storage storage,
+				double maxError, Color emission, Material material) {
+			this.coords = coords;
+			this.quantized = quantized;
+			this.normals = normals;
+			this.indices = indices;
+			this.storage = storage;
+			this.maxError = maxError;
+			this.emission = emission;
+			this.material = material;
+		}
+
+		/**
+		 * Rebuilds the mesh on deserialization. A quantized mesh is restored as it
+		 * is, so it is never quantized again.
+		 *
+		 * @return the mesh
+		 * @throws ObjectStreamException never
+		 */
+		private Object readResolve() throws ObjectStreamException {
+			Mesh mesh;
+			if (quantized != null)
+				mesh = new Mesh(quantized, indices, normals, maxError);
+			else {
+				Point[] vertices = new Point[coords.length / 3];
+				for (int i = 0; i < vertices.length; ++i)
+					vertices[i] = new Point(coords[3 * i], coords[3 * i + 1], coords[3 * i + 2]);
+				mesh = new Mesh(vertices, indices, storage, null, Double.POSITIVE_INFINITY);
+			}
+			mesh.setEmission(emission).setMaterial(material);
+			return mesh;
+		}
+	}
+
+	/**
+	 * A triangle of the mesh as it is referred by an intersection point. It shares
+	 * the emission and the material of the mesh.
+	 */
+	private class Face extends Geometry {
+		/** Serialization version */
+		private static final long serialVersionUID = 1L;
+
+		/** The index of the triangle in the mesh */
+		private final int triangle;
+
+		/**
+		 * Constructs a face of the mesh.
+		 *
+		 * @param triangle the index of the triangle in the mesh
+		 */
+		Face(int triangle) {
+			this.triangle = triangle;
+		}
+
+		@Override
+		public Color getEmission() {
+			return Mesh.this.getEmission();
+		}
+
+		@Override
+		public Material getMaterial() {
+			return Mesh.this.getMaterial();
+		}
+
+		@Override
+		public Vector getNormal(Point point) {
+			return Mesh.this.getNormal(triangle);
+		}
+
+		@Override
+		protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+			return null; // the faces are intersected through the mesh
+		}
+
+		@Override
+		public Geometry getBody() {
+			return Mesh.this;
+		}
+	}
+}
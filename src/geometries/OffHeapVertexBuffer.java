@@ -0,0 +1,78 @@
+package geometries;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Vertex buffer keeping the coordinates in single precision outside of the Java
+ * heap - in direct or memory mapped byte buffers. The points are split into
+ * segments of a fixed amount of points, a buffer per segment, so the buffer is
+ * not limited to the 2GB size of a single byte buffer. The buffers are accessed
+ * through a {@link VarHandle} view, so reading a coordinate is a plain memory
+ * load without bounds-checked array wrappers.
+ */
+class OffHeapVertexBuffer implements VertexBuffer {
+	/** Float view of a byte buffer in the native byte order */
+	private static final VarHandle FLOAT = MethodHandles.byteBufferViewVarHandle(float[].class,
+			ByteOrder.nativeOrder());
+	/** The bytes of a coordinates triad */
+	static final int POINT_BYTES = 3 * Float.BYTES;
+	/** Binary logarithm of the amount of points in a segment - 768MB */
+	static final int SEGMENT_SHIFT = 26;
+	/** The index of a point in its segment */
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	/** The segments of the memory holding the coordinates */
+	private final ByteBuffer[] memory;
+	/** The amount of stored points */
+	private final int size;
+
+	/**
+	 * Constructs a buffer in the given memory and fills it with the coordinates,
+	 * rounding each one to the nearest float value.
+	 *
+	 * @param memory the segments of the memory for the coordinates,
+	 *               {@link #POINT_BYTES} per point and up to 2^{@link #SEGMENT_SHIFT}
+	 *               points in each
+	 * @param coords the coordinates, three per point
+	 */
+	OffHeapVertexBuffer(ByteBuffer[] memory, double[] coords) {
+		this.memory = memory;
+		this.size = coords.length / 3;
+		for (int i = 0; i < size; ++i) {
+			ByteBuffer segment = memory[i >>> SEGMENT_SHIFT];
+			int offset = (i & SEGMENT_MASK) * POINT_BYTES;
+			FLOAT.set(segment, offset, (float) coords[3 * i]);
+			FLOAT.set(segment, offset + Float.BYTES, (float) coords[3 * i + 1]);
+			FLOAT.set(segment, offset + 2 * Float.BYTES, (float) coords[3 * i + 2]);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double x(int index) {
+		return (float) FLOAT.get(memory[index >>> SEGMENT_SHIFT], (index & SEGMENT_MASK) * POINT_BYTES);
+	}
+
+	@Override
+	public double y(int index) {
+		return (float) FLOAT.get(memory[index >>> SEGMENT_SHIFT], (index & SEGMENT_MASK) * POINT_BYTES + Float.BYTES);
+	}
+
+	@Override
+	public double z(int index) {
+		return (float) FLOAT.get(memory[index >>> SEGMENT_SHIFT],
+				(index & SEGMENT_MASK) * POINT_BYTES + 2 * Float.BYTES);
+	}
+
+	@Override
+	public long bytes() {
+		return (long) size * POINT_BYTES;
+	}
+}
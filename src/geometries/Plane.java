@@ -3,7 +3,9 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
+import primitives.UnitVector;
+import primitives.Util;
+import primitives.Vec3;
 import primitives.Vector;
 
 import java.util.List;
@@ -12,11 +14,13 @@ import java.util.List;
  * Class Plane represents a flat geometric surface in three-dimensional space.
  */
 public class Plane extends Geometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/** point in plane */
 	private final Point point;
 	/** vector in plane */
-	private final Vector normal;
+	private final UnitVector normal;
 
 	/**
 	 * Constructs a Plane object using three points.
@@ -80,14 +84,11 @@ public class Plane extends Geometry {
 			return null; // Ray is parallel to the plane
 
 		// Calculate the numerator of the division for finding the parameter t
-		Vector p0MinusQ0;
-		try {
-			p0MinusQ0 = point.subtract(ray.getHead());
-		} catch (IllegalArgumentException ignore) {
-			return null;
-		}
+		Vec3 p0MinusQ0 = Vec3.register(0).sub(point, ray.getHead());
+		if (p0MinusQ0.isZero())
+			return null; // Ray starts at the plane reference point
 
-		double numerator = this.normal.dotProduct(p0MinusQ0);
+		double numerator = p0MinusQ0.dot(this.normal);
 		// Calculate the parameter t
 		double t = Util.alignZero(numerator / denominator);
 
@@ -1,6 +1,7 @@
 
 package geometries;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static primitives.Util.isZero;
@@ -16,8 +17,11 @@ import primitives.Vector;
  * @author Dan
  */
 public class Polygon extends Geometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** List of polygon's vertices */
-	protected final List<Point> vertices;
+	protected final ArrayList<Point> vertices;
 	/** Associated plane in which the polygon lays */
 	protected final Plane plane;
 	/** The size of the polygon - the amount of the vertices in the polygon */
@@ -47,7 +51,7 @@ public class Polygon extends Geometry {
 	public Polygon(Point... vertices) {
 		if (vertices.length < 3)
 			throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
-		this.vertices = List.of(vertices);
+		this.vertices = new ArrayList<>(List.of(vertices));
 		size = vertices.length;
 
 		// Generate the plane according to the first three vertices and associate the
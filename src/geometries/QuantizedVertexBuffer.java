@@ -0,0 +1,101 @@
+package geometries;
+
+import java.io.Serializable;
+
+/**
+ * Vertex buffer keeping each coordinate as a 16-bit unsigned number relative to
+ * the bounding box of a chunk of consequent points - a quarter of the memory of
+ * {@link DoubleVertexBuffer}. The coordinates are decompressed on reading.
+ * <p>
+ * Every point belongs to exactly one chunk, so a vertex shared by several
+ * triangles is decompressed to the same value for all of them and the mesh
+ * stays watertight.
+ * <p>
+ * The buffer is serialized as it is - by its quantized coordinates and the
+ * corners and steps of its chunks.
+ */
+class QuantizedVertexBuffer implements VertexBuffer, Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+	/** The largest quantized value */
+	private static final int LEVELS = 0xFFFF;
+
+	/** The quantized coordinates, three per point */
+	private final short[] coords;
+	/** Lower corner and quantization step per axis of each chunk, six per chunk */
+	private final float[] chunks;
+	/** Binary logarithm of the amount of points in a chunk */
+	private final int chunkShift;
+
+	/**
+	 * Constructs a buffer from double coordinates.
+	 *
+	 * @param coords     the coordinates, three per point
+	 * @param chunkShift binary logarithm of the amount of points in a chunk
+	 */
+	QuantizedVertexBuffer(double[] coords, int chunkShift) {
+		this.chunkShift = chunkShift;
+		int size = coords.length / 3;
+		int chunkSize = 1 << chunkShift;
+		int count = (size + chunkSize - 1) >> chunkShift;
+		this.coords = new short[coords.length];
+		this.chunks = new float[6 * count];
+		for (int chunk = 0; chunk < count; ++chunk) {
+			int start = chunk << chunkShift;
+			int end = Math.min(start + chunkSize, size);
+			for (int axis = 0; axis < 3; ++axis) {
+				double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+				for (int i = start; i < end; ++i) {
+					min = Math.min(min, coords[3 * i + axis]);
+					max = Math.max(max, coords[3 * i + axis]);
+				}
+				// the corner and the step are kept as floats, so quantize relative to
+				// their stored values: the corner is rounded down to stay below all points
+				float corner = (float) FloatVertexBuffer.roundDown(min);
+				float step = (float) FloatVertexBuffer.roundUp((max - corner) / LEVELS);
+				chunks[6 * chunk + axis] = corner;
+				chunks[6 * chunk + 3 + axis] = step;
+				for (int i = start; i < end; ++i)
+					this.coords[3 * i + axis] = (short) (step == 0 ? 0
+							: Math.min(LEVELS, Math.round((coords[3 * i + axis] - corner) / step)));
+			}
+		}
+	}
+
+	/**
+	 * Decompresses a coordinate.
+	 *
+	 * @param index the index of the point
+	 * @param axis  the axis of the coordinate (0 - x, 1 - y, 2 - z)
+	 * @return the coordinate value
+	 */
+	private double get(int index, int axis) {
+		int chunk = 6 * (index >> chunkShift) + axis;
+		return chunks[chunk] + Short.toUnsignedInt(coords[3 * index + axis]) * (double) chunks[chunk + 3];
+	}
+
+	@Override
+	public int size() {
+		return coords.length / 3;
+	}
+
+	@Override
+	public double x(int index) {
+		return get(index, 0);
+	}
+
+	@Override
+	public double y(int index) {
+		return get(index, 1);
+	}
+
+	@Override
+	public double z(int index) {
+		return get(index, 2);
+	}
+
+	@Override
+	public long bytes() {
+		return (long) coords.length * Short.BYTES + (long) chunks.length * Float.BYTES;
+	}
+}
@@ -5,6 +5,8 @@ package geometries;
  * represents a geometric body with a radius.  
  */
 public abstract class RadialGeometry extends Geometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Radius of the geometric body
@@ -1,8 +1,10 @@
 
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
-import primitives.Ray;
+import primitives.Ray;
+import primitives.Vec3;
 import primitives.Vector;
 import java.util.List;
 import static primitives.Util.*;
@@ -11,6 +13,9 @@ import static primitives.Util.*;
  * Class Sphere represents a three-dimensional sphere.
  */
 public class Sphere extends RadialGeometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** Center point of the sphere */
 	private final Point center;
 
@@ -25,26 +30,81 @@ public class Sphere extends RadialGeometry {
 		this.center = center;
 	}
 
+	/**
+	 * Returns the center point of the sphere.
+	 *
+	 * @return the center of the sphere
+	 */
+	public Point getCenter() {
+		return center;
+	}
+
 	@Override
 	public Vector getNormal(Point point) {
-		return (point.subtract(center).normalize());
+		return Vec3.register(0).sub(point, center).toUnitVector();
+	}
+
+	/**
+	 * Finds the nearest intersection of a ray with the sphere within a range of the
+	 * ray parameter, without allocating any object. A ray starting inside the
+	 * sphere (including its center) gets the exit point.
+	 *
+	 * @param ray  the ray
+	 * @param tMin the lower bound of the ray parameter (excluded)
+	 * @param tMax the upper bound of the ray parameter (excluded)
+	 * @return the ray parameter of the nearest intersection in the range, or
+	 *         {@link Double#POSITIVE_INFINITY} if there is none
+	 */
+	public double findNearest(Ray ray, double tMin, double tMax) {
+		Double3 head = ray.getHead().xyz;
+		Double3 dir = ray.getDirection().xyz;
+		return findNearest(center.xyz.d1 - head.d1, center.xyz.d2 - head.d2, center.xyz.d3 - head.d3, radiusSquared,
+				dir.d1, dir.d2, dir.d3, tMin, tMax);
+	}
+
+	/**
+	 * The sphere intersection kernel - finds the nearest intersection of a ray
+	 * with a sphere within a range of the ray parameter.
+	 *
+	 * @param ux            x of the vector from the ray head to the sphere center
+	 * @param uy            y of the vector from the ray head to the sphere center
+	 * @param uz            z of the vector from the ray head to the sphere center
+	 * @param radiusSquared the squared radius of the sphere
+	 * @param dx            x of the (unit) ray direction
+	 * @param dy            y of the (unit) ray direction
+	 * @param dz            z of the (unit) ray direction
+	 * @param tMin          the lower bound of the ray parameter (excluded)
+	 * @param tMax          the upper bound of the ray parameter (excluded)
+	 * @return the ray parameter of the nearest intersection in the range, or
+	 *         {@link Double#POSITIVE_INFINITY} if there is none
+	 */
+	static double findNearest(double ux, double uy, double uz, double radiusSquared, double dx, double dy, double dz,
+			double tMin, double tMax) {
+		double tm = ux * dx + uy * dy + uz * dz;
+		double thSquared = radiusSquared - (ux * ux + uy * uy + uz * uz - tm * tm);
+		if (alignZero(thSquared) <= 0)
+			return Double.POSITIVE_INFINITY; // the ray's line misses the sphere or is tangent to it
+		double th = Math.sqrt(thSquared);
+		double t = tm - th;
+		if (alignZero(t - tMin) <= 0)
+			t = tm + th; // the entry point is out of range - the head may be inside the sphere
+		return alignZero(t - tMin) > 0 && t < tMax ? t : Double.POSITIVE_INFINITY;
 	}
 
 	@Override
 	protected List<Intersectable.GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-		// Initialize an empty list to store the intersection GeoPoints
-		// List<GeoPoint> intersections = new ArrayList<>();
-		if (ray.getHead().equals(this.center))
-			return List.of(new Intersectable.GeoPoint(this, ray.getPoint(this.radius)));
+		Double3 head = ray.getHead().xyz;
+		Double3 dir = ray.getDirection().xyz;
 
-		// Calculate the vector from the ray's start point to the center of the sphere
-		Vector u = this.center.subtract(ray.getHead());
+		// Calculate the vector u from the ray's start point to the center of the
+		// sphere - it may be zero, so it is kept in plain numbers
+		double ux = center.xyz.d1 - head.d1, uy = center.xyz.d2 - head.d2, uz = center.xyz.d3 - head.d3;
 
 		// Calculate the projection of u on the ray's direction vector
-		double tm = u.dotProduct(ray.getDirection());
+		double tm = ux * dir.d1 + uy * dir.d2 + uz * dir.d3;
 		// Calculate the distance from the ray's start point to the closest point to the
 		// sphere's center
-		double dSquared = u.lengthSquared() - tm * tm;
+		double dSquared = ux * ux + uy * uy + uz * uz - tm * tm;
 		double thSquared = this.radiusSquared - dSquared;
 		// If the distance is greater than the sphere's radius, there are no
 		// intersections
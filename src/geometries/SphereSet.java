@@ -0,0 +1,140 @@
+package geometries;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import primitives.Double3;
+import primitives.Ray;
+import static primitives.Util.alignZero;
+
+/**
+ * Class SphereSet represents a group of spheres kept in structure-of-arrays
+ * form: the centers and the squared radii of all the spheres are stored in
+ * separate flat arrays, so a ray is tested against all of them in one tight
+ * loop over consequent memory, without touching the sphere objects. The
+ * intersection points still refer to the original spheres, with their emission
+ * and material.
+ */
+public class SphereSet extends Intersectable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
+	/** The spheres of the set */
+	private final Sphere[] spheres;
+	/** The x coordinates of the sphere centers */
+	private final double[] centerX;
+	/** The y coordinates of the sphere centers */
+	private final double[] centerY;
+	/** The z coordinates of the sphere centers */
+	private final double[] centerZ;
+	/** The squared radii of the spheres */
+	private final double[] radiusSquared;
+	/** The radii of the spheres */
+	private final double[] radius;
+
+	/**
+	 * Constructs a set of spheres.
+	 *
+	 * @param spheres the spheres of the set
+	 */
+	public SphereSet(Sphere... spheres) {
+		this.spheres = spheres.clone();
+		int count = spheres.length;
+		centerX = new double[count];
+		centerY = new double[count];
+		centerZ = new double[count];
+		radiusSquared = new double[count];
+		radius = new double[count];
+		for (int i = 0; i < count; ++i) {
+			Double3 center = spheres[i].getCenter().xyz;
+			centerX[i] = center.d1;
+			centerY[i] = center.d2;
+			centerZ[i] = center.d3;
+			radiusSquared[i] = spheres[i].radiusSquared;
+			radius[i] = spheres[i].radius;
+		}
+	}
+
+	/**
+	 * Returns the amount of the spheres in the set.
+	 *
+	 * @return the number of spheres
+	 */
+	public int size() {
+		return spheres.length;
+	}
+
+	/**
+	 * Returns a sphere of the set.
+	 *
+	 * @param index the index of the sphere
+	 * @return the sphere
+	 */
+	public Sphere getSphere(int index) {
+		return spheres[index];
+	}
+
+	/**
+	 * Finds the sphere of the set which a ray hits first within a range of the ray
+	 * parameter, without allocating any object. The distance to the hit may be
+	 * found by {@link Sphere#findNearest(Ray, double, double)} of that sphere.
+	 *
+	 * @param ray  the ray
+	 * @param tMin the lower bound of the ray parameter (excluded)
+	 * @param tMax the upper bound of the ray parameter (excluded)
+	 * @return the index of the nearest hit sphere, or -1 if none is hit
+	 */
+	public int findNearest(Ray ray, double tMin, double tMax) {
+		Double3 head = ray.getHead().xyz;
+		Double3 dir = ray.getDirection().xyz;
+		double ox = head.d1, oy = head.d2, oz = head.d3;
+		double dx = dir.d1, dy = dir.d2, dz = dir.d3;
+
+		int nearest = -1;
+		double nearestT = tMax;
+		for (int i = 0; i < centerX.length; ++i) {
+			double ux = centerX[i] - ox, uy = centerY[i] - oy, uz = centerZ[i] - oz;
+			// skip the square root for spheres entirely behind the range
+			// or entirely beyond the nearest hit found so far
+			double tm = ux * dx + uy * dy + uz * dz;
+			if (tm + radius[i] <= tMin || tm - radius[i] >= nearestT)
+				continue;
+			double t = Sphere.findNearest(ux, uy, uz, radiusSquared[i], dx, dy, dz, tMin, nearestT);
+			if (t < nearestT) {
+				nearestT = t;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	@Override
+	protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+		Double3 head = ray.getHead().xyz;
+		Double3 dir = ray.getDirection().xyz;
+		double ox = head.d1, oy = head.d2, oz = head.d3;
+		double dx = dir.d1, dy = dir.d2, dz = dir.d3;
+
+		List<GeoPoint> intersections = null;
+		for (int i = 0; i < centerX.length; ++i) {
+			double ux = centerX[i] - ox, uy = centerY[i] - oy, uz = centerZ[i] - oz;
+			double tm = ux * dx + uy * dy + uz * dz;
+			if (tm + radius[i] <= 0)
+				continue; // the sphere is behind the ray head
+			double thSquared = radiusSquared[i] - (ux * ux + uy * uy + uz * uz - tm * tm);
+			if (alignZero(thSquared) <= 0)
+				continue;
+			double th = Math.sqrt(thSquared);
+			double t2 = tm + th;
+			if (alignZero(t2) <= 0)
+				continue;
+			if (intersections == null)
+				intersections = new LinkedList<>();
+			double t1 = tm - th;
+			if (alignZero(t1) > 0)
+				intersections.add(new GeoPoint(spheres[i], ray.getPoint(t1)));
+			intersections.add(new GeoPoint(spheres[i], ray.getPoint(t2)));
+		}
+		return intersections;
+	}
+}
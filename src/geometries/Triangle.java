@@ -1,7 +1,8 @@
 
 package geometries;
 
-import primitives.Ray;
+import primitives.Ray;
+import primitives.Vec3;
 import primitives.Vector;
 
 import java.util.List;
@@ -12,6 +13,9 @@ import static primitives.Util.*;
  * Class Triangle represents a triangle in three-dimensional space.
  */
 public class Triangle extends Polygon {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructs a Triangle object with three given points.
 	 *
@@ -26,7 +30,7 @@ public class Triangle extends Polygon {
 	@Override
 	protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
 		// Find intersection points with the plane containing the triangle
-		List<Point> intersectionPoints = plane.findIntersections(ray);
+		List<GeoPoint> intersectionPoints = plane.findGeoIntersections(ray);
 		// If there are no intersection points with the plane, return null
 		if (intersectionPoints == null)
 			return null;
@@ -34,26 +38,37 @@ public class Triangle extends Polygon {
 		var head = ray.getHead();
 		Vector v = ray.getDirection();
 
-		// Check if the intersection point lies inside the triangle
-		Vector v1 = vertices.getFirst().subtract(head);
-		Vector v2 = vertices.get(1).subtract(head);
-		Vector n1 = v1.crossProduct(v2).normalize();
-		double sign1 = alignZero(v.dotProduct(n1));
+		// Check if the intersection point lies inside the triangle. A zero vector on
+		// the way means the ray starts on a vertex or in line with an edge - then the
+		// intersection point is on the triangle boundary and does not count
+		Vec3 v1 = Vec3.register(0).sub(vertices.getFirst(), head);
+		Vec3 v2 = Vec3.register(1).sub(vertices.get(1), head);
+		Vec3 v3 = Vec3.register(2).sub(vertices.get(2), head);
+		if (v1.isZero() || v2.isZero() || v3.isZero())
+			return null;
+
+		Vec3 n = Vec3.register(3).cross(v1, v2);
+		if (n.isZero())
+			return null;
+		double sign1 = alignZero(n.normalize().dot(v));
 		if (sign1 == 0)
 			return null;
 
-		Vector v3 = vertices.get(2).subtract(head);
-		Vector n2 = v2.crossProduct(v3).normalize();
-		double sign2 = alignZero(v.dotProduct(n2));
+		n.cross(v2, v3);
+		if (n.isZero())
+			return null;
+		double sign2 = alignZero(n.normalize().dot(v));
 		if (sign1 * sign2 <= 0)
 			return null;
 
-		Vector n3 = v3.crossProduct(v1).normalize();
-		double sign3 = alignZero(v.dotProduct(n3));
+		n.cross(v3, v1);
+		if (n.isZero())
+			return null;
+		double sign3 = alignZero(n.normalize().dot(v));
 		if (sign1 * sign3 <= 0)
 			return null;
 
-		return List.of(new GeoPoint(this, intersectionPoints.getFirst()));
+		return List.of(new GeoPoint(this, intersectionPoints.getFirst().point));
 	}
 
 }
@@ -9,6 +9,9 @@ import primitives.*;
  * Class Tube represents a three-dimensional tube.
  */
 public class Tube extends RadialGeometry {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** Axis ray of the tube */
 	protected final Ray axisRay;
 
@@ -0,0 +1,60 @@
+package geometries;
+
+import primitives.Point;
+
+/**
+ * Interface VertexBuffer represents a flat storage of 3D coordinates, such as
+ * the vertices of a mesh or the corners of its bounding boxes. The
+ * implementations differ only by the way the numbers are kept in memory - all
+ * of them return the coordinates as double values.
+ */
+public interface VertexBuffer {
+
+	/**
+	 * Returns the amount of coordinate triads in the buffer.
+	 *
+	 * @return the number of stored points
+	 */
+	int size();
+
+	/**
+	 * Returns the x coordinate of a stored point.
+	 *
+	 * @param index the index of the point in the buffer
+	 * @return the x coordinate
+	 */
+	double x(int index);
+
+	/**
+	 * Returns the y coordinate of a stored point.
+	 *
+	 * @param index the index of the point in the buffer
+	 * @return the y coordinate
+	 */
+	double y(int index);
+
+	/**
+	 * Returns the z coordinate of a stored point.
+	 *
+	 * @param index the index of the point in the buffer
+	 * @return the z coordinate
+	 */
+	double z(int index);
+
+	/**
+	 * Returns the amount of memory used for the coordinates, in bytes.
+	 *
+	 * @return the size of the storage in bytes
+	 */
+	long bytes();
+
+	/**
+	 * Returns a stored point as a {@link Point} object.
+	 *
+	 * @param index the index of the point in the buffer
+	 * @return the point
+	 */
+	default Point getPoint(int index) {
+		return new Point(x(index), y(index), z(index));
+	}
+}
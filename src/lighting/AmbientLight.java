@@ -8,6 +8,8 @@ import primitives.Double3;
  * A class representing Ambient Light.
  */
 public class AmbientLight extends Light {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Represents an ambient light source with no ambient light effect. The ambient
@@ -2,6 +2,7 @@ package lighting;
 
 import primitives.Color;
 import primitives.Point;
+import primitives.UnitVector;
 import primitives.Vector;
 
 /**
@@ -9,12 +10,15 @@ import primitives.Vector;
  * implements LightSource.
  */
 public class DirectionalLight extends Light implements LightSource {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Represents a direction vector in three-dimensional space. This vector can be
 	 * used to denote the direction of light, movement, or any other directional
 	 * quantity.
 	 */
-	private final Vector direction;
+	private final UnitVector direction;
 
 	/**
 	 * Constructs a directional light with the given intensity and direction.
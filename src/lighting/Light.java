@@ -1,12 +1,17 @@
 package lighting;
 
+import java.io.Serializable;
+
 import primitives.Color;
 
 /**
  * Abstract class representing a light source. This class defines common
  * properties and behavior for all light sources.
  */
-public abstract class Light {
+public abstract class Light implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The intensity (color) of the light source. This field is protected to allow
 	 * access within subclasses.
@@ -2,6 +2,7 @@ package lighting;
 
 import primitives.Color;
 import primitives.Point;
+import primitives.Vec3;
 import primitives.Vector;
 
 /**
@@ -9,6 +10,8 @@ import primitives.Vector;
  * LightSource.
  */
 public class PointLight extends Light implements LightSource {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The position of the light source in 3D space.
@@ -99,10 +102,9 @@ public class PointLight extends Light implements LightSource {
 	@Override
 	public Vector getL(Point p) {
 		// if the point is the same as the light source, return null
-		if (p.equals(position))// ??למחוק
-			return null;
+		Vec3 l = Vec3.register(0).sub(p, position);
 		// otherwise, return the normalized vector from the light source to the point
-		return p.subtract(position).normalize();
+		return l.isZero() ? null : l.toUnitVector();
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package lighting;
 
 import primitives.Color;
 import primitives.Point;
+import primitives.UnitVector;
 import primitives.Vector;
 import static primitives.Util.alignZero;
 
@@ -10,10 +11,13 @@ import static primitives.Util.alignZero;
  * implements LightSource.
  */
 public class SpotLight extends PointLight {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the direction vector.
 	 */
-	private final Vector direction;
+	private final UnitVector direction;
 	/**
 	 * the narrow beam value.
 	 */
@@ -61,7 +65,10 @@ public class SpotLight extends PointLight {
 	 */
 	@Override
 	public Color getIntensity(Point point) {
-		double cos = alignZero(direction.dotProduct(getL(point)));
+		Vector l = getL(point);
+		if (l == null)
+			return Color.BLACK;
+		double cos = alignZero(direction.dotProduct(l));
 		return cos <= 0 ? Color.BLACK //
 				: super.getIntensity(point).scale(narrowBeam == 1 ? cos //
 						: Math.pow(cos, narrowBeam));
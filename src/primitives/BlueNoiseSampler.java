@@ -0,0 +1,131 @@
+package primitives;
+
+/**
+ * Blue noise sampler - the samples of each pixel are the R2 sequence (the
+ * additive recurrence of the plastic number), rotated in each dimension by a
+ * value of a blue noise mask at the pixel (Cranley-Patterson rotation). The
+ * rotations of neighbouring pixels differ as much as possible, so the error
+ * left in the image is high-frequency noise, which is less visible than the
+ * white noise of independent random samples. Each dimension reads the mask at
+ * its own random offset.
+ * <p>
+ * The mask is a tile of 64x64 ranks made once by the void-and-cluster method
+ * of Ulichney, with a Gaussian filter on the torus.
+ */
+public final class BlueNoiseSampler implements Sampler {
+	private static final long serialVersionUID = 1L;
+
+	/** The side of the mask tile (a power of 2) */
+	private static final int SIZE = 64;
+	/** The amount of the mask values */
+	private static final int AREA = SIZE * SIZE;
+	/** The deviation of the Gaussian filter of void-and-cluster */
+	private static final double SIGMA = 1.5;
+	/** The steps of the R2 sequence in the two dimensions of each pair */
+	private static final double R2_X = 0.7548776662466927, R2_Y = 0.5698402909980532;
+
+	/** The mask, made on its first use */
+	private static final class Mask {
+		/** The ranks of the mask values, row by row */
+		static final int[] RANKS = voidAndCluster();
+	}
+
+	@Override
+	public double get(long seed, int x, int y, int sample, int dimension) {
+		long scramble = Sampler.scramble(seed, 0, 0, dimension);
+		int maskX = (int) (x + scramble) & (SIZE - 1), maskY = (int) (y + (scramble >>> 32)) & (SIZE - 1);
+		double rotation = (Mask.RANKS[maskY * SIZE + maskX] + 0.5) / AREA;
+		// each pair of dimensions is an R2 sequence, starting at the middle
+		double value = (0.5 + sample * ((dimension & 1) == 0 ? R2_X : R2_Y)) % 1 + rotation;
+		return value >= 1 ? value - 1 : value;
+	}
+
+	/**
+	 * Makes a blue noise mask by void-and-cluster: a random initial pattern is
+	 * relaxed by moving its tightest cluster into its largest void, ranked down
+	 * by removing its tightest clusters, and ranked up by filling its largest
+	 * voids (the largest void of the set points is the tightest cluster of the
+	 * unset points, so the method needs no third phase)
+	 * 
+	 * @return the ranks of the mask values, row by row
+	 */
+	private static int[] voidAndCluster() {
+		double[] filter = new double[AREA];
+		for (int dy = 0; dy < SIZE; ++dy)
+			for (int dx = 0; dx < SIZE; ++dx) {
+				int wrapX = Math.min(dx, SIZE - dx), wrapY = Math.min(dy, SIZE - dy);
+				filter[dy * SIZE + dx] = Math.exp(-(wrapX * wrapX + wrapY * wrapY) / (2 * SIGMA * SIGMA));
+			}
+
+		boolean[] pattern = new boolean[AREA];
+		double[] energy = new double[AREA];
+		int ones = AREA / 10;
+		for (int k = 0, placed = 0; placed < ones; ++k) {
+			int point = (int) (SampleRandom.hash(0, SampleRandom.ALL_PIXELS, k, 0) >>> 52);
+			if (!pattern[point]) {
+				toggle(pattern, energy, filter, point);
+				++placed;
+			}
+		}
+		while (true) {
+			int cluster = extreme(pattern, energy, true);
+			toggle(pattern, energy, filter, cluster);
+			int largestVoid = extreme(pattern, energy, false);
+			toggle(pattern, energy, filter, largestVoid);
+			if (largestVoid == cluster)
+				break;
+		}
+
+		int[] ranks = new int[AREA];
+		boolean[] down = pattern.clone();
+		double[] downEnergy = energy.clone();
+		for (int rank = ones - 1; rank >= 0; --rank) {
+			int cluster = extreme(down, downEnergy, true);
+			toggle(down, downEnergy, filter, cluster);
+			ranks[cluster] = rank;
+		}
+		for (int rank = ones; rank < AREA; ++rank) {
+			int largestVoid = extreme(pattern, energy, false);
+			toggle(pattern, energy, filter, largestVoid);
+			ranks[largestVoid] = rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * Sets or clears a point of a pattern, and updates the filtered energy of the
+	 * pattern
+	 * 
+	 * @param pattern the pattern
+	 * @param energy  the energy of the pattern
+	 * @param filter  the filter, by the offset from the point
+	 * @param point   the point
+	 */
+	private static void toggle(boolean[] pattern, double[] energy, double[] filter, int point) {
+		double sign = pattern[point] ? -1 : 1;
+		pattern[point] = !pattern[point];
+		int px = point % SIZE, py = point / SIZE;
+		for (int index = 0; index < AREA; ++index) {
+			int dx = (index % SIZE - px) & (SIZE - 1), dy = (index / SIZE - py) & (SIZE - 1);
+			energy[index] += sign * filter[dy * SIZE + dx];
+		}
+	}
+
+	/**
+	 * Finds the tightest cluster (the set point of the highest energy) or the
+	 * largest void (the unset point of the lowest energy) of a pattern
+	 * 
+	 * @param pattern the pattern
+	 * @param energy  the energy of the pattern
+	 * @param cluster true for the tightest cluster, false for the largest void
+	 * @return the point
+	 */
+	private static int extreme(boolean[] pattern, double[] energy, boolean cluster) {
+		int found = -1;
+		for (int index = 0; index < AREA; ++index)
+			if (pattern[index] == cluster && (found < 0
+					|| (cluster ? energy[index] > energy[found] : energy[index] < energy[found])))
+				found = index;
+		return found;
+	}
+}
@@ -1,5 +1,7 @@
 package primitives;
 
+import java.io.Serializable;
+
 import static primitives.Util.isZero;
 
 /**
@@ -10,7 +12,10 @@ import static primitives.Util.isZero;
  * 
  * @author Dan Zilberstein
  */
-public class Color {
+public class Color implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The internal fields maintain RGB components as double numbers from 0 to
 	 * whatever...
@@ -84,6 +89,16 @@ public class Color {
 		return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
 	}
 
+	/**
+	 * Returns the RGB components, without the limit of the printable range - for
+	 * accumulating colors in bulk
+	 * 
+	 * @return triad of Red/Green/Blue components
+	 */
+	public Double3 getRgb() {
+		return rgb;
+	}
+
 	/**
 	 * Operation of adding this and one or more other colors (by component)
 	 * 
@@ -143,6 +158,31 @@ public class Color {
 		return "rgb:" + rgb;
 	}
 
+	/**
+	 * Returns the relative luminance of the color - the sum of its components
+	 * weighted by their share in the perceived brightness (Rec. 709)
+	 *
+	 * @return the luminance, in the scale of the components
+	 */
+	public double luminance() {
+		return luminance(rgb.d1, rgb.d2, rgb.d3);
+	}
+
+	/**
+	 * Returns the relative luminance of three components - the sum of the
+	 * components weighted by their share in the perceived brightness (Rec. 709).
+	 * It applies to color components, to differences of colors and to the
+	 * coefficients the colors are scaled by.
+	 *
+	 * @param r the red component
+	 * @param g the green component
+	 * @param b the blue component
+	 * @return the luminance, in the scale of the components
+	 */
+	public static double luminance(double r, double g, double b) {
+		return 0.2126 * r + 0.7152 * g + 0.0722 * b;
+	}
+
 	/**
 	 * Checks if this color is similar to another color.
 	 *
@@ -0,0 +1,120 @@
+package primitives;
+
+/**
+ * Mutable sum of colors for combining the samples of a pixel. Unlike
+ * {@link Color#add(Color...)}, adding a color to the accumulator allocates
+ * nothing, and a {@link Color} is created only once for the final result.
+ * <p>
+ * For pixels with many samples the accumulator may use Kahan compensated
+ * summation, which keeps the rounding error of the sum independent of the
+ * amount of the samples.
+ */
+public final class ColorAccumulator {
+	/** The sums of the Red/Green/Blue components */
+	private double r, g, b;
+	/** The rounding compensations of the Red/Green/Blue sums */
+	private double cr, cg, cb;
+	/** The sum of the weights of the added colors */
+	private double weight;
+	/** Whether the sums are compensated */
+	private final boolean compensated;
+
+	/**
+	 * Constructs an empty accumulator with plain summation
+	 */
+	public ColorAccumulator() {
+		this(false);
+	}
+
+	/**
+	 * Constructs an empty accumulator
+	 *
+	 * @param compensated whether to use Kahan compensated summation
+	 */
+	public ColorAccumulator(boolean compensated) {
+		this.compensated = compensated;
+	}
+
+	/**
+	 * Adds a color with weight 1
+	 *
+	 * @param color the color to add
+	 * @return this accumulator
+	 */
+	public ColorAccumulator add(Color color) {
+		return add(color, 1);
+	}
+
+	/**
+	 * Adds a color scaled by its weight
+	 *
+	 * @param color the color to add
+	 * @param w     the weight of the color
+	 * @return this accumulator
+	 */
+	public ColorAccumulator add(Color color, double w) {
+		Double3 rgb = color.getRgb();
+		weight += w;
+		if (!compensated) {
+			r += rgb.d1 * w;
+			g += rgb.d2 * w;
+			b += rgb.d3 * w;
+			return this;
+		}
+
+		double y = rgb.d1 * w - cr;
+		double t = r + y;
+		cr = (t - r) - y;
+		r = t;
+
+		y = rgb.d2 * w - cg;
+		t = g + y;
+		cg = (t - g) - y;
+		g = t;
+
+		y = rgb.d3 * w - cb;
+		t = b + y;
+		cb = (t - b) - y;
+		b = t;
+		return this;
+	}
+
+	/**
+	 * Empties the accumulator for reuse
+	 *
+	 * @return this accumulator
+	 */
+	public ColorAccumulator reset() {
+		r = g = b = 0;
+		cr = cg = cb = 0;
+		weight = 0;
+		return this;
+	}
+
+	/**
+	 * Returns the sum of the weights of the added colors
+	 *
+	 * @return the total weight
+	 */
+	public double getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Creates the color of the (weighted) sum of the added colors
+	 *
+	 * @return the sum color
+	 */
+	public Color sum() {
+		return new Color(r, g, b);
+	}
+
+	/**
+	 * Creates the color of the weighted average of the added colors
+	 *
+	 * @return the average color, or black if nothing was added
+	 */
+	public Color average() {
+		return weight == 0 ? Color.BLACK : new Color(r / weight, g / weight, b / weight);
+	}
+}
@@ -3,6 +3,8 @@
  */
 package primitives;
 
+import java.io.Serializable;
+
 import static primitives.Util.isZero;
 
 /**
@@ -10,7 +12,10 @@ import static primitives.Util.isZero;
  * 
  * @author Dan Zilberstein
  */
-public class Double3 {
+public class Double3 implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** First number */
 	public final double d1;
 	/** Second number */
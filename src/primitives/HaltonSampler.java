@@ -0,0 +1,38 @@
+package primitives;
+
+/**
+ * Halton sampler - the low-discrepancy Halton sequence, whose dimension d is
+ * the radical inverse of the sample number in the d-th prime base. Each pixel
+ * rotates the sequence by its own random offset in each dimension
+ * (Cranley-Patterson rotation), which keeps its spread. The sequence skips its
+ * first point, which is 0 in all the dimensions.
+ */
+public final class HaltonSampler implements Sampler {
+	private static final long serialVersionUID = 1L;
+
+	/** The bases of the dimensions */
+	private static final int[] PRIMES = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53 };
+
+	@Override
+	public double get(long seed, int x, int y, int sample, int dimension) {
+		if (dimension < 0 || dimension >= PRIMES.length)
+			throw new IllegalArgumentException("Halton sampler has " + PRIMES.length + " dimensions");
+		double value = radicalInverse(PRIMES[dimension], sample + 1L)
+				+ (Sampler.scramble(seed, x, y, dimension) >>> 11) * 0x1.0p-53;
+		return value >= 1 ? value - 1 : value;
+	}
+
+	/**
+	 * Mirrors the digits of a number in a base around the radix point
+	 * 
+	 * @param base the base
+	 * @param n    the number
+	 * @return the radical inverse, between 0 and 1
+	 */
+	private static double radicalInverse(int base, long n) {
+		double inverse = 1.0 / base, digit = inverse, result = 0;
+		for (; n > 0; n /= base, digit *= inverse)
+			result += n % base * digit;
+		return result;
+	}
+}
@@ -1,9 +1,14 @@
 package primitives;
 
+import java.io.Serializable;
+
 /**
  * A class representing Material properties.
  */
-public class Material {
+public class Material implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** The ambient coefficient of the material */
 	public double kA;
 
@@ -1,12 +1,16 @@
 package primitives;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Point class represents a point in 3D space
  */
-public class Point {
+public class Point implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** Coordinate values of the point */
 	public final Double3 xyz;
 
@@ -48,6 +52,18 @@ public class Point {
 		return new Vector(xyz.subtract(other.xyz));
 	}
 
+	/**
+	 * Subtract operation between two points without throwing for the same point -
+	 * for intersection and shading calculations
+	 * 
+	 * @param other The other point
+	 * @return Vector from 'other' to 'this' point, or null if the points are the
+	 *         same
+	 */
+	public Vector subtractOrNull(Point other) {
+		return Vector.ofNullable(xyz.d1 - other.xyz.d1, xyz.d2 - other.xyz.d2, xyz.d3 - other.xyz.d3);
+	}
+
 	/**
 	 * Add a vector to the point, returning a new point
 	 * 
@@ -2,6 +2,7 @@ package primitives;
 
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,11 +11,14 @@ import java.util.List;
  * 
  * @author Avital and Tal
  */
-public class Ray {
+public class Ray implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** point in ray */
 	private final Point head;
 	/** vector direction */
-	private final Vector direction;
+	private final UnitVector direction;
 	/**
 	 * A constant delta value used for numerical approximations or small adjustments
 	 */
@@ -28,7 +32,7 @@ public class Ray {
 	 */
 	public Ray(Point point, Vector vector) {
 		head = point;
-		direction = vector.normalize(); // Ensure vector is normalized
+		direction = vector.normalize(); // Ensure vector is normalized - free for a unit vector
 	}
 
 	/**
@@ -41,8 +45,9 @@ public class Ray {
 	public Ray(Point point, Vector direction, Vector normal) {
 		this.direction = direction.normalize();
 		double nv = normal.dotProduct(this.direction);
-		Vector dltVector = normal.scale(nv < 0 ? -DELTA : DELTA);
-		head = point.add(dltVector);
+		double delta = nv < 0 ? -DELTA : DELTA;
+		head = new Point(point.xyz.d1 + normal.xyz.d1 * delta, point.xyz.d2 + normal.xyz.d2 * delta,
+				point.xyz.d3 + normal.xyz.d3 * delta);
 
 	}
 
@@ -60,7 +65,7 @@ public class Ray {
 	 * 
 	 * @return the direction vector
 	 */
-	public Vector getDirection() {
+	public UnitVector getDirection() {
 		return direction;
 	}
 
@@ -72,7 +77,9 @@ public class Ray {
 	 *         origin. If t is zero, the method returns the ray's origin point.
 	 */
 	public Point getPoint(double t) {
-		return Util.isZero(t) ? head : head.add(direction.scale(t));
+		return Util.isZero(t) ? head
+				: new Point(head.xyz.d1 + direction.xyz.d1 * t, head.xyz.d2 + direction.xyz.d2 * t,
+						head.xyz.d3 + direction.xyz.d3 * t);
 	}
 
 	/**
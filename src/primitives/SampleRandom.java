@@ -0,0 +1,65 @@
+package primitives;
+
+/**
+ * Counter-based random numbers for sampling. Each number is a hash of the seed
+ * of the rendering, the pixel, the number of the sample in the pixel and the
+ * dimension of the sample (as the angle and the radius of an aperture point),
+ * so it is the same whichever thread draws it and in whatever order. There is
+ * no shared generator state for the rendering threads to contend on, and a
+ * rendering is reproducible bit for bit with any amount of threads.
+ * <p>
+ * The hash is the SplitMix64 mixing function - the one of
+ * {@link java.util.SplittableRandom} - applied to each of the counters in turn.
+ */
+public final class SampleRandom {
+	/** The pixel index of samples shared by all the pixels */
+	public static final long ALL_PIXELS = -1;
+
+	/** The odd constant the counters are spread by (2^64 over the golden ratio) */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** Don't let anyone instantiate this class. */
+	private SampleRandom() {
+	}
+
+	/**
+	 * Mixes the bits of a number (the SplitMix64 finalizer)
+	 * 
+	 * @param z the number
+	 * @return the mixed number
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Provide the random bits of a sample dimension
+	 * 
+	 * @param seed      the seed of the rendering
+	 * @param pixel     the index of the pixel, or {@link #ALL_PIXELS}
+	 * @param sample    the number of the sample in the pixel
+	 * @param dimension the dimension of the sample
+	 * @return 64 random bits
+	 */
+	public static long hash(long seed, long pixel, int sample, int dimension) {
+		long z = mix(seed + GOLDEN_GAMMA);
+		z = mix(z + pixel * GOLDEN_GAMMA);
+		return mix(z + ((long) sample << 32 | dimension & 0xffffffffL) * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Provide a real random number of a sample dimension, in range between 0
+	 * (included) and 1 (excluded)
+	 * 
+	 * @param seed      the seed of the rendering
+	 * @param pixel     the index of the pixel, or {@link #ALL_PIXELS}
+	 * @param sample    the number of the sample in the pixel
+	 * @param dimension the dimension of the sample
+	 * @return the random value
+	 */
+	public static double random(long seed, long pixel, int sample, int dimension) {
+		return (hash(seed, pixel, sample, dimension) >>> 11) * 0x1.0p-53;
+	}
+}
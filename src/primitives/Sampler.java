@@ -0,0 +1,57 @@
+package primitives;
+
+import java.io.Serializable;
+
+/**
+ * Generator of the sample points of the rendering - the aperture points of
+ * depth of field and the points of a pixel of anti-aliasing. A sample is a
+ * point in the unit hypercube, given dimension by dimension; each two
+ * consecutive dimensions (0 and 1, 2 and 3 and so on) make a point of the unit
+ * square.
+ * <p>
+ * The samples of each pixel are scrambled by the pixel, so the pixels do not
+ * repeat a single pattern, while the samples of a pixel keep the spread of the
+ * sampler. The samplers are stateless and their samples depend on the
+ * counters only (as {@link SampleRandom}), so the rendering threads share a
+ * sampler and a rendering is reproducible.
+ */
+public interface Sampler extends Serializable {
+	/**
+	 * Provide a dimension of a sample of a pixel, in range between 0 (included)
+	 * and 1 (excluded)
+	 * 
+	 * @param seed      the seed of the rendering
+	 * @param x         the pixel column
+	 * @param y         the pixel row
+	 * @param sample    the number of the sample in the pixel
+	 * @param dimension the dimension of the sample
+	 * @return the value of the dimension
+	 * @throws IllegalArgumentException if the sampler has no such dimension
+	 */
+	double get(long seed, int x, int y, int sample, int dimension);
+
+	/**
+	 * Provide the index of a pixel for {@link SampleRandom}
+	 * 
+	 * @param x the pixel column
+	 * @param y the pixel row
+	 * @return the pixel index
+	 */
+	static long pixel(int x, int y) {
+		return (long) y << 32 | x & 0xffffffffL;
+	}
+
+	/**
+	 * Provide the random bits scrambling a dimension of the samples of a pixel -
+	 * the same for all the samples of the pixel
+	 * 
+	 * @param seed      the seed of the rendering
+	 * @param x         the pixel column
+	 * @param y         the pixel row
+	 * @param dimension the dimension of the samples
+	 * @return 64 random bits
+	 */
+	static long scramble(long seed, int x, int y, int dimension) {
+		return SampleRandom.hash(seed, pixel(x, y), -1, dimension);
+	}
+}
@@ -0,0 +1,66 @@
+package primitives;
+
+/**
+ * Sobol sampler - the low-discrepancy Sobol sequence, whose first 2^m samples
+ * are stratified in every elementary interval of 2^m area of each two
+ * dimensions. The direction numbers are those of Joe and Kuo. Each pixel
+ * scrambles the sequence by its own random digital shift (a XOR of the bits of
+ * each dimension), which keeps the stratification.
+ */
+public final class SobolSampler implements Sampler {
+	private static final long serialVersionUID = 1L;
+
+	/** The amount of the bits of the samples */
+	private static final int BITS = 32;
+	/**
+	 * The degrees, the coefficients and the initial direction numbers of the
+	 * primitive polynomials of the dimensions after the first
+	 */
+	private static final int[][] POLYNOMIALS = { //
+			{ 1, 0, 1 }, //
+			{ 2, 1, 1, 3 }, //
+			{ 3, 1, 1, 3, 1 }, //
+			{ 3, 2, 1, 1, 1 }, //
+			{ 4, 1, 1, 1, 3, 3 }, //
+			{ 4, 4, 1, 3, 5, 13 }, //
+			{ 5, 2, 1, 1, 5, 5, 17 } };
+	/** The direction numbers of the dimensions, bit by bit */
+	private static final int[][] DIRECTIONS = directions();
+
+	/**
+	 * Computes the direction numbers of the dimensions
+	 * 
+	 * @return the direction numbers
+	 */
+	private static int[][] directions() {
+		int[][] directions = new int[POLYNOMIALS.length + 1][BITS];
+		for (int bit = 0; bit < BITS; ++bit) // the first dimension is the van der Corput sequence
+			directions[0][bit] = 1 << (BITS - 1 - bit);
+		for (int d = 1; d <= POLYNOMIALS.length; ++d) {
+			int[] polynomial = POLYNOMIALS[d - 1], v = directions[d];
+			int degree = polynomial[0], coefficients = polynomial[1];
+			for (int bit = 0; bit < BITS; ++bit)
+				if (bit < degree)
+					v[bit] = polynomial[2 + bit] << (BITS - 1 - bit);
+				else {
+					v[bit] = v[bit - degree] ^ (v[bit - degree] >>> degree);
+					for (int k = 1; k < degree; ++k)
+						if ((coefficients >> (degree - 1 - k) & 1) != 0)
+							v[bit] ^= v[bit - k];
+				}
+		}
+		return directions;
+	}
+
+	@Override
+	public double get(long seed, int x, int y, int sample, int dimension) {
+		if (dimension < 0 || dimension >= DIRECTIONS.length)
+			throw new IllegalArgumentException("Sobol sampler has " + DIRECTIONS.length + " dimensions");
+		int[] v = DIRECTIONS[dimension];
+		int bits = (int) Sampler.scramble(seed, x, y, dimension);
+		for (int bit = 0; sample != 0; ++bit, sample >>>= 1)
+			if ((sample & 1) != 0)
+				bits ^= v[bit];
+		return Integer.toUnsignedLong(bits) * 0x1.0p-32;
+	}
+}
@@ -0,0 +1,58 @@
+package primitives;
+
+/**
+ * Stratified sampler - each two dimensions of the samples divide the unit
+ * square into a grid of equal cells, and each sample is a random point of its
+ * own cell (jittered sampling). The cells are visited in an order permuted for
+ * each pixel and each pair of dimensions, so the pairs are not correlated.
+ * With more samples than cells the cells are visited again.
+ */
+public final class StratifiedSampler implements Sampler {
+	private static final long serialVersionUID = 1L;
+
+	/** The amount of the cells along each side of the grid */
+	private final int side;
+
+	/**
+	 * Constructs a stratified sampler for an amount of samples per pixel - the
+	 * grid is the smallest square grid with a cell for each sample
+	 * 
+	 * @param samples the amount of the samples per pixel
+	 * @throws IllegalArgumentException if the amount is not positive
+	 */
+	public StratifiedSampler(int samples) {
+		if (samples < 1)
+			throw new IllegalArgumentException("Amount of samples must be positive");
+		side = (int) Math.ceil(Math.sqrt(samples));
+	}
+
+	@Override
+	public double get(long seed, int x, int y, int sample, int dimension) {
+		int cells = side * side;
+		long scramble = Sampler.scramble(seed, x, y, dimension >> 1);
+		// the permutation of the cells: sample * stride + shift, with stride
+		// coprime to the amount of the cells
+		int stride = (int) ((scramble >>> 33) % cells) | 1;
+		while (gcd(stride, cells) != 1)
+			stride += 2;
+		int cell = (int) ((sample % cells * (long) stride + (scramble & 0x7fffffff)) % cells);
+		double jitter = SampleRandom.random(seed, Sampler.pixel(x, y), sample, dimension);
+		return ((dimension & 1) == 0 ? cell % side : cell / side) / (double) side + jitter / side;
+	}
+
+	/**
+	 * Finds the greatest common divisor of two positive numbers
+	 * 
+	 * @param a the first number
+	 * @param b the second number
+	 * @return the greatest common divisor
+	 */
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int r = a % b;
+			a = b;
+			b = r;
+		}
+		return a;
+	}
+}
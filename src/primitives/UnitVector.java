@@ -0,0 +1,56 @@
+package primitives;
+
+/**
+ * UnitVector class represents a vector which is known to be of unit length. It
+ * is created only by normalization, so the code receiving a vector may skip
+ * normalizing it again - {@link #normalize()} of a unit vector returns the
+ * vector itself, without the square root and the divisions.
+ */
+public final class UnitVector extends Vector {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor for the coordinates of an already normalized vector
+	 *
+	 * @param x coordinate value
+	 * @param y coordinate value
+	 * @param z coordinate value
+	 */
+	UnitVector(double x, double y, double z) {
+		super(x, y, z);
+	}
+
+	/**
+	 * The vector is already normalized
+	 *
+	 * @return this vector
+	 */
+	@Override
+	public UnitVector normalize() {
+		return this;
+	}
+
+	@Override
+	public double lengthSquared() {
+		return 1;
+	}
+
+	@Override
+	public double length() {
+		return 1;
+	}
+
+	/**
+	 * Scale the vector by a scalar value, returning a new vector. The opposite
+	 * vector stays a unit vector.
+	 *
+	 * @param num The scalar value to scale the vector by
+	 * @return New scaled vector
+	 * @throws IllegalArgumentException In case of zero vector
+	 */
+	@Override
+	public Vector scale(double num) {
+		return num == -1 ? new UnitVector(-xyz.d1, -xyz.d2, -xyz.d3) : super.scale(num);
+	}
+}
@@ -0,0 +1,208 @@
+package primitives;
+
+/**
+ * Mutable triad of coordinates for the hot calculation paths (ray construction,
+ * intersection and shading). Unlike {@link Point} and {@link Vector}, whose
+ * every operation allocates a new object with a new {@link Double3}, a Vec3 is
+ * updated in place, so a chain of operations allocates nothing. The result is
+ * turned into an immutable {@link Vector} or {@link Point} only where it has to
+ * leave the calculation.
+ * <p>
+ * Each thread owns a small set of scratch registers - see
+ * {@link #register(int)}. A register may be used by a method only while it
+ * does not call another method using the registers, i.e. by the leaf
+ * calculations, and its value must be converted before the method returns.
+ */
+public final class Vec3 {
+	/** The amount of the scratch registers of each thread */
+	private static final int REGISTERS_COUNT = 8;
+	/** The scratch registers of the threads */
+	private static final ThreadLocal<Vec3[]> REGISTERS = ThreadLocal.withInitial(() -> {
+		Vec3[] registers = new Vec3[REGISTERS_COUNT];
+		for (int i = 0; i < REGISTERS_COUNT; ++i)
+			registers[i] = new Vec3();
+		return registers;
+	});
+
+	/** The x coordinate */
+	public double x;
+	/** The y coordinate */
+	public double y;
+	/** The z coordinate */
+	public double z;
+
+	/**
+	 * Returns a scratch register of the current thread.
+	 *
+	 * @param index the register number, between 0 and 7
+	 * @return the register
+	 */
+	public static Vec3 register(int index) {
+		return REGISTERS.get()[index];
+	}
+
+	/**
+	 * Sets the coordinates.
+	 *
+	 * @param x coordinate value
+	 * @param y coordinate value
+	 * @param z coordinate value
+	 * @return this triad
+	 */
+	public Vec3 set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	/**
+	 * Sets the coordinates to these of a point or a vector.
+	 *
+	 * @param p the point
+	 * @return this triad
+	 */
+	public Vec3 set(Point p) {
+		return set(p.xyz.d1, p.xyz.d2, p.xyz.d3);
+	}
+
+	/**
+	 * Sets the triad to the difference between two points - the vector from the
+	 * second point to the first one.
+	 *
+	 * @param a the end point
+	 * @param b the start point
+	 * @return this triad
+	 */
+	public Vec3 sub(Point a, Point b) {
+		return set(a.xyz.d1 - b.xyz.d1, a.xyz.d2 - b.xyz.d2, a.xyz.d3 - b.xyz.d3);
+	}
+
+	/**
+	 * Adds a scaled vector to the triad.
+	 *
+	 * @param v the vector
+	 * @param k the scale factor of the vector
+	 * @return this triad
+	 */
+	public Vec3 addScaled(Point v, double k) {
+		return set(x + v.xyz.d1 * k, y + v.xyz.d2 * k, z + v.xyz.d3 * k);
+	}
+
+	/**
+	 * Scales the triad.
+	 *
+	 * @param k the scale factor
+	 * @return this triad
+	 */
+	public Vec3 scale(double k) {
+		return set(x * k, y * k, z * k);
+	}
+
+	/**
+	 * Sets the triad to the cross product of two triads. Either of them may be this
+	 * triad itself.
+	 *
+	 * @param a the left operand
+	 * @param b the right operand
+	 * @return this triad
+	 */
+	public Vec3 cross(Vec3 a, Vec3 b) {
+		return set(a.y * b.z - a.z * b.y, a.z * b.x - a.x * b.z, a.x * b.y - a.y * b.x);
+	}
+
+	/**
+	 * Calculates the dot product with a vector.
+	 *
+	 * @param v the vector
+	 * @return the dot product
+	 */
+	public double dot(Point v) {
+		return x * v.xyz.d1 + y * v.xyz.d2 + z * v.xyz.d3;
+	}
+
+	/**
+	 * Calculates the dot product with another triad.
+	 *
+	 * @param v the other triad
+	 * @return the dot product
+	 */
+	public double dot(Vec3 v) {
+		return x * v.x + y * v.y + z * v.z;
+	}
+
+	/**
+	 * Calculates the squared length of the triad as a vector.
+	 *
+	 * @return the squared length
+	 */
+	public double lengthSquared() {
+		return x * x + y * y + z * z;
+	}
+
+	/**
+	 * Calculates the length of the triad as a vector.
+	 *
+	 * @return the length
+	 */
+	public double length() {
+		return Math.sqrt(lengthSquared());
+	}
+
+	/**
+	 * Normalizes the triad as a vector. The triad must not be zero.
+	 *
+	 * @return this triad
+	 */
+	public Vec3 normalize() {
+		return scale(1 / length());
+	}
+
+	/**
+	 * Checks whether the triad is the zero vector, up to the precision of
+	 * {@link Util#isZero(double)}.
+	 *
+	 * @return true if all the coordinates are zero
+	 */
+	public boolean isZero() {
+		return Util.isZero(x) && Util.isZero(y) && Util.isZero(z);
+	}
+
+	/**
+	 * Creates an immutable vector with the coordinates of the triad.
+	 *
+	 * @return the vector
+	 * @throws IllegalArgumentException In case of zero vector
+	 */
+	public Vector toVector() {
+		return new Vector(x, y, z);
+	}
+
+	/**
+	 * Normalizes the triad and creates an immutable unit vector with its
+	 * coordinates.
+	 *
+	 * @return the unit vector
+	 * @throws IllegalArgumentException In case of zero vector
+	 */
+	public UnitVector toUnitVector() {
+		if (isZero())
+			throw new IllegalArgumentException("Zero vector is not allowed");
+		normalize();
+		return new UnitVector(x, y, z);
+	}
+
+	/**
+	 * Creates an immutable point with the coordinates of the triad.
+	 *
+	 * @return the point
+	 */
+	public Point toPoint() {
+		return new Point(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + x + "," + y + "," + z + ")";
+	}
+}
@@ -1,9 +1,14 @@
 package primitives;
 
+import static primitives.Util.isZero;
+
 /**
  * Vector class represents a vector in 3D space
  */
 public class Vector extends Point {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor that accepts three double values representing the coordinate
 	 * values of the vector
@@ -18,6 +23,20 @@ public class Vector extends Point {
 		}
 	}
 
+	/**
+	 * Creates a vector without throwing for the zero vector - for intersection and
+	 * shading calculations where a degenerate case is a regular result rather than
+	 * an error
+	 * 
+	 * @param x coordinate value
+	 * @param y coordinate value
+	 * @param z coordinate value
+	 * @return the vector, or null in case of zero vector
+	 */
+	static Vector ofNullable(double x, double y, double z) {
+		return isZero(x) && isZero(y) && isZero(z) ? null : new Vector(x, y, z);
+	}
+
 	/**
 	 * Constructor that accepts three coordinate values
 	 * 
@@ -79,6 +98,21 @@ public class Vector extends Point {
 				xyz.d1 * other.xyz.d2 - xyz.d2 * other.xyz.d1);
 	}
 
+	/**
+	 * Calculate the cross product between two vectors without throwing for
+	 * parallel vectors
+	 * 
+	 * @param other The other vector
+	 * @return New vector which is the cross product of 'this' and 'other' vectors,
+	 *         or null if the vectors are parallel
+	 */
+	public Vector crossProductOrNull(Vector other) {
+		return ofNullable( //
+				xyz.d2 * other.xyz.d3 - xyz.d3 * other.xyz.d2, //
+				xyz.d3 * other.xyz.d1 - xyz.d1 * other.xyz.d3, //
+				xyz.d1 * other.xyz.d2 - xyz.d2 * other.xyz.d1);
+	}
+
 	/**
 	 * Calculate the squared length of the vector
 	 * 
@@ -101,11 +135,13 @@ public class Vector extends Point {
 	/**
 	 * Normalize the vector (returning a new normalized vector)
 	 * 
-	 * @return Normalized vector
+	 * @return Normalized vector, which further normalizations leave as is
 	 * @throws IllegalArgumentException In case of zero vector
 	 */
-	public Vector normalize() {
-		return scale(1 / this.length());
+	public UnitVector normalize() {
+		// a non-zero vector is never scaled to zero - skip the check
+		double factor = 1 / this.length();
+		return new UnitVector(xyz.d1 * factor, xyz.d2 * factor, xyz.d3 * factor);
 	}
 
 //Override equals method
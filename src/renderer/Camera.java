@@ -2,17 +2,31 @@ package renderer;
 
 import primitives.*;
 
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import geometries.Geometry;
 import static primitives.Util.*;
 
 /**
  * Camera class represents a camera in 3D space using the Builder Pattern. The
  * class implements Cloneable to support cloning of the Camera object.
+ * <p>
+ * A camera is serializable with its ray tracer and scene, for rendering it in
+ * other processes. The image writer, the executor, the statistics, the render
+ * control, the checkpoint file and the geometry ids belong to the local process
+ * and are not serialized.
  */
-public class Camera implements Cloneable {
+public class Camera implements Cloneable, Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
 	/**
 	 * Represents a camera in 3D space using the Builder Pattern. The camera is
 	 * defined by its position, direction vectors, and view plane dimensions.
@@ -64,6 +78,12 @@ public class Camera implements Cloneable {
 	/** Aperture radius */
 	private double apertureRadius = 0;
 
+	/**
+	 * The tolerance of adaptive depth of field sampling, 0 for sampling all the
+	 * aperture points
+	 */
+	private double focusTolerance = 0;
+
 	/** DoF active */
 	boolean depthOfFieledActive = false;
 	/** Focal length */
@@ -79,7 +99,7 @@ public class Camera implements Cloneable {
 	/**
 	 * depthOfFieled points on the aperture plane
 	 */
-	public List<Point> depthOfFieledPoints = null;
+	public ArrayList<Point> depthOfFieledPoints = null;
 
 	// minip2
 	// private boolean multiThreading = false;
@@ -90,22 +110,65 @@ public class Camera implements Cloneable {
 	 * </p>
 	 */
 	private boolean superSempling = false;
+	/** The levels of dividing a pixel by adaptive super sampling. */
+	private int superSemplingLevels = 3;
+	/** The perceptual threshold of color differences of adaptive super sampling. */
+	private double superSemplingThreshold = RayTracerBase.ADAPTIVE_THRESHOLD;
 	// Additions for minip2:
 	/** The number of threads used for rendering. */
 	private int threadsCount = 0;
 
+	/** The width and height of the pixel tiles handed out to the threads. */
+	private int tileSize = PixelManager.TILE_SIZE;
+
+	/** Flag of rendering with work-stealing fork/join splitting of the image. */
+	private boolean forkJoin = false;
+
+	/** The samples per pixel of progressive rendering, 0 for a single pass. */
+	private int progressiveSamples = 0;
+
+	/** The interval for writing interim images during rendering, in seconds. */
+	private double flushInterval = 0;
+
+	/** The statistics filled in by each rendering, null if not required. */
+	private transient RenderStatistics statistics = null;
+
+	/** The control for cancelling and pausing renderings, null if not required. */
+	private transient RenderControl renderControl = null;
+
+	/** The file of the rendering checkpoints, null for no checkpoints. */
+	private transient Path checkpointFile = null;
+
+	/** The interval for saving checkpoints during rendering, in seconds. */
+	private double checkpointInterval = 0;
+
+	/** The seed of the random samples, the same for every rendering. */
+	private long seed = 0;
+
+	/**
+	 * The sampler of the aperture points and of the pixel points, null for random
+	 * aperture points shared by all the pixels.
+	 */
+	private Sampler sampler = null;
+
+	/** Flag of recording the geometry ids of the pixels while rendering. */
+	private boolean recordGeometryIds = false;
+
+	/** The geometry ids of the pixels, null if they are not recorded. */
+	private transient GeometryIdBuffer geometryIds = null;
+
 	/** The interval for printing progress during rendering, in seconds. */
 	private double printInterval = 0;
 
 	/** The number of spare threads to be maintained during rendering. */
 	private final int SPARE_THREADS = 2;
 	/**
-	 * Pixel manager for supporting: multi-threading debug print of progress
-	 * percentage in Console window
+	 * The executor running the rendering threads - long-lived and shared by
+	 * renderings, null for single-threaded rendering
 	 */
-	private PixelManager pixelManager;
-	/** The maximum number of rays that can be traced by the camera. */
-	private static final int MAX_RAYS = 100;
+	private transient ExecutorService executor = null;
+	/** The amount of threads of multi-threading auto-tuned by the throughput */
+	static final int AUTO_THREADS = -3;
 
 	/**
 	 * Private constructor
@@ -123,6 +186,28 @@ public class Camera implements Cloneable {
 		return new Builder();
 	}
 
+	/**
+	 * Returns a new Builder object initialized with a copy of a camera, for
+	 * building cameras which differ from it in some settings only. The copy does
+	 * not keep the shared executor of the camera, so the built camera gets the
+	 * executor of its own threading settings.
+	 *
+	 * @param camera the camera to copy
+	 * @return a new Builder object
+	 */
+	public static Builder getBuilder(Camera camera) {
+		Camera copy;
+		try {
+			copy = (Camera) camera.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(); // Can't happen
+		}
+		if (copy.executor == ForkJoinPool.commonPool()
+				|| copy.executor != null && RenderThreads.isShared(copy.executor))
+			copy.executor = null;
+		return new Builder(copy);
+	}
+
 	/**
 	 * Constructs a ray from the camera through a pixel.
 	 * 
@@ -133,18 +218,32 @@ public class Camera implements Cloneable {
 	 * @return The constructed ray.
 	 */
 	public Ray constructRay(int nX, int nY, int j, int i) {
-		Point pc = position.add(vTo.scale(viewPlaneDistance));
+		return constructRay(nX, nY, (double) j, (double) i);
+	}
+
+	/**
+	 * Constructs a ray from the camera through any point of the view plane, given
+	 * in fractional pixel coordinates - the whole coordinates are the pixel
+	 * centers, and a pixel spans half a pixel around its center.
+	 * 
+	 * @param nX The number of pixels in the x-axis.
+	 * @param nY The number of pixels in the y-axis.
+	 * @param j  The x-coordinate of the point in pixels.
+	 * @param i  The y-coordinate of the point in pixels.
+	 * @return The constructed ray.
+	 */
+	public Ray constructRay(int nX, int nY, double j, double i) {
 		double ry = viewPlaneHeight / nY;
 		double rx = viewPlaneWidth / nX;
 		double yi = -(i - (nY - 1) / 2.0) * ry;
 		double xj = (j - (nX - 1) / 2.0) * rx;
-		Point pij = pc;
+		// the vector from the camera to the pixel center, calculated in place
+		Vec3 vij = Vec3.register(0).set(vTo).scale(viewPlaneDistance);
 		if (xj != 0)
-			pij = pij.add(vRight.scale(xj));
+			vij.addScaled(vRight, xj);
 		if (yi != 0)
-			pij = pij.add(vUp.scale(yi));
-		Vector Vij = pij.subtract(position);
-		return new Ray(position, Vij.normalize());
+			vij.addScaled(vUp, yi);
+		return new Ray(position, vij.toUnitVector());
 	}
 
 	/**
@@ -184,7 +283,7 @@ public class Camera implements Cloneable {
 		 * @return the builder instance *
 		 */
 		public Builder setdepthOfFieledPointsr(List<Point> DoFPoints) {
-			this.camera.depthOfFieledPoints = DoFPoints;
+			this.camera.depthOfFieledPoints = DoFPoints == null ? null : new ArrayList<>(DoFPoints);
 			return this;
 		}
 
@@ -304,7 +403,7 @@ public class Camera implements Cloneable {
 		 * @return the builder instance *
 		 */
 		public Builder setdepthOfFieledPoints(List<Point> DoFPoints) {
-			this.camera.depthOfFieledPoints = DoFPoints;
+			this.camera.depthOfFieledPoints = DoFPoints == null ? null : new ArrayList<>(DoFPoints);
 			return this;
 		}
 
@@ -415,15 +514,19 @@ public class Camera implements Cloneable {
 		// minip2
 
 		/**
-		 * amount of threads setter for multi-threading
+		 * amount of threads setter for multi-threading: 0 for rendering in the calling
+		 * thread, -1 for fork/join rendering in the common pool, -2 for all the cores
+		 * but the spare ones, -3 for the amount of threads and the tile size
+		 * auto-tuned by the throughput measured at the first rendering of the scene
+		 * (always handing out tiles, with no fork/join)
 		 * 
 		 * @param threads number of threads to run at the same time
 		 * @return camera (builder)
 		 */
 		public Builder setMultiThreading(int threads) {
-			if (threads < -2)
-				throw new IllegalArgumentException("Multithreading must be -2 or higher");
-			if (threads >= -1)
+			if (threads < AUTO_THREADS)
+				throw new IllegalArgumentException("Multithreading must be -3 or higher");
+			if (threads >= -1 || threads == AUTO_THREADS)
 				this.camera.threadsCount = threads;
 			else { // == -2
 				int cores = Runtime.getRuntime().availableProcessors() - this.camera.SPARE_THREADS;
@@ -432,6 +535,168 @@ public class Camera implements Cloneable {
 			return this;
 		}
 
+		/**
+		 * tile size setter for multi-threading - the image is rendered in square tiles
+		 * of pixels, each tile by one thread
+		 * 
+		 * @param tileSize width and height of a tile in pixels
+		 * @return camera (builder)
+		 */
+		public Builder setTileSize(int tileSize) {
+			if (tileSize < 1)
+				throw new IllegalArgumentException("Tile size must be positive");
+			this.camera.tileSize = tileSize;
+			return this;
+		}
+
+		/**
+		 * executor setter for multi-threading - the rendering threads run in the given
+		 * executor, which is kept by the camera for all its renderings. By default
+		 * the cameras share a long-lived executor for each amount of threads
+		 * 
+		 * @param executor the executor, it must be a {@link ForkJoinPool} for
+		 *                 fork/join rendering
+		 * @return camera (builder)
+		 */
+		public Builder setExecutor(ExecutorService executor) {
+			this.camera.executor = executor;
+			return this;
+		}
+
+		/**
+		 * fork/join mode setter for multi-threading - the image is split recursively
+		 * into regions down to the tile size, and idle threads steal regions from the
+		 * busy ones
+		 * 
+		 * @param forkJoin true for fork/join rendering, false for threads taking
+		 *                 tiles one by one
+		 * @return camera (builder)
+		 */
+		public Builder setForkJoin(boolean forkJoin) {
+			this.camera.forkJoin = forkJoin;
+			return this;
+		}
+
+		/**
+		 * progressive rendering setter - the image is rendered first with a single
+		 * sample per pixel, from the center outwards, and then refined by passes which
+		 * add samples (doubling the amount of the samples of each pass) until the
+		 * given amount. With depth of field the samples go through the aperture
+		 * points, otherwise through different points of the pixel. The progressive
+		 * passes hand out tiles in any threading mode, even for fork/join.
+		 * 
+		 * @param samples the samples per pixel, 0 for rendering in a single pass
+		 * @return camera (builder)
+		 */
+		public Builder setProgressive(int samples) {
+			if (samples < 0)
+				throw new IllegalArgumentException("Samples per pixel must not be negative");
+			this.camera.progressiveSamples = samples;
+			return this;
+		}
+
+		/**
+		 * interval setter for interim images - while rendering, the image as rendered
+		 * so far is written to its file in the given intervals
+		 * 
+		 * @param interval the interval in seconds, 0 for writing no interim images
+		 * @return camera (builder)
+		 */
+		public Builder setFlushInterval(double interval) {
+			if (interval < 0)
+				throw new IllegalArgumentException("Flush interval must not be negative");
+			this.camera.flushInterval = interval;
+			return this;
+		}
+
+		/**
+		 * statistics setter - each rendering of the camera reports its time and its
+		 * quality level to the given statistics object
+		 * 
+		 * @param statistics the statistics object, null for no statistics
+		 * @return camera (builder)
+		 */
+		public Builder setStatistics(RenderStatistics statistics) {
+			this.camera.statistics = statistics;
+			return this;
+		}
+
+		/**
+		 * render control setter - the renderings of the camera may be cancelled,
+		 * paused and resumed from other threads through the given control
+		 * 
+		 * @param control the render control, null for no control
+		 * @return camera (builder)
+		 */
+		public Builder setRenderControl(RenderControl control) {
+			this.camera.renderControl = control;
+			return this;
+		}
+
+		/**
+		 * checkpoint setter - while rendering, the pixels done so far are saved to the
+		 * given file in the given intervals, and when a rendering stops before its end
+		 * (cancelled, interrupted or out of its time budget). A rendering which finds
+		 * the file continues from the checkpoint instead of from the start, and
+		 * deletes the file when it is complete. With checkpoints the image is handed
+		 * out in tiles in any threading mode, even for fork/join.
+		 * 
+		 * @param file     the checkpoint file, null for no checkpoints
+		 * @param interval the interval in seconds, 0 for saving only when a rendering
+		 *                 stops before its end
+		 * @return camera (builder)
+		 */
+		public Builder setCheckpoint(Path file, double interval) {
+			if (interval < 0)
+				throw new IllegalArgumentException("Checkpoint interval must not be negative");
+			this.camera.checkpointFile = file;
+			this.camera.checkpointInterval = interval;
+			return this;
+		}
+
+		/**
+		 * geometry ids setter - while rendering, the bodies of the scene hit by the
+		 * rays of each pixel are recorded, for re-rendering only the pixels affected
+		 * by a change of the scene - see {@link Camera#renderChanged(Geometry...)}.
+		 * Each built camera gets a buffer of its own.
+		 * 
+		 * @param record true for recording the geometry ids
+		 * @return camera (builder)
+		 */
+		public Builder setGeometryIds(boolean record) {
+			this.camera.recordGeometryIds = record;
+			return this;
+		}
+
+		/**
+		 * seed setter - the random samples (as the aperture points of depth of field,
+		 * drawn for each pixel and each sample) are drawn by the seed, so renderings
+		 * with the same seed are the same bit for bit, in any threading mode
+		 * 
+		 * @param seed the seed
+		 * @return camera (builder)
+		 */
+		public Builder setSeed(long seed) {
+			this.camera.seed = seed;
+			return this;
+		}
+
+		/**
+		 * sampler setter - the aperture points of depth of field and the points of
+		 * the pixels of progressive anti-aliasing are drawn from the sampler,
+		 * scrambled for each pixel, instead of independent random points of each
+		 * pixel. The aperture points are the unit square of the first two dimensions
+		 * mapped onto the aperture by the concentric mapping, which keeps the spread
+		 * of the sampler.
+		 * 
+		 * @param sampler the sampler, null for random aperture points
+		 * @return camera (builder)
+		 */
+		public Builder setSampler(Sampler sampler) {
+			this.camera.sampler = sampler;
+			return this;
+		}
+
 		/**
 		 * interval setter for debug print
 		 * 
@@ -444,7 +709,37 @@ public class Camera implements Cloneable {
 		}
 
 		/**
-		 * Enables or disables super sampling.
+		 * adaptive depth of field setter - each pixel traces its primary ray first,
+		 * and the circle of confusion at the hit distance decides how many aperture
+		 * points it needs: a pixel whose blur is smaller than a pixel keeps the
+		 * primary ray only, and a blurred pixel samples aperture points in proportion
+		 * to the area of its blur, up to all of them. Sampling stops early when the
+		 * luminance of the samples so far gives their average within the tolerance
+		 * (the standard error of the mean). Applies to single pass rendering, and to a
+		 * time budget, which may lower the most aperture points of a pixel - see
+		 * {@link Camera#renderImage(Duration)}.
+		 * 
+		 * @param tolerance the tolerance of the average luminance, in 8-bit levels; 0
+		 *                  for sampling all the aperture points of every pixel
+		 * @return camera (builder)
+		 */
+		public Builder setAdaptiveDepthOfField(double tolerance) {
+			if (tolerance < 0)
+				throw new IllegalArgumentException("Depth of field tolerance must not be negative");
+			this.camera.focusTolerance = tolerance;
+			return this;
+		}
+
+		/**
+		 * Enables or disables super sampling - adaptive anti-aliasing of single pass
+		 * rendering without depth of field. Each pixel is sampled at its corners, and
+		 * only where their colors are perceived different it is divided into
+		 * quarters, recursively; flat areas are not divided at all. The average
+		 * samples per pixel are reported to the statistics of the camera. Super
+		 * sampling applies to checkpointed renderings, to the renderings of regions
+		 * and tiles, and to a time budget, which may lower the levels - see
+		 * {@link Camera#renderImage(Duration)}. The camera is not built with depth of
+		 * field or with progressive rendering.
 		 *
 		 * @param superSempling true to enable super sampling, false to disable.
 		 * @return the current Builder instance for method chaining.
@@ -454,6 +749,27 @@ public class Camera implements Cloneable {
 			return this;
 		}
 
+		/**
+		 * Enables adaptive super sampling with the given limits - see
+		 * {@link #setSuperSempling(boolean)}.
+		 *
+		 * @param levels    the most levels of dividing a pixel, so a pixel is sampled
+		 *                  by up to (2^levels + 1)^2 rays
+		 * @param threshold the perceptual threshold of color differences, in 8-bit
+		 *                  levels weighted by luminance
+		 * @return the current Builder instance for method chaining.
+		 */
+		public Builder setSuperSempling(int levels, double threshold) {
+			if (levels < 1 || levels > 10)
+				throw new IllegalArgumentException("Super sampling levels must be between 1 and 10");
+			if (threshold < 0)
+				throw new IllegalArgumentException("Super sampling threshold must not be negative");
+			this.camera.superSempling = true;
+			this.camera.superSemplingLevels = levels;
+			this.camera.superSemplingThreshold = threshold;
+			return this;
+		}
+
 		/**
 		 * Builds the Camera object.
 		 *
@@ -489,12 +805,32 @@ public class Camera implements Cloneable {
 			if (this.camera.rayTracer == null) {
 				throw new IllegalStateException("rayTracer can not be null");
 			}
+			if (camera.superSempling && camera.gridDensity != 1)
+				throw new IllegalStateException("Super sampling does not apply with depth of field");
+			if (camera.superSempling && camera.progressiveSamples != 0)
+				throw new IllegalStateException("Super sampling does not apply to progressive rendering");
 
+			Camera result;
 			try {
-				return (Camera) camera.clone();
+				result = (Camera) camera.clone();
 			} catch (CloneNotSupportedException e) {
 				throw new AssertionError(); // Can't happen
 			}
+			result.geometryIds = result.recordGeometryIds
+					? new GeometryIdBuffer(result.imageWriter.getNx(), result.imageWriter.getNy())
+					: null;
+			if (result.threadsCount == AUTO_THREADS) {
+				result.forkJoin = false;
+				if (result.executor == null)
+					result.executor = RenderThreads.sharedExecutor(false, Runtime.getRuntime().availableProcessors());
+			} else if (result.threadsCount == -1 && result.executor == null)
+				result.executor = ForkJoinPool.commonPool();
+			else if (result.threadsCount != 0 && result.executor == null)
+				result.executor = RenderThreads.sharedExecutor(result.forkJoin, result.threadsCount);
+			if (result.threadsCount != 0 && (result.forkJoin || result.threadsCount == -1)
+					&& !(result.executor instanceof ForkJoinPool))
+				throw new IllegalStateException("Fork/join rendering requires a ForkJoinPool executor");
+			return result;
 		}
 	}
 
@@ -562,11 +898,229 @@ public class Camera implements Cloneable {
 		return viewPlaneDistance;
 	}
 
+	/**
+	 * Retrieves the image writer of the camera.
+	 * 
+	 * @return The image writer.
+	 */
+	ImageWriter getImageWriter() {
+		return imageWriter;
+	}
+
+	/**
+	 * Retrieves the width and height of the pixel tiles of the camera.
+	 * 
+	 * @return The tile size in pixels.
+	 */
+	int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Retrieves the aperture radius of depth of field.
+	 * 
+	 * @return The aperture radius, 0 for no depth of field.
+	 */
+	double getApertureRadius() {
+		return apertureRadius;
+	}
+
+	/**
+	 * Retrieves the tolerance of adaptive depth of field sampling.
+	 * 
+	 * @return The tolerance, 0 for sampling all the aperture points.
+	 */
+	double getFocusTolerance() {
+		return focusTolerance;
+	}
+
+	/**
+	 * Retrieves the focal length of depth of field.
+	 * 
+	 * @return The focal length.
+	 */
+	double getFocalLength() {
+		return focalLength;
+	}
+
+	/**
+	 * Retrieves the amount of the aperture points of depth of field.
+	 * 
+	 * @return The amount of the aperture points.
+	 */
+	int getGridDensity() {
+		return gridDensity;
+	}
+
+	/**
+	 * Retrieves whether adaptive super sampling is enabled.
+	 * 
+	 * @return {@code true} if super sampling is enabled.
+	 */
+	boolean isSuperSempling() {
+		return superSempling;
+	}
+
+	/**
+	 * Retrieves the levels of dividing a pixel by adaptive super sampling.
+	 * 
+	 * @return The levels of super sampling.
+	 */
+	int getSuperSemplingLevels() {
+		return superSemplingLevels;
+	}
+
+	/**
+	 * Retrieves the perceptual threshold of color differences of adaptive super sampling.
+	 * 
+	 * @return The threshold of super sampling.
+	 */
+	double getSuperSemplingThreshold() {
+		return superSemplingThreshold;
+	}
+
+	/**
+	 * Retrieves the number of threads used for rendering.
+	 * 
+	 * @return The number of threads.
+	 */
+	int getThreadsCount() {
+		return threadsCount;
+	}
+
+	/**
+	 * Retrieves whether the image is rendered with fork/join splitting.
+	 * 
+	 * @return {@code true} for fork/join rendering.
+	 */
+	boolean isForkJoin() {
+		return forkJoin;
+	}
+
+	/**
+	 * Retrieves the samples per pixel of progressive rendering.
+	 * 
+	 * @return The samples per pixel, 0 for a single pass.
+	 */
+	int getProgressiveSamples() {
+		return progressiveSamples;
+	}
+
+	/**
+	 * Retrieves the interval for writing interim images during rendering.
+	 * 
+	 * @return The interval in seconds.
+	 */
+	double getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Retrieves the statistics filled in by each rendering.
+	 * 
+	 * @return The statistics, or null if not required.
+	 */
+	RenderStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Retrieves the control for cancelling and pausing renderings.
+	 * 
+	 * @return The render control, or null if not required.
+	 */
+	RenderControl getRenderControl() {
+		return renderControl;
+	}
+
+	/**
+	 * Retrieves the file of the rendering checkpoints.
+	 * 
+	 * @return The checkpoint file, or null for no checkpoints.
+	 */
+	Path getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Retrieves the interval for saving checkpoints during rendering.
+	 * 
+	 * @return The interval in seconds.
+	 */
+	double getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Retrieves the seed of the random samples.
+	 * 
+	 * @return The seed.
+	 */
+	long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Retrieves the sampler of the aperture points and of the pixel points.
+	 * 
+	 * @return The sampler, or null for random aperture points.
+	 */
+	Sampler getSampler() {
+		return sampler;
+	}
+
+	/**
+	 * Retrieves the interval for printing progress during rendering.
+	 * 
+	 * @return The interval in seconds.
+	 */
+	double getPrintInterval() {
+		return printInterval;
+	}
+
+	/**
+	 * Retrieves the executor running the rendering threads.
+	 * 
+	 * @return The executor, or null for single-threaded rendering.
+	 */
+	ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Retrieves the ray tracer of the camera.
+	 * 
+	 * @return The ray tracer.
+	 */
+	RayTracerBase getRayTracer() {
+		return rayTracer;
+	}
+
+	/**
+	 * Retrieves the geometry ids of the pixels, as recorded by the renderings of
+	 * the camera.
+	 * 
+	 * @return The geometry ids, or null if they are not recorded.
+	 */
+	public GeometryIdBuffer getGeometryIds() {
+		return geometryIds;
+	}
+
+	/**
+	 * Retrieves the width of a pixel on the view plane - the size of the smallest
+	 * detail distinguishable at the view plane distance.
+	 * 
+	 * @return The width of a pixel on the view plane.
+	 */
+	public double getPixelSize() {
+		return viewPlaneWidth / imageWriter.getNx();
+	}
+
 	// stage5
 	/**
 	 * The image writer used by this camera to write the rendered image.
 	 */
-	private ImageWriter imageWriter;
+	private transient ImageWriter imageWriter;
 	// stage5
 	/**
 	 * The ray tracer base used by this camera to trace rays and render the scene.
@@ -657,69 +1211,143 @@ public class Camera implements Cloneable {
 			throw new UnsupportedOperationException("Missing imageWriter");
 		if (this.rayTracer == null)
 			throw new UnsupportedOperationException("Missing rayTracerBase");
-		final int nX = imageWriter.getNx();
-		final int nY = imageWriter.getNy();
+		new Rendering(this, 0).run();
+		return this;
+	}
 
-		pixelManager = new PixelManager(nY, nX, printInterval);
+	/**
+	 * Renders the image within a wall-clock time budget. The image is rendered
+	 * progressively: the throughput measured from the first tiles on decides how
+	 * many samples per pixel (of the progressive samples or of the depth of field
+	 * aperture points) fit in the remaining time. With super sampling or with
+	 * adaptive depth of field (and without progressive samples) the image is
+	 * rendered in a single pass instead, and the throughput of the tiles decides
+	 * the super sampling levels or the most aperture samples of the following
+	 * tiles. When the budget runs out, the rendering stops after the tiles in
+	 * work, and the image keeps the best colors reached. The reached quality is
+	 * reported to the statistics of the camera.
+	 * 
+	 * @param budget the time budget of the rendering
+	 * @return the Camera instance
+	 */
+	public Camera renderImage(Duration budget) {
+		if (this.imageWriter == null)
+			throw new UnsupportedOperationException("Missing imageWriter");
+		if (this.rayTracer == null)
+			throw new UnsupportedOperationException("Missing rayTracerBase");
+		if (budget.isNegative() || budget.isZero())
+			throw new IllegalArgumentException("Time budget must be positive");
+		new Rendering(this, budget.toNanos()).run();
+		return this;
+	}
 
-		if (this.gridDensity != 1) {//depth of fieled
-			this.depthOfFieledPoints = Camera.generatePoints(gridDensity, apertureRadius, position, vUp, vRight);
-		}
+	/**
+	 * Renders only a rectangle of pixels into the image, in the same way and with
+	 * the same threading as the whole image, and leaves the rest of the image
+	 * untouched - for re-rendering the part of the image that has changed. The
+	 * rendering time is proportional to the rectangle area. Checkpoints are not
+	 * saved for parts of the image.
+	 * 
+	 * @param x      first column of the rectangle
+	 * @param y      first row of the rectangle
+	 * @param width  amount of columns in the rectangle
+	 * @param height amount of rows in the rectangle
+	 * @return the Camera instance
+	 * @throws IllegalArgumentException if the rectangle is empty or not inside the
+	 *                                  image
+	 */
+	public Camera renderRegion(int x, int y, int width, int height) {
+		if (this.imageWriter == null)
+			throw new UnsupportedOperationException("Missing imageWriter");
+		if (this.rayTracer == null)
+			throw new UnsupportedOperationException("Missing rayTracerBase");
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Region must not be empty");
+		if (x < 0 || y < 0 || x + width > imageWriter.getNx() || y + height > imageWriter.getNy())
+			throw new IllegalArgumentException("Region must be inside the image");
+		new Rendering(this, 0, x, y, width, height, null, null).run();
+		return this;
+	}
 
-		if (threadsCount == 0) { // Single-threaded rendering-without minip2
-			for (int i = 0; i < nY; ++i) {
-				for (int j = 0; j < nX; ++j) {
-					if (this.gridDensity != 1) {//only depth of fieled
-						// Try optimizing the focal point generation
-						var focalPoint = constructRay(nX, nY, j, i).getPoint(focalLength);
-						List<Ray> rayBundle = Ray.RayBundle(focalPoint, depthOfFieledPoints);
+	/**
+	 * Renders only some tiles of the image, in the same way and with the same
+	 * threading as the whole image, and leaves the rest of the image untouched.
+	 * The tiles are the squares of the tile size of the camera, indexed row by
+	 * row from the top left corner of the image - see
+	 * {@link #getTileIndex(int, int)}. Checkpoints are not saved for parts of the
+	 * image.
+	 * 
+	 * @param tiles the indices of the tiles to render
+	 * @return the Camera instance
+	 * @throws IllegalArgumentException if a tile index is out of the image
+	 */
+	public Camera renderTiles(int... tiles) {
+		if (this.imageWriter == null)
+			throw new UnsupportedOperationException("Missing imageWriter");
+		if (this.rayTracer == null)
+			throw new UnsupportedOperationException("Missing rayTracerBase");
+		new Rendering(this, 0, 0, 0, imageWriter.getNx(), imageWriter.getNy(), tiles.clone(), null).run();
+		return this;
+	}
 
-						// Possibly limit the number of rays if memory is an issue
-						if (rayBundle.size() > MAX_RAYS) {
-							rayBundle = rayBundle.subList(0, MAX_RAYS);
+	/**
+	 * Re-renders only the pixels which a change of some bodies of the scene may
+	 * affect, after a small change such as a material tweak or moving a geometry.
+	 * A pixel is traced again if its rays have hit any of the changed bodies
+	 * (directly, by reflection or refraction, or as a shadow occluder) in the
+	 * previous renderings, if its primary ray hits any of them now, or if it has
+	 * not been rendered yet. A moved geometry is given both as it was and as it
+	 * is now (by the old and the new objects, if it was replaced). The bodies are
+	 * the geometries of the scene, not their groups; a mesh is changed as a whole.
+	 * <p>
+	 * The change is detected through the rays already traced, so a changed body
+	 * which now reaches pixels only indirectly - casting a new shadow, or seen in
+	 * a reflection for the first time - does not cause them to be traced again.
+	 * For such changes the whole image should be rendered again.
+	 * 
+	 * @param changed the changed bodies
+	 * @return the Camera instance
+	 * @throws IllegalStateException if the camera does not record geometry ids
+	 */
+	public Camera renderChanged(Geometry... changed) {
+		if (this.imageWriter == null)
+			throw new UnsupportedOperationException("Missing imageWriter");
+		if (this.rayTracer == null)
+			throw new UnsupportedOperationException("Missing rayTracerBase");
+		if (geometryIds == null)
+			throw new IllegalStateException("Geometry ids are not recorded");
+		int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+		BitSet mask = geometryIds.affected(List.of(changed));
+		// the pixels covered by the changed bodies now, as after moving
+		for (int i = 0; i < nY; ++i)
+			for (int j = 0; j < nX; ++j)
+				if (!mask.get(i * nX + j)) {
+					Ray ray = constructRay(nX, nY, j, i);
+					for (Geometry body : changed)
+						if (body.findGeoIntersections(ray) != null) {
+							mask.set(i * nX + j);
+							break;
 						}
-
-						imageWriter.writePixel(j, i, rayTracer.computeFinalColor(rayBundle));
-						pixelManager.pixelDone();
-					} else {//without depth of fieled and without minip2
-						castRay(j, i);
-					}
-
 				}
-			}
-		} else { // Multi-threaded rendering-minip2
-			var threads = new LinkedList<Thread>(); // list of threads
-			while (threadsCount-- > 0) // add appropriate number of threads
-				threads.add(new Thread(() -> { // add a thread with its code
-					PixelManager.Pixel pixel; // current pixel(row,col)
-					// allocate pixel(row,col) in loop until there are no more pixels
-					while ((pixel = pixelManager.nextPixel()) != null) {
-						if (this.gridDensity != 1) {//depth of fieled +minip2(multiThreaing
-							var focalPoint = constructRay(nX, nY, pixel.col(), pixel.row()).getPoint(focalLength);
-							imageWriter.writePixel(pixel.col(), pixel.row(),
-									rayTracer.computeFinalColor(Ray.RayBundle(focalPoint, depthOfFieledPoints)));
-							pixelManager.pixelDone();
-						} else {//multi Threaing without depth of fieled
-							castRay(pixel.col(), pixel.row());
-						}
-
-					}
-				}));
-			// start all the threads
-			for (var thread : threads)
-				thread.start();
-			// wait until all the threads have finished
-			try {
-				for (var thread : threads)
-					thread.join();
-			} catch (InterruptedException ignore) {
-			}
-		}
+		if (mask.isEmpty())
+			return this;
+		int[] tiles = mask.stream().map(index -> getTileIndex(index % nX, index / nX)).distinct().toArray();
+		new Rendering(this, 0, 0, 0, nX, nY, tiles, mask).run();
 		return this;
-
 	}
 
-	
+	/**
+	 * Returns the index of the tile containing a pixel, for
+	 * {@link #renderTiles(int...)}
+	 * 
+	 * @param x the pixel column
+	 * @param y the pixel row
+	 * @return the tile index
+	 */
+	public int getTileIndex(int x, int y) {
+		int tilesInRow = (imageWriter.getNx() + tileSize - 1) / tileSize;
+		return y / tileSize * tilesInRow + x / tileSize;
+	}
 
 	/**
 	 * Casts a ray through the center of a pixel and colors the pixel using the ray
@@ -728,7 +1356,7 @@ public class Camera implements Cloneable {
 	 * @param j number of the pixel in a row
 	 * @param i number of the pixel in a column
 	 */
-	private void castRay(int j, int i) {
+	void castRay(int j, int i) {
 		// Constructs a ray through the given pixel.
 		Ray ray = constructRay(this.imageWriter.getNx(), this.imageWriter.getNy(), j, i);
 
@@ -739,7 +1367,8 @@ public class Camera implements Cloneable {
 	}
 
 	/**
-	 * Generates a list of points randomly distributed within a circular area.
+	 * Generates a list of points randomly distributed within a circular area, by
+	 * the default seed - the same points on every call.
 	 * 
 	 * @param gridDensity The number of points to generate.
 	 * @param radius      The radius of the circular area.
@@ -751,11 +1380,31 @@ public class Camera implements Cloneable {
 	 * @return A list of points randomly distributed within the circular area.
 	 */
 	public static List<Point> generatePoints(int gridDensity, double radius, Point center, Vector up, Vector right) {
+		return generatePoints(gridDensity, radius, center, up, right, 0);
+	}
+
+	/**
+	 * Generates a list of points randomly distributed within a circular area. The
+	 * points are drawn by the counter-based {@link SampleRandom}, so the same seed
+	 * gives the same points.
+	 * 
+	 * @param gridDensity The number of points to generate.
+	 * @param radius      The radius of the circular area.
+	 * @param center      The center point of the circular area.
+	 * @param up          A vector representing the up direction for the circular
+	 *                    area.
+	 * @param right       A vector representing the right direction for the circular
+	 *                    area.
+	 * @param seed        The seed of the random points.
+	 * @return A list of points randomly distributed within the circular area.
+	 */
+	public static List<Point> generatePoints(int gridDensity, double radius, Point center, Vector up, Vector right,
+			long seed) {
 		List<Point> points = new ArrayList<>();
 
 		for (int i = 0; i < gridDensity; i++) {
-			double angle = 2 * Math.PI * Math.random();
-			double r = radius * Math.sqrt(Math.random());
+			double angle = 2 * Math.PI * SampleRandom.random(seed, SampleRandom.ALL_PIXELS, i, 0);
+			double r = radius * Math.sqrt(SampleRandom.random(seed, SampleRandom.ALL_PIXELS, i, 1));
 			double offsetX = r * Math.cos(angle);
 			double offsetY = r * Math.sin(angle);
 
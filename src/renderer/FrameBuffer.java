@@ -0,0 +1,127 @@
+package renderer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import primitives.Color;
+import primitives.Double3;
+
+/**
+ * Accumulating frame buffer for progressive rendering. For each pixel it keeps
+ * the sum of the colors of all the samples traced so far and their amount, so
+ * the samples of later passes refine the pixel color, which is always the
+ * average of all its samples.
+ * <p>
+ * A pixel may be updated by a single thread at a time - the renderer hands out
+ * each tile of a pass to one thread only.
+ */
+class FrameBuffer {
+	/** The amount of pixel columns */
+	private final int nX;
+	/** The amount of pixel rows */
+	private final int nY;
+	/** The sums of the sample colors, three components per pixel */
+	private final double[] sums;
+	/** The amounts of the samples per pixel */
+	private final int[] samples;
+
+	/**
+	 * Constructs an empty frame buffer
+	 *
+	 * @param nX the amount of pixel columns
+	 * @param nY the amount of pixel rows
+	 */
+	FrameBuffer(int nX, int nY) {
+		this.nX = nX;
+		this.nY = nY;
+		sums = new double[3 * nX * nY];
+		samples = new int[nX * nY];
+	}
+
+	/**
+	 * Adds a sample color to a pixel
+	 *
+	 * @param x     the pixel column
+	 * @param y     the pixel row
+	 * @param color the sample color
+	 */
+	void add(int x, int y, Color color) {
+		int pixel = y * nX + x;
+		Double3 rgb = color.getRgb();
+		sums[3 * pixel] += rgb.d1;
+		sums[3 * pixel + 1] += rgb.d2;
+		sums[3 * pixel + 2] += rgb.d3;
+		++samples[pixel];
+	}
+
+	/**
+	 * Returns the amount of the samples of a pixel
+	 *
+	 * @param x the pixel column
+	 * @param y the pixel row
+	 * @return the amount of the samples
+	 */
+	int samples(int x, int y) {
+		return samples[y * nX + x];
+	}
+
+	/**
+	 * Returns the average color of the samples of a pixel
+	 *
+	 * @param x the pixel column
+	 * @param y the pixel row
+	 * @return the average color, black if the pixel has no samples yet
+	 */
+	Color get(int x, int y) {
+		int pixel = y * nX + x;
+		int count = samples[pixel];
+		return count == 0 ? Color.BLACK
+				: new Color(sums[3 * pixel] / count, sums[3 * pixel + 1] / count, sums[3 * pixel + 2] / count);
+	}
+
+	/**
+	 * Writes the sums and the amounts of the samples of all the pixels
+	 *
+	 * @param out the output to write to
+	 * @throws IOException if writing fails
+	 */
+	void writeTo(DataOutput out) throws IOException {
+		for (double sum : sums)
+			out.writeDouble(sum);
+		for (int count : samples)
+			out.writeInt(count);
+	}
+
+	/**
+	 * Reads the sums and the amounts of the samples of all the pixels, as written
+	 * by {@link #writeTo(DataOutput)}, replacing the current ones
+	 *
+	 * @param in the input to read from
+	 * @throws IOException if reading fails
+	 */
+	void readFrom(DataInput in) throws IOException {
+		for (int k = 0; k < sums.length; ++k)
+			sums[k] = in.readDouble();
+		for (int k = 0; k < samples.length; ++k)
+			samples[k] = in.readInt();
+	}
+
+	/**
+	 * Returns the amount of pixel columns
+	 *
+	 * @return the width of the frame
+	 */
+	int getNx() {
+		return nX;
+	}
+
+	/**
+	 * Returns the amount of pixel rows
+	 *
+	 * @return the height of the frame
+	 */
+	int getNy() {
+		return nY;
+	}
+}
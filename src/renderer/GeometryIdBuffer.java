@@ -0,0 +1,119 @@
+package renderer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import geometries.Geometry;
+
+/**
+ * Buffer of the geometry ids of the image pixels - for each pixel, the ids of
+ * the bodies of the scene its rays have hit: by the primary rays, by the
+ * reflected and refracted rays, and as occluders of the shadow rays. Each body
+ * gets an id the first time it is hit. The ids of a pixel are kept as a short
+ * sorted array.
+ * <p>
+ * After a small change of the scene (a material tweak, or moving a geometry),
+ * the buffer tells which pixels may have changed, so only they are traced
+ * again - see {@link Camera#renderChanged(Geometry...)}.
+ */
+public final class GeometryIdBuffer {
+	/** Empty ids of a pixel whose rays have hit nothing */
+	private static final int[] NONE = new int[0];
+
+	/** The amount of columns in the image */
+	private final int nX;
+	/** The ids of the pixels row by row, null for a pixel not recorded yet */
+	private final int[][] pixels;
+	/** The ids of the bodies by the bodies (geometries are compared by identity) */
+	private final Map<Geometry, Integer> ids = new ConcurrentHashMap<>();
+	/** The id of the next new body */
+	private final AtomicInteger nextId = new AtomicInteger();
+
+	/**
+	 * Constructs an empty buffer of an image
+	 *
+	 * @param nX the amount of columns in the image
+	 * @param nY the amount of rows in the image
+	 */
+	GeometryIdBuffer(int nX, int nY) {
+		this.nX = nX;
+		this.pixels = new int[nX * nY][];
+	}
+
+	/**
+	 * Records the bodies hit by the rays of a pixel. Each pixel is recorded by a
+	 * single thread at a time.
+	 *
+	 * @param j     number of the pixel in a row
+	 * @param i     number of the pixel in a column
+	 * @param hits  the bodies hit by the rays of the pixel
+	 * @param merge true for adding the bodies to those of the pixel (as by another
+	 *              pass over the pixel), false for replacing them
+	 */
+	void record(int j, int i, Set<Geometry> hits, boolean merge) {
+		int[] previous = merge && pixels[i * nX + j] != null ? pixels[i * nX + j] : NONE;
+		int size = previous.length;
+		int[] pixel = Arrays.copyOf(previous, size + hits.size());
+		for (Geometry body : hits)
+			pixel[size++] = ids.computeIfAbsent(body, key -> nextId.getAndIncrement());
+		Arrays.sort(pixel);
+		// drop the ids recorded already by the previous pass
+		int unique = 0;
+		for (int k = 0; k < pixel.length; ++k)
+			if (k == 0 || pixel[k] != pixel[k - 1])
+				pixel[unique++] = pixel[k];
+		pixels[i * nX + j] = unique == pixel.length ? pixel : Arrays.copyOf(pixel, unique);
+	}
+
+	/**
+	 * Returns the id of a body of the scene
+	 *
+	 * @param body the body
+	 * @return the id of the body, or -1 if no ray has hit it
+	 */
+	public int getId(Geometry body) {
+		return ids.getOrDefault(body, -1);
+	}
+
+	/**
+	 * Returns the ids of the bodies hit by the rays of a pixel
+	 *
+	 * @param x the pixel column
+	 * @param y the pixel row
+	 * @return the sorted ids, empty if no body was hit, or null if the pixel has
+	 *         not been rendered with geometry ids
+	 */
+	public int[] getIds(int x, int y) {
+		int[] pixel = pixels[y * nX + x];
+		return pixel == null ? null : pixel.clone();
+	}
+
+	/**
+	 * Finds the pixels which the change of some bodies may affect - the pixels
+	 * whose rays have hit any of them, and the pixels not recorded
+	 *
+	 * @param changed the changed bodies
+	 * @return the affected pixels by index, row by row
+	 */
+	BitSet affected(Collection<Geometry> changed) {
+		int[] changedIds = changed.stream().mapToInt(this::getId).filter(id -> id >= 0).sorted().toArray();
+		BitSet affected = new BitSet(pixels.length);
+		for (int index = 0; index < pixels.length; ++index) {
+			int[] pixel = pixels[index];
+			if (pixel == null)
+				affected.set(index);
+			else
+				for (int id : changedIds)
+					if (Arrays.binarySearch(pixel, id) >= 0) {
+						affected.set(index);
+						break;
+					}
+		}
+		return affected;
+	}
+}
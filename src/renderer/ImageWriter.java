@@ -99,4 +99,16 @@ public class ImageWriter {
 		image.setRGB(xIndex, yIndex, color.getColor().getRGB());
 	}
 
+	/**
+	 * The function getPixel reads the color of a specific pixel from the pixel
+	 * color matrix
+	 * 
+	 * @param xIndex X axis index of the pixel
+	 * @param yIndex Y axis index of the pixel
+	 * @return the color of the pixel, limited to the printable range
+	 */
+	public Color getPixel(int xIndex, int yIndex) {
+		return new Color(new java.awt.Color(image.getRGB(xIndex, yIndex)));
+	}
+
 }
@@ -1,110 +1,274 @@
 package renderer;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * PixelManager is a helper class. It is used for multi-threading in the
  * renderer and for follow up its progress. A Camera uses one pixel manager
- * object and several Pixel objects - one in each thread.
+ * object which hands out the image in square tiles of pixels - each thread
+ * takes the next tile, renders all its pixels and reports them done.
+ * <p>
+ * The tiles are handed out with a single atomic counter and the progress is
+ * counted in a {@link LongAdder}, so the threads do not wait for each other
+ * for any pixel. The pixels of a tile are close to each other in the scene, so
+ * their rays tend to touch the same geometries one after another.
  */
 public class PixelManager {
 	/**
-	 * Immutable class for object containing allocated pixel with its row and column
-	 * numbers.
-	 * 
-	 * @param col for columns of the pixel grid.
-	 * @param row for row of the pixel grid.
+	 * Immutable class for object containing allocated tile of pixels with its
+	 * first column and row numbers and its size. The tiles at the right and the
+	 * bottom edges of the image may be smaller than the others.
+	 *
+	 * @param index  index of the tile in the region, row by row of tiles.
+	 * @param col    first column of the tile in the pixel grid.
+	 * @param row    first row of the tile in the pixel grid.
+	 * @param width  amount of columns in the tile.
+	 * @param height amount of rows in the tile.
 	 */
-	record Pixel(int col, int row) {
+	record Tile(int index, int col, int row, int width, int height) {
+		/**
+		 * Amount of pixels in the tile
+		 *
+		 * @return the amount of pixels
+		 */
+		int size() {
+			return width * height;
+		}
 	}
 
+	/** Default width and height of a tile in pixels */
+	static final int TILE_SIZE = 16;
+
+	/** First row of pixels of the rendered region */
+	private final int firstRow;
+	/** First column of pixels of the rendered region */
+	private final int firstCol;
 	/** Maximum rows of pixels */
-	private int maxRows = 0;
+	private final int maxRows;
 	/** Maximum columns of pixels */
-	private int maxCols = 0;
+	private final int maxCols;
+	/** Width and height of a tile in pixels */
+	private final int tileSize;
+	/** Amount of tiles in a row of tiles */
+	private final int tilesInRow;
+	/** Total amount of tiles in the region */
+	private final int totalTiles;
+	/**
+	 * The indices of the tiles to hand out in their order, null for all the tiles
+	 * row by row
+	 */
+	private final int[] order;
+	/** Amount of the tiles to hand out */
+	private final int handOut;
 	/** Total amount of pixels in the generated image */
-	private long totalPixels = 0l;
-	/** Currently processed row of pixels */
-	private volatile int cRow = 0;
-	/** Currently processed column of pixels */
-	private volatile int cCol = -1;
+	private final long totalPixels;
+	/** Index of the next tile to hand out */
+	private final AtomicInteger nextTile = new AtomicInteger();
 	/** Amount of pixels that have been processed */
-	private volatile long pixels = 0l;
+	private final LongAdder pixels = new LongAdder();
 	/** Last printed progress update percentage */
-	private volatile int lastPrinted = 0;
+	private final AtomicInteger lastPrinted = new AtomicInteger();
 	/** Flag of debug printing of progress percentage */
-	private boolean print = false;
+	private final boolean print;
 	/** Progress percentage printing interval */
-	private long printInterval = 100l;
+	private final long printInterval;
 	/** Printing format */
 	private static final String PRINT_FORMAT = "%5.1f%%\r";
+
 	/**
-	 * Mutual exclusion object for synchronizing next pixel allocation between
-	 * threads
+	 * Initialize pixel manager data for multi-threading with tiles of the default
+	 * size
+	 *
+	 * @param maxRows  the amount of pixel rows
+	 * @param maxCols  the amount of pixel columns
+	 * @param interval print time interval in seconds, 0 if printing is not required
 	 */
-	private Object mutexNext = new Object();
+	PixelManager(int maxRows, int maxCols, double interval) {
+		this(maxRows, maxCols, interval, TILE_SIZE);
+	}
+
 	/**
-	 * Mutual exclusion object for printing progress percentage in console window by
-	 * different threads
+	 * Initialize pixel manager data for multi-threading
+	 *
+	 * @param maxRows  the amount of pixel rows
+	 * @param maxCols  the amount of pixel columns
+	 * @param interval print time interval in seconds, 0 if printing is not required
+	 * @param tileSize width and height of a tile in pixels
 	 */
-	private Object mutexPixels = new Object();
+	PixelManager(int maxRows, int maxCols, double interval, int tileSize) {
+		this(maxRows, maxCols, interval, tileSize, false);
+	}
 
 	/**
 	 * Initialize pixel manager data for multi-threading
-	 * 
+	 *
+	 * @param maxRows   the amount of pixel rows
+	 * @param maxCols   the amount of pixel columns
+	 * @param interval  print time interval in seconds, 0 if printing is not
+	 *                  required
+	 * @param tileSize  width and height of a tile in pixels
+	 * @param centerOut true for handing out the tiles from the image center
+	 *                  outwards, false for row by row
+	 */
+	PixelManager(int maxRows, int maxCols, double interval, int tileSize, boolean centerOut) {
+		this(0, 0, maxRows, maxCols, interval, tileSize, centerOut, null);
+	}
+
+	/**
+	 * Initialize pixel manager data for multi-threading of a rectangular region of
+	 * the image - the tiles cover the region only, starting at its corner
+	 *
+	 * @param firstRow  first row of pixels of the region
+	 * @param firstCol  first column of pixels of the region
+	 * @param maxRows   the amount of pixel rows in the region
+	 * @param maxCols   the amount of pixel columns in the region
+	 * @param interval  print time interval in seconds, 0 if printing is not
+	 *                  required
+	 * @param tileSize  width and height of a tile in pixels
+	 * @param centerOut true for handing out the tiles from the region center
+	 *                  outwards, false for row by row
+	 */
+	PixelManager(int firstRow, int firstCol, int maxRows, int maxCols, double interval, int tileSize,
+			boolean centerOut) {
+		this(firstRow, firstCol, maxRows, maxCols, interval, tileSize, centerOut, null);
+	}
+
+	/**
+	 * Initialize pixel manager data for multi-threading of a set of tiles of the
+	 * image
+	 *
 	 * @param maxRows  the amount of pixel rows
 	 * @param maxCols  the amount of pixel columns
 	 * @param interval print time interval in seconds, 0 if printing is not required
+	 * @param tileSize width and height of a tile in pixels
+	 * @param tiles    the indices of the tiles to hand out, in their order
 	 */
-	PixelManager(int maxRows, int maxCols, double interval) {
+	PixelManager(int maxRows, int maxCols, double interval, int tileSize, int[] tiles) {
+		this(0, 0, maxRows, maxCols, interval, tileSize, false, tiles);
+	}
+
+	/**
+	 * Initialize pixel manager data for multi-threading
+	 *
+	 * @param firstRow  first row of pixels of the region
+	 * @param firstCol  first column of pixels of the region
+	 * @param maxRows   the amount of pixel rows in the region
+	 * @param maxCols   the amount of pixel columns in the region
+	 * @param interval  print time interval in seconds, 0 if printing is not
+	 *                  required
+	 * @param tileSize  width and height of a tile in pixels
+	 * @param centerOut true for handing out the tiles from the region center
+	 *                  outwards, false for row by row
+	 * @param tiles     the indices of the tiles to hand out, null for all the
+	 *                  tiles of the region
+	 */
+	private PixelManager(int firstRow, int firstCol, int maxRows, int maxCols, double interval, int tileSize,
+			boolean centerOut, int[] tiles) {
+		this.firstRow = firstRow;
+		this.firstCol = firstCol;
 		this.maxRows = maxRows;
 		this.maxCols = maxCols;
-		totalPixels = (long) maxRows * maxCols;
+		this.tileSize = tileSize;
+		tilesInRow = (maxCols + tileSize - 1) / tileSize;
+		totalTiles = tilesInRow * ((maxRows + tileSize - 1) / tileSize);
+		if (tiles == null) {
+			order = centerOut ? centerOutOrder() : null;
+			handOut = totalTiles;
+			totalPixels = (long) maxRows * maxCols;
+		} else {
+			order = tiles;
+			handOut = tiles.length;
+			long sum = 0;
+			for (int index : tiles) {
+				if (index < 0 || index >= totalTiles)
+					throw new IllegalArgumentException("Tile index out of the image: " + index);
+				sum += tile(index).size();
+			}
+			totalPixels = sum;
+		}
 		printInterval = (int) (interval * 10);
 		if (print = printInterval != 0)
 			System.out.printf(PRINT_FORMAT, 0d);
 	}
 
 	/**
-	 * Function for thread-safe manipulating of main follow up Pixel object - this
-	 * function is critical section for all the threads, and the pixel manager data
-	 * is the shared data of this critical section.<br/>
-	 * The function provides next available pixel number each call.
-	 * 
-	 * @return true if next pixel is allocated, false if there are no more pixels
+	 * Provides the next tile to render - thread-safe without locking. Each tile is
+	 * provided exactly once.
+	 *
+	 * @return the next tile, or null if there are no more tiles
 	 */
-	Pixel nextPixel() {
-		synchronized (mutexNext) {
-			if (cRow == maxRows)
-				return null;
-
-			++cCol;
-			if (cCol < maxCols)
-				return new Pixel(cRow, cCol);
-
-			cCol = 0;
-			++cRow;
-			if (cRow < maxRows)
-				return new Pixel(cRow, cCol);
-		}
-		return null;
+	Tile nextTile() {
+		int index = nextTile.getAndIncrement();
+		if (index >= handOut)
+			return null;
+		return tile(order == null ? index : order[index]);
+	}
+
+	/**
+	 * Creates the tile of an index
+	 *
+	 * @param index index of the tile in the region, row by row of tiles
+	 * @return the tile
+	 */
+	Tile tile(int index) {
+		int col = index % tilesInRow * tileSize;
+		int row = index / tilesInRow * tileSize;
+		return new Tile(index, firstCol + col, firstRow + row, Math.min(tileSize, maxCols - col),
+				Math.min(tileSize, maxRows - row));
+	}
+
+	/**
+	 * Returns the total amount of pixels handed out in the tiles
+	 *
+	 * @return the amount of pixels
+	 */
+	long getTotalPixels() {
+		return totalPixels;
+	}
+
+	/**
+	 * Sorts the tile indices by the distance of the tile centers from the region
+	 * center
+	 *
+	 * @return the sorted tile indices
+	 */
+	private int[] centerOutOrder() {
+		double centerCol = maxCols / 2d, centerRow = maxRows / 2d;
+		Comparator<Integer> distance = Comparator.comparingDouble(index -> {
+			double dx = (index % tilesInRow + 0.5) * tileSize - centerCol;
+			double dy = (index / tilesInRow + 0.5) * tileSize - centerRow;
+			return dx * dx + dy * dy;
+		});
+		Integer[] indices = new Integer[totalTiles];
+		Arrays.setAll(indices, index -> index);
+		Arrays.sort(indices, distance);
+		return Arrays.stream(indices).mapToInt(Integer::intValue).toArray();
 	}
 
 	/**
 	 * Finish pixel processing by updating and printing the progress percentage.
 	 */
 	void pixelDone() {
-		boolean flag = false;
-		int percentage = 0;
-		synchronized (mutexPixels) {
-			++pixels;
-			if (print) {
-				percentage = (int) (1000l * pixels / totalPixels);
-				if (percentage - lastPrinted >= printInterval) {
-					lastPrinted = percentage;
-					flag = true;
-				}
-			}
-			if (flag)
-				System.out.printf(PRINT_FORMAT, percentage / 10d);
-		}
+		pixelsDone(1);
+	}
+
+	/**
+	 * Finish processing of several pixels (usually of a whole tile) by updating and
+	 * printing the progress percentage. When several threads pass the same printing
+	 * point, only one of them prints.
+	 *
+	 * @param count the amount of the processed pixels
+	 */
+	void pixelsDone(int count) {
+		pixels.add(count);
+		if (!print)
+			return;
+		int percentage = (int) (1000l * pixels.sum() / totalPixels);
+		int last = lastPrinted.get();
+		if (percentage - last >= printInterval && lastPrinted.compareAndSet(last, percentage))
+			System.out.printf(PRINT_FORMAT, percentage / 10d);
 	}
-}
\ No newline at end of file
+}
@@ -1,7 +1,13 @@
 package renderer;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
+import geometries.Geometry;
 import primitives.Color;
 import primitives.Ray;
 import scene.Scene;
@@ -9,10 +15,23 @@ import scene.Scene;
 /**
  * Abstract base class for ray tracing algorithms.
  */
-public abstract class RayTracerBase {
+public abstract class RayTracerBase implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** The scene being traced. */
 	protected Scene scene;
 
+	/**
+	 * The default perceptual threshold of adaptive super sampling - colors which
+	 * differ by less than it, in 8-bit levels weighted by luminance, are seen as
+	 * the same
+	 */
+	protected static final double ADAPTIVE_THRESHOLD = 4;
+
+	/** The bodies hit by the rays traced in each thread, while they are recorded */
+	private static final ThreadLocal<Set<Geometry>> HITS = new ThreadLocal<>();
+
 	/**
 	 * Constructs a new RayTracerBase with the specified scene.
 	 * 
@@ -39,15 +58,63 @@ public abstract class RayTracerBase {
 	 */
 	public abstract Color traceRays(List<Ray> rays);
 
+	/**
+	 * Generator of the rays through the points of a square lattice over a pixel,
+	 * for adaptive super sampling. The lattice has 2^k + 1 points along each side,
+	 * and its corners are the corners of the pixel.
+	 */
+	@FunctionalInterface
+	public interface RayLattice {
+		/**
+		 * Constructs the ray through a point of the lattice
+		 *
+		 * @param x the column of the point in the lattice
+		 * @param y the row of the point in the lattice
+		 * @return the ray
+		 */
+		Ray ray(int x, int y);
+
+		/**
+		 * Returns the color of a point of the lattice, traced by the given tracing.
+		 * Lattices which keep the colors of their points - shared by neighboring
+		 * cells and pixels - trace each point once.
+		 *
+		 * @param x       the column of the point in the lattice
+		 * @param y       the row of the point in the lattice
+		 * @param tracing the tracing of a ray
+		 * @return the color of the point
+		 */
+		default Color color(int x, int y, Function<Ray, Color> tracing) {
+			return tracing.apply(ray(x, y));
+		}
+	}
+
 	// stage 9-
 	/**
 	 * Performs adaptive ray tracing on a given list of rays and returns the
 	 * calculated color.
 	 *
-	 * @param rays A list of objects to trace for color calculation.
+	 * @param rays A list of the rays through the points of a square lattice over a
+	 *             pixel, row by row, with 2^k + 1 points along each side. Only the
+	 *             rays the sampling needs are traced.
 	 * @return The resulting color from the adaptive super sampling process.
 	 */
 	public abstract Color adaptiveTraceRays(List<Ray> rays);
+
+	/**
+	 * Performs adaptive super sampling of a pixel: the rays through the corners of
+	 * the pixel are traced first, and a square whose corner colors differ beyond
+	 * the threshold is divided into quarters, down to the lattice resolution. Only
+	 * the rays the sampling needs are constructed and traced.
+	 *
+	 * @param lattice   the generator of the rays through the lattice points
+	 * @param size      the amount of the lattice points along each side, 2^k + 1
+	 * @param threshold the perceptual threshold of the color difference, in 8-bit
+	 *                  levels weighted by luminance
+	 * @return The resulting color of the pixel.
+	 * @throws IllegalArgumentException if the lattice size is not 2^k + 1
+	 */
+	public abstract Color adaptiveTraceRays(RayLattice lattice, int size, double threshold);
 	/**
 	 * Computes the final color for a list of rays, typically used for calculating effects like depth of field or antialiasing.
 	 *
@@ -57,4 +124,54 @@ public abstract class RayTracerBase {
 	 */
 	public abstract Color computeFinalColor(List<Ray> rays);
 
+	/**
+	 * The color seen by a traced ray together with the distance to its hit
+	 *
+	 * @param color    the color seen by the ray
+	 * @param distance the distance from the head of the ray to its closest
+	 *                 intersection, or positive infinity if the ray hits nothing
+	 */
+	public record TracedRay(Color color, double distance) {
+	}
+
+	/**
+	 * Traces the given ray as {@link #traceRay(Ray)}, and finds the distance to its
+	 * closest intersection as well - the ray is intersected with the scene once
+	 * for both.
+	 *
+	 * @param ray The ray to trace.
+	 * @return The color seen by the ray and the distance to its hit.
+	 */
+	public abstract TracedRay traceRayAndDistance(Ray ray);
+
+	/**
+	 * Notes a geometry hit by a traced ray - its body is recorded if the hits of
+	 * the current thread are recorded. Tracers call it for every geometry which
+	 * affects the color of a ray.
+	 *
+	 * @param geometry the hit geometry
+	 */
+	protected static void hit(Geometry geometry) {
+		Set<Geometry> hits = HITS.get();
+		if (hits != null)
+			hits.add(geometry.getBody());
+	}
+
+	/**
+	 * Runs a tracing in the current thread and records the bodies hit by its rays
+	 *
+	 * @param tracing the tracing
+	 * @return the bodies hit by the rays of the tracing
+	 */
+	static Set<Geometry> recordHits(Runnable tracing) {
+		Set<Geometry> hits = Collections.newSetFromMap(new IdentityHashMap<>());
+		HITS.set(hits);
+		try {
+			tracing.run();
+		} finally {
+			HITS.remove();
+		}
+		return hits;
+	}
+
 }
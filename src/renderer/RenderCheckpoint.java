@@ -0,0 +1,157 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+import primitives.Color;
+
+/**
+ * Checkpoint of a rendering in progress, kept in a file - the pixels rendered
+ * so far and the bitmap of the tiles done in the current pass. A rendering that
+ * stops before its end (cancelled, interrupted or killed with its process)
+ * continues from its checkpoint, and loses only the tiles rendered after it.
+ * <p>
+ * The file holds a header (the image size, the tile size and the samples of
+ * the current pass), the tile bitmap, and then either the image pixels of a
+ * single pass rendering or the accumulated frame buffer of a progressive one.
+ * It is written to a temporary file which then replaces the previous
+ * checkpoint, so a crash while writing keeps the previous checkpoint whole.
+ * The file is accessed by plain (not interruptible) streams, since the last
+ * checkpoint is saved just when the rendering thread is interrupted.
+ */
+final class RenderCheckpoint {
+	/** The file format mark */
+	private static final int MAGIC = 0x52434b31;
+
+	/** The first sample of the current pass, 0 for a single pass rendering */
+	final int first;
+	/** The sample after the last one of the current pass */
+	final int last;
+	/** The tiles done in the current pass, by their indices */
+	final BitSet tiles;
+
+	/**
+	 * Constructs a loaded checkpoint
+	 *
+	 * @param first the first sample of the current pass
+	 * @param last  the sample after the last one of the current pass
+	 * @param tiles the tiles done in the current pass
+	 */
+	private RenderCheckpoint(int first, int last, BitSet tiles) {
+		this.first = first;
+		this.last = last;
+		this.tiles = tiles;
+	}
+
+	/**
+	 * Saves a checkpoint of a rendering
+	 *
+	 * @param file        the checkpoint file
+	 * @param tileSize    the width and height of the tiles
+	 * @param first       the first sample of the current pass
+	 * @param last        the sample after the last one of the current pass
+	 * @param tiles       the tiles done in the current pass
+	 * @param imageWriter the image of a single pass rendering
+	 * @param frame       the frame buffer of a progressive rendering, null for a
+	 *                    single pass rendering
+	 * @throws IllegalStateException if the file cannot be written
+	 */
+	static void save(Path file, int tileSize, int first, int last, BitSet tiles, ImageWriter imageWriter,
+			FrameBuffer frame) {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+		try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(nX);
+			out.writeInt(nY);
+			out.writeInt(tileSize);
+			out.writeBoolean(frame != null);
+			out.writeInt(first);
+			out.writeInt(last);
+			long[] words = tiles.toLongArray();
+			out.writeInt(words.length);
+			for (long word : words)
+				out.writeLong(word);
+			if (frame != null)
+				frame.writeTo(out);
+			else
+				for (int i = 0; i < nY; ++i)
+					for (int j = 0; j < nX; ++j)
+						out.writeInt(imageWriter.getPixel(j, i).getColor().getRGB());
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write checkpoint " + temp, e);
+		}
+		try {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot replace checkpoint " + file, e);
+		}
+	}
+
+	/**
+	 * Loads the checkpoint of a rendering, if there is one, into the image of a
+	 * single pass rendering or into the frame buffer (and the image) of a
+	 * progressive one
+	 *
+	 * @param file        the checkpoint file
+	 * @param tileSize    the width and height of the tiles
+	 * @param imageWriter the image of the rendering
+	 * @param frame       the frame buffer of a progressive rendering, null for a
+	 *                    single pass rendering
+	 * @return the loaded checkpoint, or null if there is no checkpoint file
+	 * @throws IllegalStateException if the file cannot be read or it is not a
+	 *                               checkpoint of such a rendering
+	 */
+	static RenderCheckpoint load(Path file, int tileSize, ImageWriter imageWriter, FrameBuffer frame) {
+		if (!Files.exists(file))
+			return null;
+		int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+		try (var in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.toFile())))) {
+			if (in.readInt() != MAGIC)
+				throw new IllegalStateException("Not a checkpoint file " + file);
+			if (in.readInt() != nX || in.readInt() != nY || in.readInt() != tileSize
+					|| in.readBoolean() != (frame != null))
+				throw new IllegalStateException("Checkpoint " + file + " is of another rendering");
+			int first = in.readInt();
+			int last = in.readInt();
+			long[] words = new long[in.readInt()];
+			for (int k = 0; k < words.length; ++k)
+				words[k] = in.readLong();
+			if (frame != null) {
+				frame.readFrom(in);
+				for (int i = 0; i < nY; ++i)
+					for (int j = 0; j < nX; ++j)
+						imageWriter.writePixel(j, i, frame.get(j, i));
+			} else
+				for (int i = 0; i < nY; ++i)
+					for (int j = 0; j < nX; ++j)
+						imageWriter.writePixel(j, i, new Color(new java.awt.Color(in.readInt())));
+			return new RenderCheckpoint(first, last, BitSet.valueOf(words));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read checkpoint " + file, e);
+		}
+	}
+
+	/**
+	 * Deletes the checkpoint of a complete rendering
+	 *
+	 * @param file the checkpoint file
+	 * @throws IllegalStateException if the file cannot be deleted
+	 */
+	static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot delete checkpoint " + file, e);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package renderer;
+
+/**
+ * Control of renderings in progress from other threads - cancelling, pausing
+ * and resuming them. An object of the class is given to the camera builder, and
+ * the rendering threads check it between the tiles: a cancelled rendering
+ * stops after the tiles in work, and a paused one waits until it is resumed or
+ * cancelled.
+ * <p>
+ * Cancelling is kept until {@link #reset()}, so a cancelled control cancels
+ * all the following renderings of the camera as well.
+ */
+public class RenderControl {
+	/** Whether the renderings are cancelled */
+	private boolean cancelled = false;
+	/** Whether the renderings are paused */
+	private boolean paused = false;
+
+	/**
+	 * Cancels the renderings - they stop after the tiles in work, and the image
+	 * keeps the pixels done so far
+	 */
+	public synchronized void cancel() {
+		cancelled = true;
+		notifyAll();
+	}
+
+	/**
+	 * Pauses the renderings - the rendering threads wait after the tiles in work
+	 */
+	public synchronized void pause() {
+		paused = true;
+	}
+
+	/**
+	 * Resumes the paused renderings
+	 */
+	public synchronized void resume() {
+		paused = false;
+		notifyAll();
+	}
+
+	/**
+	 * Clears the cancelling and the pausing for the next renderings
+	 */
+	public synchronized void reset() {
+		cancelled = false;
+		resume();
+	}
+
+	/**
+	 * Returns whether the renderings are cancelled
+	 *
+	 * @return true if cancelled
+	 */
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns whether the renderings are paused
+	 *
+	 * @return true if paused
+	 */
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Waits while the renderings are paused, and tells whether the rendering may go
+	 * on
+	 *
+	 * @return true if the rendering may go on, false if it is cancelled
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	synchronized boolean proceed() throws InterruptedException {
+		while (paused && !cancelled)
+			wait();
+		return !cancelled;
+	}
+}
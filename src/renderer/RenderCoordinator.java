@@ -0,0 +1,326 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.InflaterInputStream;
+
+import primitives.Color;
+
+/**
+ * Coordinator of distributed rendering - renders the image of a camera by
+ * {@link RenderWorker} processes connected through sockets. The camera (with
+ * its ray tracer and scene) is serialized once and sent to each worker, and
+ * then the tiles of the image are handed out to the workers in batches, each
+ * batch as large as twice the threads of the worker. The workers send back
+ * the pixels of the tiles compressed. The tiles of a worker which fails or
+ * disconnects are handed out again to the other workers.
+ * <p>
+ * The coordinator launches the given amount of local worker processes. Other
+ * workers, on other machines, may connect to the address and the port of the
+ * coordinator at any time during the rendering - with no local workers the
+ * coordinator waits for remote workers.
+ * <p>
+ * Protocol: the worker sends the amount of its threads; the coordinator sends
+ * the image size and the serialized camera. Then the coordinator sends a batch
+ * (the amount of the tiles and their indices) and the worker answers with the
+ * length of the compressed pixels and the pixels, until the coordinator sends
+ * an empty batch.
+ */
+public class RenderCoordinator {
+	/** The time in milliseconds of waiting for a connection or for tiles */
+	private static final int POLL_MILLIS = 100;
+
+	/** The camera to render */
+	private final Camera camera;
+	/** The amount of the local worker processes */
+	private int workers = 2;
+	/** The amount of the rendering threads of each local worker, 0 for automatic */
+	private int workerThreads = 0;
+	/** The address the coordinator listens at */
+	private InetAddress address = InetAddress.getLoopbackAddress();
+	/** The port the coordinator listens at, 0 for any free port */
+	private int port = 0;
+
+	/**
+	 * Constructs a coordinator rendering a camera into its image writer
+	 *
+	 * @param camera the camera
+	 */
+	public RenderCoordinator(Camera camera) {
+		this.camera = camera;
+	}
+
+	/**
+	 * Sets the amount of the local worker processes
+	 *
+	 * @param workers the amount of the processes, 0 for remote workers only
+	 * @return the coordinator
+	 */
+	public RenderCoordinator setWorkers(int workers) {
+		if (workers < 0)
+			throw new IllegalArgumentException("Amount of workers must not be negative");
+		this.workers = workers;
+		return this;
+	}
+
+	/**
+	 * Sets the amount of the rendering threads of each local worker process. By
+	 * default the cores are divided between the local workers.
+	 *
+	 * @param threads the amount of the threads
+	 * @return the coordinator
+	 */
+	public RenderCoordinator setWorkerThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Amount of worker threads must be positive");
+		this.workerThreads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the address and the port the coordinator listens at. By default it
+	 * listens at the loopback address, at any free port, which serves local
+	 * workers only.
+	 *
+	 * @param address the address
+	 * @param port    the port, 0 for any free port
+	 * @return the coordinator
+	 */
+	public RenderCoordinator setAddress(InetAddress address, int port) {
+		this.address = address;
+		this.port = port;
+		return this;
+	}
+
+	/**
+	 * Renders the image of the camera by the workers, and returns when all the
+	 * tiles are done. If the calling thread is interrupted, the rendering is
+	 * cancelled and the thread interrupt status is kept.
+	 *
+	 * @return the coordinator
+	 * @throws IllegalStateException if the camera cannot be serialized, the
+	 *                               workers cannot be launched, or all the local
+	 *                               workers have failed
+	 */
+	public RenderCoordinator render() {
+		try (ServerSocket server = new ServerSocket(port, 0, address)) {
+			new Job(server).run();
+		} catch (IOException e) {
+			throw new IllegalStateException("Distributed rendering failed", e);
+		}
+		return this;
+	}
+
+	/**
+	 * A single distributed rendering
+	 */
+	private class Job {
+		/** The socket the coordinator listens at */
+		private final ServerSocket server;
+		/** The image of the camera */
+		private final ImageWriter imageWriter;
+		/** The tile grid of the image */
+		private final PixelManager grid;
+		/** The serialized camera */
+		private final byte[] serialized;
+		/** The indices of the tiles still to hand out */
+		private final BlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+		/** The total amount of the tiles */
+		private final int total;
+		/** The amount of the tiles done */
+		private final AtomicInteger done = new AtomicInteger();
+		/** The amount of the connected workers */
+		private final AtomicInteger connected = new AtomicInteger();
+
+		/**
+		 * Prepares a distributed rendering
+		 *
+		 * @param server the socket to listen at
+		 * @throws IOException if the camera cannot be serialized
+		 */
+		Job(ServerSocket server) throws IOException {
+			this.server = server;
+			imageWriter = camera.getImageWriter();
+			int nX = imageWriter.getNx(), nY = imageWriter.getNy(), tileSize = camera.getTileSize();
+			grid = new PixelManager(nY, nX, 0, tileSize);
+			total = ((nX + tileSize - 1) / tileSize) * ((nY + tileSize - 1) / tileSize);
+			for (int index = 0; index < total; ++index)
+				pending.add(index);
+			var buffer = new ByteArrayOutputStream();
+			try (var out = new ObjectOutputStream(buffer)) {
+				out.writeObject(camera);
+			}
+			serialized = buffer.toByteArray();
+		}
+
+		/**
+		 * Launches the local workers and serves all the connecting workers until all
+		 * the tiles are done
+		 *
+		 * @throws IOException if the workers cannot be launched or the connections
+		 *                     cannot be accepted
+		 */
+		void run() throws IOException {
+			List<Process> processes = new ArrayList<>();
+			ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "Render coordinator");
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				for (int k = 0; k < workers; ++k)
+					processes.add(launch());
+				server.setSoTimeout(POLL_MILLIS);
+				while (done.get() < total && !Thread.currentThread().isInterrupted())
+					try {
+						Socket socket = server.accept();
+						connected.incrementAndGet();
+						connections.execute(() -> serve(socket));
+					} catch (SocketTimeoutException e) {
+						if (!processes.isEmpty() && connected.get() == 0
+								&& processes.stream().noneMatch(Process::isAlive) && done.get() < total)
+							throw new IllegalStateException("All the render workers have failed");
+					}
+			} finally {
+				// when all the tiles are done, let the workers get the empty batch
+				connections.shutdown();
+				try {
+					if (done.get() < total || !connections.awaitTermination(1, TimeUnit.SECONDS))
+						connections.shutdownNow();
+				} catch (InterruptedException e) {
+					connections.shutdownNow();
+					Thread.currentThread().interrupt();
+				}
+				processes.forEach(Process::destroy);
+			}
+		}
+
+		/**
+		 * Launches a local worker process with the class path of this process
+		 *
+		 * @return the process
+		 * @throws IOException if the process cannot be started
+		 */
+		private Process launch() throws IOException {
+			String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+			String classPath = System.getProperty("java.class.path");
+			// the classes may be loaded from elsewhere, as by a test launcher
+			var source = RenderWorker.class.getProtectionDomain().getCodeSource();
+			if (source != null)
+				try {
+					classPath += File.pathSeparator + Path.of(source.getLocation().toURI());
+				} catch (URISyntaxException e) {
+					// the class path of the process is all there is
+				}
+			InetAddress host = server.getInetAddress().isAnyLocalAddress() ? InetAddress.getLoopbackAddress()
+					: server.getInetAddress();
+			int threads = workerThreads != 0 ? workerThreads
+					: Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+			return new ProcessBuilder(java, "-cp", classPath, RenderWorker.class.getName(),
+					host.getHostAddress(), Integer.toString(server.getLocalPort()),
+					Integer.toString(threads)).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+					.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		}
+
+		/**
+		 * Serves a connected worker - hands out batches of tiles to the worker and
+		 * writes their pixels to the image, until there are no more tiles. If the
+		 * worker fails, the tiles of its batch are handed out again.
+		 *
+		 * @param socket the connection of the worker
+		 */
+		private void serve(Socket socket) {
+			List<Integer> batch = new ArrayList<>();
+			try (socket;
+					var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+					var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+				int size = 2 * Math.max(1, in.readInt());
+				out.writeInt(imageWriter.getNx());
+				out.writeInt(imageWriter.getNy());
+				out.writeInt(serialized.length);
+				out.write(serialized);
+				out.flush();
+				while (take(batch, size)) {
+					out.writeInt(batch.size());
+					for (int index : batch)
+						out.writeInt(index);
+					out.flush();
+					byte[] pixels = new byte[in.readInt()];
+					in.readFully(pixels);
+					decode(pixels, batch);
+					done.addAndGet(batch.size());
+					batch.clear();
+				}
+				out.writeInt(0);
+				out.flush();
+			} catch (IOException | RuntimeException e) {
+				pending.addAll(batch); // the worker has failed, hand its tiles out again
+			} catch (InterruptedException e) {
+				pending.addAll(batch);
+				Thread.currentThread().interrupt();
+			} finally {
+				connected.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Takes the next batch of tiles - waits while there are no pending tiles but
+		 * some tiles are still in work, since they may be handed out again
+		 *
+		 * @param batch the list to put the tiles in
+		 * @param size  the largest amount of the tiles
+		 * @return true if there are tiles, false if all the tiles are done
+		 * @throws InterruptedException if the thread is interrupted
+		 */
+		private boolean take(List<Integer> batch, int size) throws InterruptedException {
+			while (done.get() < total) {
+				Integer first = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					pending.drainTo(batch, size - 1);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Decompresses the pixels of a batch of tiles into the image
+		 *
+		 * @param pixels the compressed pixels
+		 * @param batch  the indices of the tiles
+		 * @throws IOException if the pixels are corrupt or missing
+		 */
+		private void decode(byte[] pixels, List<Integer> batch) throws IOException {
+			try (var in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(pixels)))) {
+				for (int index : batch) {
+					PixelManager.Tile tile = grid.tile(index);
+					for (int i = tile.row(); i < tile.row() + tile.height(); ++i)
+						for (int j = tile.col(); j < tile.col() + tile.width(); ++j)
+							imageWriter.writePixel(j, i, new Color(new java.awt.Color(in.readInt())));
+				}
+			}
+		}
+	}
+}
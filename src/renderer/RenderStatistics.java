@@ -0,0 +1,181 @@
+package renderer;
+
+import java.time.Duration;
+
+/**
+ * Statistics of the last rendering of a camera - the time it took and the
+ * quality it reached. An object of the class is given to the camera builder,
+ * and the camera fills it in at the end of each rendering.
+ */
+public class RenderStatistics {
+	/** The rendering time in nanoseconds */
+	private long elapsedNanos = 0;
+	/** The amount of the pixels in the image */
+	private long pixels = 0;
+	/** The amount of the traced samples (primary rays) */
+	private long samples = 0;
+	/** The amount of samples per pixel configured for the camera */
+	private int configuredSamples = 0;
+	/** The amount of samples per pixel the rendering aimed at */
+	private int targetSamples = 0;
+	/** Whether all the pixels got all the target samples */
+	private boolean complete = false;
+	/** The amount of the rendering threads */
+	private int threads = 0;
+	/** The width and height of the tiles */
+	private int tileSize = 0;
+	/** The measured scaling efficiency of the threads, 0 if not measured */
+	private double scalingEfficiency = 0;
+
+	/**
+	 * Records the results of a rendering
+	 *
+	 * @param elapsedNanos      the rendering time in nanoseconds
+	 * @param pixels            the amount of the pixels in the image
+	 * @param samples           the amount of the traced samples
+	 * @param configuredSamples the amount of samples per pixel configured for the
+	 *                          camera
+	 * @param targetSamples     the amount of samples per pixel the rendering aimed
+	 *                          at
+	 * @param complete          whether all the pixels got all the target samples
+	 */
+	synchronized void report(long elapsedNanos, long pixels, long samples, int configuredSamples, int targetSamples,
+			boolean complete) {
+		this.elapsedNanos = elapsedNanos;
+		this.pixels = pixels;
+		this.samples = samples;
+		this.configuredSamples = configuredSamples;
+		this.targetSamples = targetSamples;
+		this.complete = complete;
+	}
+
+	/**
+	 * Records the threading of a rendering
+	 *
+	 * @param threads           the amount of the rendering threads
+	 * @param tileSize          the width and height of the tiles
+	 * @param scalingEfficiency the measured scaling efficiency of the threads, 0 if
+	 *                          not measured
+	 */
+	synchronized void reportThreading(int threads, int tileSize, double scalingEfficiency) {
+		this.threads = threads;
+		this.tileSize = tileSize;
+		this.scalingEfficiency = scalingEfficiency;
+	}
+
+	/**
+	 * Returns the rendering time
+	 *
+	 * @return the rendering time
+	 */
+	public synchronized Duration getElapsed() {
+		return Duration.ofNanos(elapsedNanos);
+	}
+
+	/**
+	 * Returns the amount of the pixels in the image
+	 *
+	 * @return the amount of the pixels
+	 */
+	public synchronized long getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * Returns the amount of the traced samples (primary rays)
+	 *
+	 * @return the amount of the samples
+	 */
+	public synchronized long getSamples() {
+		return samples;
+	}
+
+	/**
+	 * Returns the average amount of the traced samples per pixel
+	 *
+	 * @return the average samples per pixel
+	 */
+	public synchronized double getSamplesPerPixel() {
+		return pixels == 0 ? 0 : (double) samples / pixels;
+	}
+
+	/**
+	 * Returns the amount of samples per pixel the rendering aimed at - all the
+	 * configured samples, unless a time budget has lowered it
+	 *
+	 * @return the target samples per pixel
+	 */
+	public synchronized int getTargetSamples() {
+		return targetSamples;
+	}
+
+	/**
+	 * Returns the amount of samples per pixel configured for the camera
+	 *
+	 * @return the configured samples per pixel
+	 */
+	public synchronized int getConfiguredSamples() {
+		return configuredSamples;
+	}
+
+	/**
+	 * Returns the quality level reached - the average samples per pixel relative
+	 * to the configured ones, 1 for the full quality
+	 *
+	 * @return the quality level, between 0 and 1
+	 */
+	public synchronized double getQuality() {
+		return configuredSamples == 0 ? 0 : Math.min(1, getSamplesPerPixel() / configuredSamples);
+	}
+
+	/**
+	 * Returns whether all the pixels got all the target samples - false if a time
+	 * budget ran out before
+	 *
+	 * @return true if the rendering is complete
+	 */
+	public synchronized boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Returns the amount of the rendering threads - as configured, or as chosen by
+	 * auto-tuning
+	 *
+	 * @return the amount of the threads
+	 */
+	public synchronized int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Returns the width and height of the tiles - as configured, or as chosen by
+	 * auto-tuning
+	 *
+	 * @return the tile size in pixels
+	 */
+	public synchronized int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Returns the scaling efficiency of the threads measured by auto-tuning - the
+	 * throughput of the threads relative to that of a single thread times their
+	 * amount, 1 for perfect scaling
+	 *
+	 * @return the scaling efficiency, 0 if not measured
+	 */
+	public synchronized double getScalingEfficiency() {
+		return scalingEfficiency;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d pixels, %.2f samples/pixel (target %d of %d)%s in %.3fs", pixels,
+				getSamplesPerPixel(), targetSamples, configuredSamples, complete ? "" : ", incomplete",
+				elapsedNanos / 1e9)
+				+ (scalingEfficiency == 0 ? ""
+						: String.format(", %d threads, tile %d (scaling efficiency %.0f%%)", threads, tileSize,
+								100 * scalingEfficiency));
+	}
+}
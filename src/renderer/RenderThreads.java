@@ -0,0 +1,177 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The threads of multi-threaded rendering - the long-lived executors shared by
+ * all the cameras, and the running of the same work in several threads of an
+ * executor.
+ */
+final class RenderThreads {
+	/** The shared executors by the multi-threading configuration */
+	private static final Map<Integer, ExecutorService> SHARED_EXECUTORS = new ConcurrentHashMap<>();
+	/** The time in seconds after which an idle shared rendering thread ends */
+	private static final long IDLE_SECONDS = 60;
+
+	/** Don't let anyone instantiate this class. */
+	private RenderThreads() {
+	}
+
+	/**
+	 * Checks whether an executor is one of the shared executors
+	 * 
+	 * @param executor the executor
+	 * @return true if the executor is shared
+	 */
+	static boolean isShared(ExecutorService executor) {
+		return SHARED_EXECUTORS.containsValue(executor);
+	}
+
+	/**
+	 * Runs the same work in several threads of an executor, and returns when all
+	 * of them have finished. If the calling thread is interrupted, the threads are
+	 * cancelled and the thread interrupt status is kept. Either way no thread is
+	 * still running the work when this method returns.
+	 * 
+	 * @param executor the executor
+	 * @param count    the amount of threads
+	 * @param work     the work of each thread
+	 */
+	static void runWorkers(ExecutorService executor, int count, Runnable work) {
+		var workers = new ArrayList<Future<?>>(count);
+		var claims = new ArrayList<AtomicBoolean>(count);
+		var finished = new CountDownLatch(count);
+		for (int k = 0; k < count; ++k) {
+			var claim = new AtomicBoolean();
+			claims.add(claim);
+			workers.add(executor.submit(() -> {
+				if (claim.compareAndSet(false, true)) // not claimed by a cancellation
+					try {
+						work.run();
+					} finally {
+						finished.countDown();
+					}
+			}));
+		}
+		// wait until all the workers have finished
+		try {
+			for (var worker : workers)
+				worker.get();
+		} catch (InterruptedException e) {
+			stopWorkers(workers, claims, finished);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			stopWorkers(workers, claims, finished);
+			throw failure(e);
+		}
+	}
+
+	/**
+	 * Runs a fork/join task in a pool, and returns when it has finished. If the
+	 * calling thread is interrupted, the task is stopped by the given action -
+	 * its pending subtasks are to return at once - and waited for, and the thread
+	 * interrupt status is kept. The task is not cancelled in the pool, since its
+	 * running subtasks would go on after a cancelled task is done. Either way no
+	 * subtask is still running when this method returns.
+	 * 
+	 * @param pool the fork/join pool
+	 * @param task the task
+	 * @param stop the action stopping the task
+	 */
+	static void runTask(ForkJoinPool pool, ForkJoinTask<?> task, Runnable stop) {
+		pool.execute(task);
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			stop.run();
+			task.quietlyJoin();
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw failure(e);
+		}
+	}
+
+	/**
+	 * Unwraps the failure of a rendering thread for rethrowing it in the calling
+	 * thread.
+	 * 
+	 * @param e the failure of the thread
+	 * @return the runtime exception to throw
+	 * @throws Error if the thread failed with an error
+	 */
+	private static RuntimeException failure(ExecutionException e) {
+		if (e.getCause() instanceof RuntimeException cause)
+			return cause;
+		if (e.getCause() instanceof Error cause)
+			throw cause;
+		return new IllegalStateException("Rendering failed", e.getCause());
+	}
+
+	/**
+	 * Cancels the workers of {@link #runWorkers(ExecutorService, int, Runnable)}
+	 * and waits until the running ones have stopped, so that none of them still
+	 * writes into the image or the frame. The workers which have not started yet
+	 * are claimed here, and never start. An interrupt while waiting is kept in the
+	 * thread interrupt status.
+	 * 
+	 * @param workers  the futures of the workers
+	 * @param claims   the start claims of the workers
+	 * @param finished the count of the workers which have not finished yet
+	 */
+	private static void stopWorkers(List<Future<?>> workers, List<AtomicBoolean> claims, CountDownLatch finished) {
+		for (var claim : claims)
+			if (claim.compareAndSet(false, true))
+				finished.countDown();
+		workers.forEach(worker -> worker.cancel(true));
+		boolean interrupted = false;
+		while (true)
+			try {
+				finished.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Returns the shared long-lived executor for a multi-threading configuration.
+	 * The executors are created on first use and their threads are reused by all
+	 * the cameras and all the renderings, so rendering frame after frame costs no
+	 * thread start-up. The threads are daemon threads which end after a while of
+	 * idleness.
+	 * 
+	 * @param forkJoin true for a fork/join pool, false for a plain thread pool
+	 * @param threads  the amount of threads
+	 * @return the executor
+	 */
+	static ExecutorService sharedExecutor(boolean forkJoin, int threads) {
+		// the fork/join pools are kept under negative keys
+		return SHARED_EXECUTORS.computeIfAbsent(forkJoin ? -threads : threads, key -> {
+			if (forkJoin)
+				return new ForkJoinPool(threads);
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "Camera renderer");
+						thread.setDaemon(true);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			return pool;
+		});
+	}
+}
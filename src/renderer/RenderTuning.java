@@ -0,0 +1,134 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import scene.Scene;
+
+/**
+ * A rendering configuration auto-tuned by the measured throughput, for the
+ * cameras whose multi-threading is auto-tuned. The configurations are tuned at
+ * the first rendering of a scene, and then cached per scene and image size.
+ * 
+ * @param threads    the amount of threads, 0 for the calling thread
+ * @param tileSize   the width and height of the tiles
+ * @param efficiency the measured scaling efficiency of the threads
+ */
+record RenderTuning(int threads, int tileSize, double efficiency) {
+	/**
+	 * Key of an auto-tuned rendering configuration of a scene
+	 * 
+	 * @param nX the amount of columns in the image
+	 * @param nY the amount of rows in the image
+	 */
+	private record Key(int nX, int nY) {
+	}
+
+	/**
+	 * The auto-tuned rendering configurations by the scene and the image size -
+	 * the scenes are weakly referenced, so the configurations of a scene go with
+	 * it
+	 */
+	private static final Map<Scene, Map<Key, RenderTuning>> TUNINGS = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Returns the auto-tuned amount of threads and tile size for rendering the
+	 * scene into an image of the size of the image of the camera - tuned at the
+	 * first rendering of the scene, and then cached per scene and image size
+	 * 
+	 * @param camera the rendering camera
+	 * @param nX     the amount of columns in the image
+	 * @param nY     the amount of rows in the image
+	 * @return the tuned configuration
+	 */
+	static RenderTuning of(Camera camera, int nX, int nY) {
+		var key = new Key(nX, nY);
+		Map<Key, RenderTuning> tunings = TUNINGS.computeIfAbsent(camera.getRayTracer().scene,
+				scene -> new ConcurrentHashMap<>());
+		RenderTuning tuning = tunings.get(key);
+		if (tuning == null) {
+			tuning = tune(camera, nX, nY);
+			if (!Thread.currentThread().isInterrupted()) // an interrupted trial measures nothing
+				tunings.put(key, tuning);
+		}
+		return tuning;
+	}
+
+	/**
+	 * Tunes the amount of threads and the tile size by trial renderings of a band
+	 * across the middle of the image, one for each amount of threads (powers of 2
+	 * up to all the cores) with each tile size (half the configured, the
+	 * configured and double) - all the trials together trace a quarter of the
+	 * image. A first trial, whose throughput is discarded, warms the JIT compiler
+	 * up, so the first configuration is not measured slower than it is. The
+	 * configuration of the most pixels per second is chosen.
+	 * 
+	 * @param camera the rendering camera
+	 * @param nX     the amount of columns in the image
+	 * @param nY     the amount of rows in the image
+	 * @return the tuned configuration
+	 */
+	private static RenderTuning tune(Camera camera, int nX, int nY) {
+		int tileSize = camera.getTileSize();
+		int cores = Runtime.getRuntime().availableProcessors();
+		List<Integer> threadCounts = new ArrayList<>();
+		for (int threads = 1; threads < cores; threads *= 2)
+			threadCounts.add(threads);
+		threadCounts.add(cores);
+		int[] tileSizes = { Math.max(1, tileSize / 2), tileSize, 2 * tileSize };
+		int rows = Math.max(1, nY / (4 * (threadCounts.size() * tileSizes.length + 1)));
+		int firstRow = (nY - rows) / 2;
+		trialRate(camera, 1, tileSize, firstRow, rows, nX, nY); // warm-up
+
+		RenderTuning best = new RenderTuning(0, tileSize, 1);
+		double bestRate = 0;
+		for (int size : tileSizes) {
+			double singleRate = 0;
+			for (int threads : threadCounts) {
+				double rate = trialRate(camera, threads, size, firstRow, rows, nX, nY);
+				if (threads == 1)
+					singleRate = rate;
+				if (rate > bestRate) {
+					bestRate = rate;
+					best = new RenderTuning(threads == 1 ? 0 : threads, size, rate / singleRate / threads);
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Measures the throughput of a trial rendering of a band of the image, by the
+	 * primary rays of its pixels - the pixels are not written to the image
+	 * 
+	 * @param camera   the rendering camera
+	 * @param threads  the amount of threads
+	 * @param size     the width and height of the tiles
+	 * @param firstRow the first row of the band
+	 * @param rows     the amount of rows in the band
+	 * @param nX       the amount of columns in the image
+	 * @param nY       the amount of rows in the image
+	 * @return the throughput in pixels per second
+	 */
+	private static double trialRate(Camera camera, int threads, int size, int firstRow, int rows, int nX, int nY) {
+		PixelManager manager = new PixelManager(firstRow, 0, rows, nX, 0, size, false);
+		Runnable trial = () -> {
+			PixelManager.Tile tile;
+			while ((tile = manager.nextTile()) != null)
+				for (int i = tile.row(); i < tile.row() + tile.height(); ++i)
+					for (int j = tile.col(); j < tile.col() + tile.width(); ++j)
+						camera.getRayTracer().traceRay(camera.constructRay(nX, nY, j, i));
+		};
+		long start = System.nanoTime();
+		if (threads == 1)
+			trial.run();
+		else
+			RenderThreads.runWorkers(camera.getExecutor(), threads, trial);
+		return rows * nX * 1e9 / Math.max(1, System.nanoTime() - start);
+	}
+}
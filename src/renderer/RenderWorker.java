@@ -0,0 +1,99 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.Socket;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Worker process of distributed rendering. The worker connects to a
+ * {@link RenderCoordinator}, receives the camera (with its ray tracer and
+ * scene) once, and then renders the batches of tiles the coordinator hands out
+ * and sends their pixels back compressed, until the coordinator has no more
+ * tiles.
+ * <p>
+ * The coordinator launches local workers by itself. Workers on other machines
+ * are started by: {@code java renderer.RenderWorker <host> <port> [threads]}
+ * with the same classes in their class path.
+ */
+public final class RenderWorker {
+	/** Don't let anyone instantiate this class. */
+	private RenderWorker() {
+	}
+
+	/**
+	 * Runs a worker until the coordinator has no more tiles for it
+	 *
+	 * @param args the coordinator host and port, and optionally the amount of the
+	 *             rendering threads (all the cores by default)
+	 * @throws IOException            if the connection to the coordinator fails
+	 * @throws ClassNotFoundException if the camera classes are missing
+	 */
+	public static void main(String[] args) throws IOException, ClassNotFoundException {
+		if (args.length < 2)
+			throw new IllegalArgumentException("Usage: RenderWorker <host> <port> [threads]");
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+				var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+			out.writeInt(threads);
+			out.flush();
+
+			int nX = in.readInt(), nY = in.readInt();
+			byte[] job = new byte[in.readInt()];
+			in.readFully(job);
+			Camera received;
+			try (var objects = new ObjectInputStream(new ByteArrayInputStream(job))) {
+				received = (Camera) objects.readObject();
+			}
+			ImageWriter imageWriter = new ImageWriter("Render worker", nX, nY);
+			Camera camera = Camera.getBuilder(received).setImageWriter(imageWriter)
+					.setMultiThreading(threads > 1 ? threads : 0).build();
+			PixelManager grid = new PixelManager(nY, nX, 0, camera.getTileSize());
+
+			for (int count = in.readInt(); count != 0; count = in.readInt()) {
+				int[] tiles = new int[count];
+				for (int k = 0; k < count; ++k)
+					tiles[k] = in.readInt();
+				camera.renderTiles(tiles);
+				byte[] pixels = encode(imageWriter, grid, tiles);
+				out.writeInt(pixels.length);
+				out.write(pixels);
+				out.flush();
+			}
+		}
+	}
+
+	/**
+	 * Compresses the pixels of tiles - the RGB values of the pixels of each tile,
+	 * row by row, one tile after another
+	 *
+	 * @param imageWriter the image of the pixels
+	 * @param grid        the pixel manager of the tile grid of the image
+	 * @param tiles       the indices of the tiles
+	 * @return the compressed pixels
+	 * @throws IOException never - the pixels are compressed in memory
+	 */
+	private static byte[] encode(ImageWriter imageWriter, PixelManager grid, int[] tiles) throws IOException {
+		var buffer = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try (var out = new DataOutputStream(new DeflaterOutputStream(buffer, deflater))) {
+			for (int index : tiles) {
+				PixelManager.Tile tile = grid.tile(index);
+				for (int i = tile.row(); i < tile.row() + tile.height(); ++i)
+					for (int j = tile.col(); j < tile.col() + tile.width(); ++j)
+						out.writeInt(imageWriter.getPixel(j, i).getColor().getRGB());
+			}
+		} finally {
+			deflater.end();
+		}
+		return buffer.toByteArray();
+	}
+}
@@ -0,0 +1,815 @@
+package renderer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import primitives.Color;
+import primitives.ColorAccumulator;
+import primitives.Point;
+import primitives.Ray;
+import primitives.SampleRandom;
+import primitives.Sampler;
+import static primitives.Util.isZero;
+
+/**
+ * A single rendering of the image, or of a part of it. It keeps all the state
+ * of the rendering, so the camera itself is not changed by rendering - the
+ * same camera may be rendered again and again, and by several threads at
+ * once.
+ */
+final class Rendering {
+	/** The maximum number of rays that can be traced by the camera. */
+	private static final int MAX_RAYS = 100;
+	/** The least samples of a blurred pixel by adaptive depth of field */
+	private static final int MIN_FOCUS_SAMPLES = 4;
+	/** The part of the remaining time budget the adaptive sampling aims to fill */
+	private static final double BUDGET_MARGIN = 0.9;
+	/**
+	 * The steps of the sub-pixel sample offsets along the axes - the inverse
+	 * plastic number and its square, which spread the offsets evenly over the
+	 * pixel for any amount of samples
+	 */
+	private static final double R2_X = 0.7548776662466927, R2_Y = 0.5698402909980532;
+
+	/**
+	 * Rendering of a single pixel in a rendering pass
+	 */
+	@FunctionalInterface
+	private interface PixelRenderer {
+		/**
+		 * Renders a pixel
+		 * 
+		 * @param j number of the pixel in a row
+		 * @param i number of the pixel in a column
+		 */
+		void render(int j, int i);
+	}
+
+	/** The rendered camera */
+	private final Camera camera;
+	/** The amount of columns and rows in the image */
+	private final int nX, nY;
+	/** The first column and row of the rendered rectangle */
+	private final int regionX, regionY;
+	/** The amount of columns and rows in the rendered rectangle */
+	private final int regionWidth, regionHeight;
+	/** The indices of the rendered tiles, null for the whole rectangle */
+	private final int[] tiles;
+	/** The rendered pixels of the tiles by index row by row, null for all */
+	private final BitSet mask;
+	/** The checkpoint file, null without checkpoints or for a part of the image */
+	private final Path checkpointPath;
+	/** The amount of the rendering threads, as configured or auto-tuned */
+	private final int threadsCount;
+	/** The width and height of the tiles, as configured or auto-tuned */
+	private final int tileSize;
+	/** The measured scaling efficiency of the auto-tuned threads, 0 if not tuned */
+	private final double scalingEfficiency;
+	/**
+	 * Pixel manager for supporting: multi-threading debug print of progress
+	 * percentage in Console window
+	 */
+	private final PixelManager pixelManager;
+	/** depthOfFieled points on the aperture plane, null without depth of field */
+	private final List<Point> aperturePoints;
+	/** The interval for writing interim images in nanoseconds, 0 for none */
+	private final long flushNanos;
+	/** The time of writing the next interim image */
+	private final AtomicLong nextFlush;
+	/** The start time of the rendering */
+	private final long start;
+	/** The time by which the rendering must end, if it has a time budget */
+	private final long deadline;
+	/** Whether the rendering has a time budget */
+	private final boolean budgeted;
+	/** The samples per pixel configured for the camera */
+	private final int configuredSamples;
+	/** The samples per pixel the rendering aims at within the time budget */
+	private volatile int targetSamples;
+	/**
+	 * Whether the time budget is met in a single pass, by lowering the adaptive
+	 * sampling of the pixels (super sampling or adaptive depth of field), rather
+	 * than progressively
+	 */
+	private final boolean adaptiveBudget;
+	/** The most super sampling levels of a pixel, lowered to fit the time budget */
+	private volatile int levels;
+	/**
+	 * The most aperture samples of an adaptively focused pixel, lowered to fit the
+	 * time budget
+	 */
+	private volatile int focusSamples;
+	/** The pixels rendered so far in the single pass of an adaptive budget */
+	private long pixelsRendered = 0;
+	/** The relative cost of the sampling of the pixels rendered so far */
+	private double renderedCost = 0;
+	/** The amount of the traced samples (primary rays) */
+	private final LongAdder samples = new LongAdder();
+	/** Whether the calling thread of the rendering was interrupted */
+	private volatile boolean interrupted = false;
+	/** The frame buffer of progressive rendering, null for a single pass */
+	private final FrameBuffer frame;
+	/** The interval for saving checkpoints in nanoseconds, 0 for none */
+	private final long checkpointNanos;
+	/** The time of saving the next checkpoint */
+	private final AtomicLong nextCheckpoint;
+	/**
+	 * The lock of the tiles against checkpoints - held shared while rendering a
+	 * tile and exclusively while saving a checkpoint, so a checkpoint never
+	 * catches a tile half done. Null without checkpoints
+	 */
+	private final ReadWriteLock tileLock;
+	/** The tiles done in the current pass, null without checkpoints */
+	private BitSet tilesDone;
+	/** The samples of the current pass - the first one and after the last one */
+	private volatile int passFirst = 0, passLast = 1;
+	/**
+	 * The colors of the super sampling lattice points of the tile each thread
+	 * renders, by their coordinates in the finest image lattice; null without
+	 * super sampling
+	 */
+	private final ThreadLocal<Map<Long, Color>> latticeColors;
+
+	/**
+	 * Prepares a rendering of the whole image
+	 * 
+	 * @param camera      the rendered camera
+	 * @param budgetNanos the time budget in nanoseconds, 0 for no budget
+	 */
+	Rendering(Camera camera, long budgetNanos) {
+		this(camera, budgetNanos, 0, 0, camera.getImageWriter().getNx(), camera.getImageWriter().getNy(), null, null);
+	}
+
+	/**
+	 * Prepares a rendering of a part of the image
+	 * 
+	 * @param camera       the rendered camera
+	 * @param budgetNanos  the time budget in nanoseconds, 0 for no budget
+	 * @param regionX      first column of the rendered rectangle
+	 * @param regionY      first row of the rendered rectangle
+	 * @param regionWidth  amount of columns in the rendered rectangle
+	 * @param regionHeight amount of rows in the rendered rectangle
+	 * @param tiles        the indices of the rendered tiles of the image, null
+	 *                     for the whole rectangle
+	 * @param mask         the rendered pixels of the tiles, by index row by row,
+	 *                     null for all the pixels
+	 */
+	Rendering(Camera camera, long budgetNanos, int regionX, int regionY, int regionWidth, int regionHeight, int[] tiles,
+			BitSet mask) {
+		this.camera = camera;
+		start = System.nanoTime();
+		budgeted = budgetNanos != 0;
+		deadline = start + budgetNanos;
+		nX = camera.getImageWriter().getNx();
+		nY = camera.getImageWriter().getNy();
+		this.regionX = regionX;
+		this.regionY = regionY;
+		this.regionWidth = regionWidth;
+		this.regionHeight = regionHeight;
+		this.tiles = tiles;
+		this.mask = mask;
+		checkpointPath = tiles == null && regionWidth == nX && regionHeight == nY ? camera.getCheckpointFile() : null;
+		// tile indices and checkpoints are by the configured tile size
+		RenderTuning tuning = camera.getThreadsCount() == Camera.AUTO_THREADS ? RenderTuning.of(camera, nX, nY) : null;
+		threadsCount = tuning != null ? tuning.threads() : camera.getThreadsCount();
+		tileSize = tuning != null && tiles == null && checkpointPath == null ? tuning.tileSize()
+				: camera.getTileSize();
+		scalingEfficiency = tuning != null ? tuning.efficiency() : 0;
+		pixelManager = newPixelManager(false);
+		aperturePoints = camera.getGridDensity() == 1 ? null // without depth of fieled
+				: camera.depthOfFieledPoints != null ? camera.depthOfFieledPoints
+						: Camera.generatePoints(camera.getGridDensity(), camera.getApertureRadius(),
+								camera.getPosition(), camera.getVUp(), camera.getVRight(), camera.getSeed());
+		configuredSamples = camera.getProgressiveSamples() != 0 ? camera.getProgressiveSamples()
+				: aperturePoints != null ? Math.min(aperturePoints.size(), MAX_RAYS) : 1;
+		targetSamples = configuredSamples;
+		adaptiveBudget = budgeted && camera.getProgressiveSamples() == 0
+				&& (camera.isSuperSempling() || camera.getFocusTolerance() != 0 && aperturePoints != null);
+		levels = camera.getSuperSemplingLevels();
+		focusSamples = configuredSamples;
+		flushNanos = (long) (camera.getFlushInterval() * 1e9);
+		nextFlush = new AtomicLong(System.nanoTime() + flushNanos);
+		frame = camera.getProgressiveSamples() != 0 || budgeted && !adaptiveBudget ? new FrameBuffer(nX, nY) : null;
+		checkpointNanos = (long) (camera.getCheckpointInterval() * 1e9);
+		nextCheckpoint = new AtomicLong(System.nanoTime() + checkpointNanos);
+		tileLock = checkpointPath == null ? null : new ReentrantReadWriteLock();
+		tilesDone = checkpointPath == null ? null : new BitSet();
+		latticeColors = camera.isSuperSempling() && aperturePoints == null ? ThreadLocal.withInitial(HashMap::new)
+				: null;
+	}
+
+	/**
+	 * Creates a pixel manager of the rendered part of the image
+	 * 
+	 * @param centerOut true for handing out the tiles from the center outwards,
+	 *                  false for row by row
+	 * @return the pixel manager
+	 */
+	private PixelManager newPixelManager(boolean centerOut) {
+		if (tiles != null)
+			return new PixelManager(nY, nX, camera.getPrintInterval(), tileSize, tiles);
+		return new PixelManager(regionY, regionX, regionHeight, regionWidth, camera.getPrintInterval(), tileSize,
+				centerOut);
+	}
+
+	/**
+	 * Renders the image in the configured threading mode, and returns when all the
+	 * pixels are done. If the calling thread is interrupted, the rendering is
+	 * cancelled and the thread interrupt status is kept. With checkpoints, the
+	 * rendering starts from the saved checkpoint if there is one, and saves a
+	 * last checkpoint if it stops before its end.
+	 */
+	void run() {
+		RenderCheckpoint checkpoint = checkpointPath == null ? null
+				: RenderCheckpoint.load(checkpointPath, tileSize, camera.getImageWriter(), frame);
+		if (checkpoint != null)
+			tilesDone = checkpoint.tiles;
+		boolean complete;
+		if (frame != null)
+			complete = renderProgressive(checkpoint);
+		else {
+			if (threadsCount != 0 && (camera.isForkJoin() || threadsCount == -1) && checkpointPath == null
+					&& tiles == null)
+				// Multi-threaded with work stealing
+				RenderThreads.runTask((ForkJoinPool) camera.getExecutor(),
+						new RenderRegion(regionX, regionY, regionWidth, regionHeight), () -> interrupted = true);
+			else
+				runTiles(pixelManager, pixelRenderer(this::renderPixel, false));
+			complete = !stopped();
+		}
+		if (checkpointPath != null)
+			if (complete)
+				RenderCheckpoint.delete(checkpointPath);
+			else
+				saveCheckpoint();
+		if (camera.getStatistics() != null) {
+			camera.getStatistics().report(System.nanoTime() - start,
+					mask != null ? mask.cardinality() : pixelManager.getTotalPixels(), samples.sum(),
+					configuredSamples, targetSamples, complete);
+			camera.getStatistics().reportThreading(threadsCount == 0 ? 1
+					: threadsCount == -1 ? ((ForkJoinPool) camera.getExecutor()).getParallelism() : threadsCount,
+					tileSize, scalingEfficiency);
+		}
+	}
+
+	/**
+	 * Renders the image progressively: a first pass with one sample per pixel
+	 * and then refining passes, each adding as many samples as all the previous
+	 * passes. Each pixel shows the average of its samples so far. With a time
+	 * budget, the throughput measured since the first tiles limits the target
+	 * samples per pixel to what fits in the remaining time: during a pass the
+	 * target may only go down, and the remaining tiles of the pass get fewer
+	 * samples, so the pass still covers the whole image evenly; between the
+	 * passes the target is estimated anew.
+	 * 
+	 * @param checkpoint the checkpoint to continue from, null for starting anew
+	 * @return true if all the pixels got all the target samples
+	 */
+	private boolean renderProgressive(RenderCheckpoint checkpoint) {
+		int done = checkpoint == null ? 0 : checkpoint.first;
+		while (done < targetSamples && !stopped()) {
+			final int first = done;
+			final int last = checkpoint != null ? checkpoint.last
+					: done == 0 ? 1 : Math.min(2 * done, targetSamples);
+			if (checkpoint == null && tilesDone != null)
+				tilesDone.clear();
+			checkpoint = null;
+			passFirst = first;
+			passLast = last;
+			runTiles(newPixelManager(true), pixelRenderer((j, i) -> {
+				Point focalPoint = aperturePoints == null ? null
+						: camera.constructRay(nX, nY, j, i).getPoint(camera.getFocalLength());
+				int end = Math.min(last, Math.max(first + 1, targetSamples));
+				for (int sample = first; sample < end; ++sample)
+					frame.add(j, i, traceSample(j, i, sample, focalPoint));
+				camera.getImageWriter().writePixel(j, i, frame.get(j, i));
+			}, first != 0));
+			if (stopped())
+				break; // the pass may be incomplete
+			done = Math.min(last, Math.max(first + 1, targetSamples));
+			if (budgeted)
+				targetSamples = Math.max(done, affordableSamples());
+		}
+		return done >= targetSamples;
+	}
+
+	/**
+	 * Estimates the samples per pixel which fit in the time budget, by the
+	 * throughput of the samples traced so far
+	 * 
+	 * @return the affordable samples per pixel, up to the configured samples
+	 */
+	private int affordableSamples() {
+		long traced = samples.sum(), now = System.nanoTime();
+		if (traced == 0)
+			return targetSamples;
+		double nanosPerSample = (double) (now - start) / traced;
+		long affordable = traced + (long) ((deadline - now) / nanosPerSample);
+		return (int) Math.max(1, Math.min(configuredSamples, affordable / pixelManager.getTotalPixels()));
+	}
+
+	/**
+	 * Fits the sampling to the time budget after a tile is rendered, so the
+	 * estimate follows the throughput from the first tiles on - lowers the target
+	 * samples of progressive rendering, or the adaptive sampling of the pixels of
+	 * a single pass
+	 * 
+	 * @param pixels the amount of pixels of the rendered tile
+	 */
+	private void fitBudget(int pixels) {
+		if (adaptiveBudget)
+			fitSampling(pixels);
+		else if (budgeted && frame != null)
+			synchronized (this) {
+				targetSamples = Math.min(targetSamples, affordableSamples());
+			}
+	}
+
+	/**
+	 * Fits the adaptive sampling of a single pass to the time budget. The rendered
+	 * pixels are weighted by the relative cost of their sampling - the samples
+	 * along an edge of a pixel divided by L levels, 2^L + 1, or the most aperture
+	 * samples - which gives the time of a unit of cost. The remaining time, with a
+	 * margin as the pixels left out of a single pass are not rendered at all,
+	 * gives the cost each remaining pixel can afford. The cost of the pixels is
+	 * uneven over the image (edges and blur cost much more than flat areas), so
+	 * the time unit is of all the rendered pixels, and the sampling only goes
+	 * down.
+	 * 
+	 * @param pixels the amount of pixels of the rendered tile
+	 */
+	private synchronized void fitSampling(int pixels) {
+		pixelsRendered += pixels;
+		renderedCost += pixels * (camera.isSuperSempling() ? (1 << levels) + 1d : focusSamples);
+		long now = System.nanoTime(), left = pixelManager.getTotalPixels() - pixelsRendered;
+		if (left <= 0)
+			return;
+		double affordable = BUDGET_MARGIN * (deadline - now) / left / ((now - start) / renderedCost);
+		if (camera.isSuperSempling())
+			while (levels > 1 && (1 << levels) + 1 > affordable)
+				--levels;
+		else
+			focusSamples = (int) Math.max(1, Math.min(focusSamples, affordable));
+	}
+
+	/**
+	 * Checks whether the rendering must stop - the calling thread is interrupted,
+	 * the rendering is cancelled or the time budget has run out
+	 * 
+	 * @return true if the rendering must stop
+	 */
+	private boolean stopped() {
+		return interrupted || Thread.currentThread().isInterrupted() || budgeted && System.nanoTime() - deadline >= 0
+				|| camera.getRenderControl() != null && camera.getRenderControl().isCancelled();
+	}
+
+	/**
+	 * Checks whether a rendering thread may go on to its next tile - waits while
+	 * the rendering is paused. An interrupt while waiting is kept in the thread
+	 * interrupt status.
+	 * 
+	 * @return true if the thread may go on, false if the rendering must stop
+	 */
+	private boolean proceed() {
+		if (stopped())
+			return false;
+		if (camera.getRenderControl() == null)
+			return true;
+		try {
+			return camera.getRenderControl().proceed() && !stopped();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Traces a single sample of a pixel for progressive rendering. The first
+	 * sample goes through the pixel center. With depth of field the others go
+	 * from the aperture points to the focal point, otherwise through other points
+	 * of the pixel, of the sampler if there is one, or else spread evenly by the
+	 * additive recurrence of the plastic number.
+	 * 
+	 * @param j          number of the pixel in a row
+	 * @param i          number of the pixel in a column
+	 * @param sample     number of the sample
+	 * @param focalPoint the focal point of the pixel, null without depth of field
+	 * @return the color of the sample
+	 */
+	private Color traceSample(int j, int i, int sample, Point focalPoint) {
+		samples.increment();
+		if (sample == 0)
+			return camera.getRayTracer().traceRay(camera.constructRay(nX, nY, j, i));
+		if (focalPoint != null) {
+			Point aperturePoint = aperturePoint(j, i, sample - 1);
+			return camera.getRayTracer().traceRay(new Ray(aperturePoint, focalPoint.subtract(aperturePoint)));
+		}
+		double dx, dy;
+		if (camera.getSampler() != null) {
+			dx = camera.getSampler().get(camera.getSeed(), j, i, sample - 1, 0) - 0.5;
+			dy = camera.getSampler().get(camera.getSeed(), j, i, sample - 1, 1) - 0.5;
+		} else {
+			dx = (0.5 + sample * R2_X) % 1 - 0.5;
+			dy = (0.5 + sample * R2_Y) % 1 - 0.5;
+		}
+		return camera.getRayTracer().traceRay(camera.constructRay(nX, nY, j + dx, i + dy));
+	}
+
+	/**
+	 * Wraps the rendering of a pixel for the pixel mask of the rendering, and for
+	 * recording the geometry ids of the pixel
+	 * 
+	 * @param renderer the rendering of a pixel
+	 * @param merge    true for adding the recorded ids to those of the previous
+	 *                 pass, false for replacing them
+	 * @return the wrapped rendering of a pixel
+	 */
+	private PixelRenderer pixelRenderer(PixelRenderer renderer, boolean merge) {
+		if (mask == null && camera.getGeometryIds() == null)
+			return renderer;
+		return (j, i) -> {
+			if (mask != null && !mask.get(i * nX + j))
+				return;
+			if (camera.getGeometryIds() == null)
+				renderer.render(j, i);
+			else
+				camera.getGeometryIds().record(j, i, RayTracerBase.recordHits(() -> renderer.render(j, i)), merge);
+		};
+	}
+
+	/**
+	 * Renders all the tiles handed out by a pixel manager, in the calling thread
+	 * or in the configured amount of threads
+	 * 
+	 * @param manager  the pixel manager of the tiles
+	 * @param renderer the rendering of a pixel
+	 */
+	private void runTiles(PixelManager manager, PixelRenderer renderer) {
+		if (threadsCount == 0) { // Single-threaded rendering-without minip2
+			renderTiles(manager, renderer);
+			return;
+		}
+
+		// Multi-threaded rendering-minip2
+		int count = threadsCount == -1 ? ((ForkJoinPool) camera.getExecutor()).getParallelism() : threadsCount;
+		RenderThreads.runWorkers(camera.getExecutor(), count, () -> renderTiles(manager, renderer));
+	}
+
+	/**
+	 * Renders the tiles handed out by a pixel manager, until there are no more
+	 * tiles. Runs in each of the rendering threads.
+	 * 
+	 * @param manager  the pixel manager of the tiles
+	 * @param renderer the rendering of a pixel
+	 */
+	private void renderTiles(PixelManager manager, PixelRenderer renderer) {
+		PixelManager.Tile tile;
+		while (proceed() && (tile = manager.nextTile()) != null) {
+			if (tileLock == null)
+				renderTile(tile, renderer);
+			else {
+				if (isDone(tile)) { // restored from the checkpoint
+					manager.pixelsDone(tile.size());
+					continue;
+				}
+				tileLock.readLock().lock();
+				try {
+					renderTile(tile, renderer);
+					synchronized (tilesDone) {
+						tilesDone.set(tile.index());
+					}
+				} finally {
+					tileLock.readLock().unlock();
+				}
+			}
+			manager.pixelsDone(tile.size());
+			fitBudget(tile.size());
+			flushIfDue();
+			checkpointIfDue();
+		}
+	}
+
+	/**
+	 * Renders all the pixels of a tile
+	 * 
+	 * @param tile     the tile
+	 * @param renderer the rendering of a pixel
+	 */
+	private void renderTile(PixelManager.Tile tile, PixelRenderer renderer) {
+		if (latticeColors != null)
+			latticeColors.get().clear();
+		int endRow = tile.row() + tile.height(), endCol = tile.col() + tile.width();
+		for (int i = tile.row(); i < endRow; ++i)
+			for (int j = tile.col(); j < endCol; ++j)
+				renderer.render(j, i);
+	}
+
+	/**
+	 * Checks whether a tile is already done in the current pass
+	 * 
+	 * @param tile the tile
+	 * @return true if the tile is done
+	 */
+	private boolean isDone(PixelManager.Tile tile) {
+		synchronized (tilesDone) {
+			return tilesDone.get(tile.index());
+		}
+	}
+
+	/**
+	 * Saves a checkpoint if the checkpoint interval has passed since the last
+	 * time. Only one of the threads passing at the same time saves.
+	 */
+	private void checkpointIfDue() {
+		if (checkpointNanos == 0)
+			return;
+		long now = System.nanoTime(), due = nextCheckpoint.get();
+		if (now >= due && nextCheckpoint.compareAndSet(due, now + checkpointNanos))
+			saveCheckpoint();
+	}
+
+	/**
+	 * Saves a checkpoint of the rendering - after the tiles in work are done, and
+	 * while no other tile is started
+	 */
+	private void saveCheckpoint() {
+		tileLock.writeLock().lock();
+		try {
+			RenderCheckpoint.save(checkpointPath, tileSize, passFirst, passLast, tilesDone, camera.getImageWriter(),
+					frame);
+		} finally {
+			tileLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the image as rendered so far to its file, if the flush interval has
+	 * passed since the last time. Only one of the threads passing at the same time
+	 * writes.
+	 */
+	private void flushIfDue() {
+		if (flushNanos == 0)
+			return;
+		long now = System.nanoTime(), due = nextFlush.get();
+		if (now >= due && nextFlush.compareAndSet(due, now + flushNanos))
+			synchronized (this) {
+				camera.getImageWriter().writeToImage();
+			}
+	}
+
+	/**
+	 * Renders a single pixel - with depth of field if it is active, otherwise by
+	 * adaptive super sampling if it is active, otherwise with a single ray through
+	 * the pixel center.
+	 * 
+	 * @param j number of the pixel in a row
+	 * @param i number of the pixel in a column
+	 */
+	private void renderPixel(int j, int i) {
+		if (aperturePoints == null && camera.isSuperSempling()) {
+			int step = 1 << levels;
+			camera.getImageWriter().writePixel(j, i, camera.getRayTracer()
+					.adaptiveTraceRays(new PixelLattice(j, i, step), step + 1, camera.getSuperSemplingThreshold()));
+			return;
+		}
+		if (aperturePoints == null) { // without depth of fieled
+			samples.increment();
+			camera.castRay(j, i);
+			return;
+		}
+
+		if (camera.getFocusTolerance() != 0) {
+			camera.getImageWriter().writePixel(j, i, adaptiveFocus(j, i));
+			return;
+		}
+		var focalPoint = camera.constructRay(nX, nY, j, i).getPoint(camera.getFocalLength());
+		List<Ray> rayBundle = Ray.RayBundle(focalPoint,
+				camera.getSampler() == null && camera.depthOfFieledPoints != null ? aperturePoints
+						: aperturePoints(j, i));
+		// Possibly limit the number of rays if memory is an issue
+		if (rayBundle.size() > MAX_RAYS)
+			rayBundle = rayBundle.subList(0, MAX_RAYS);
+		samples.add(rayBundle.size());
+		camera.getImageWriter().writePixel(j, i, camera.getRayTracer().computeFinalColor(rayBundle));
+	}
+
+	/**
+	 * Provide an aperture point of a pixel - of the sampler, or of the aperture
+	 * points given to the builder, or else a random point drawn for the pixel and
+	 * the number of the point by the seed, so the pixels do not repeat a single
+	 * pattern
+	 * 
+	 * @param j number of the pixel in a row
+	 * @param i number of the pixel in a column
+	 * @param n number of the aperture point
+	 * @return the aperture point
+	 */
+	private Point aperturePoint(int j, int i, int n) {
+		if (camera.getSampler() == null && camera.depthOfFieledPoints != null)
+			return aperturePoints.get(n % aperturePoints.size());
+		double r, angle;
+		if (camera.getSampler() == null) {
+			long pixel = Sampler.pixel(j, i);
+			angle = 2 * Math.PI * SampleRandom.random(camera.getSeed(), pixel, n, 0);
+			r = Math.sqrt(SampleRandom.random(camera.getSeed(), pixel, n, 1));
+		} else {
+			// the concentric mapping of the unit square onto the disk
+			double a = 2 * camera.getSampler().get(camera.getSeed(), j, i, n, 0) - 1;
+			double b = 2 * camera.getSampler().get(camera.getSeed(), j, i, n, 1) - 1;
+			if (Math.abs(a) > Math.abs(b)) {
+				r = a;
+				angle = Math.PI / 4 * b / a;
+			} else {
+				r = b;
+				angle = isZero(b) ? 0 : Math.PI / 2 - Math.PI / 4 * a / b;
+			}
+		}
+		double radius = camera.getApertureRadius();
+		double x = radius * r * Math.cos(angle), y = radius * r * Math.sin(angle);
+		Point point = camera.getPosition();
+		if (!isZero(x))
+			point = point.add(camera.getVRight().scale(x));
+		if (!isZero(y))
+			point = point.add(camera.getVUp().scale(y));
+		return point;
+	}
+
+	/**
+	 * Provide the aperture points of a pixel, as many as the samples of a pixel
+	 * 
+	 * @param j number of the pixel in a row
+	 * @param i number of the pixel in a column
+	 * @return the aperture points
+	 */
+	private List<Point> aperturePoints(int j, int i) {
+		List<Point> points = new ArrayList<>(configuredSamples);
+		for (int n = 0; n < configuredSamples; ++n)
+			points.add(aperturePoint(j, i, n));
+		return points;
+	}
+
+	/**
+	 * Samples the depth of field of a pixel adaptively. The primary ray, from the
+	 * aperture center through the pixel, is traced first. The diameter of the
+	 * circle of confusion at its hit, in pixels, is the spread of the rays from
+	 * the aperture to the focal point at the hit distance d, relative to the size
+	 * of a pixel there: 2 * radius * |focalLength - d| / focalLength over
+	 * pixelSize * d / viewPlaneDistance. The aperture points are then sampled in
+	 * proportion to the area of the circle, and the sampling stops early when the
+	 * running variance of the luminance converges.
+	 * 
+	 * @param j number of the pixel in a row
+	 * @param i number of the pixel in a column
+	 * @return the color of the pixel
+	 */
+	private Color adaptiveFocus(int j, int i) {
+		Ray primary = camera.constructRay(nX, nY, j, i);
+		RayTracerBase.TracedRay traced = camera.getRayTracer().traceRayAndDistance(primary);
+		double distance = traced.distance();
+		double spread = Double.isInfinite(distance) ? 1 : Math.abs(camera.getFocalLength() - distance) / distance;
+		double confusion = 2 * camera.getApertureRadius() * spread * camera.getViewPlaneDistance()
+				/ (camera.getFocalLength() * camera.getPixelSize());
+		samples.increment();
+		Color color = traced.color();
+		if (confusion < 1) // sharp
+			return color;
+
+		int target = (int) Math.min(focusSamples, Math.max(MIN_FOCUS_SAMPLES, Math.ceil(confusion * confusion)));
+		Point focalPoint = primary.getPoint(camera.getFocalLength());
+		ColorAccumulator sum = new ColorAccumulator().add(color);
+		// the running mean and sum of squared deviations of the luminance (Welford)
+		double mean = color.luminance(), deviations = 0;
+		double tolerance = camera.getFocusTolerance() * camera.getFocusTolerance();
+		for (int n = 1; n < target; ++n) {
+			Point aperturePoint = aperturePoint(j, i, n - 1);
+			samples.increment();
+			Color sample = camera.getRayTracer().traceRay(new Ray(aperturePoint, focalPoint.subtract(aperturePoint)));
+			sum.add(sample);
+			double luminance = sample.luminance(), delta = luminance - mean;
+			mean += delta / (n + 1);
+			deviations += delta * (luminance - mean);
+			// the squared standard error of the mean of n + 1 samples
+			if (n + 1 >= MIN_FOCUS_SAMPLES && deviations / n / (n + 1) <= tolerance)
+				break;
+		}
+		return sum.average();
+	}
+
+	/**
+	 * The super sampling lattice of a pixel, as a part of the lattice of the whole
+	 * image. The traced colors of the points are kept for the current tile of the
+	 * thread, so the points shared by neighboring cells and pixels - the corners
+	 * of the pixels at least - are traced once. A point has the same color
+	 * whether it is traced or kept, so the image does not depend on the tiles.
+	 */
+	private class PixelLattice implements RayTracerBase.RayLattice {
+		/** The column and row of the top left point of the pixel in the image lattice */
+		private final int left, top;
+		/** The amount of lattice steps along a pixel side */
+		private final int step;
+		/** The colors of the lattice points of the current tile */
+		private final Map<Long, Color> colors = latticeColors.get();
+
+		/**
+		 * Constructs the lattice of a pixel
+		 * 
+		 * @param j    number of the pixel in a row
+		 * @param i    number of the pixel in a column
+		 * @param step amount of lattice steps along a pixel side
+		 */
+		PixelLattice(int j, int i, int step) {
+			this.left = j * step;
+			this.top = i * step;
+			this.step = step;
+		}
+
+		@Override
+		public Ray ray(int x, int y) {
+			samples.increment();
+			return camera.constructRay(nX, nY, (double) (left + x) / step - 0.5, (double) (top + y) / step - 0.5);
+		}
+
+		@Override
+		public Color color(int x, int y, Function<Ray, Color> tracing) {
+			// by the coordinates of the finest lattice, as the levels may change
+			int scale = (1 << camera.getSuperSemplingLevels()) / step;
+			long key = (long) (top + y) * scale << 32 | (left + x) * scale;
+			Color color = colors.get(key);
+			if (color == null) {
+				color = tracing.apply(ray(x, y));
+				colors.put(key, color);
+			}
+			return color;
+		}
+	}
+
+	/**
+	 * Fork/join task rendering a rectangular region of the image. A region larger
+	 * than a tile is split in two halves across its longer side, and the halves
+	 * are forked, so a thread which has finished its regions steals the pending
+	 * halves of the busy threads - expensive areas of the image are shared out
+	 * automatically.
+	 */
+	private class RenderRegion extends RecursiveAction {
+		/** Serialization version */
+		private static final long serialVersionUID = 1L;
+		/** First column and row of the region */
+		private final int col, row;
+		/** Amount of columns and rows in the region */
+		private final int width, height;
+
+		/**
+		 * Constructs a region rendering task
+		 * 
+		 * @param col    first column of the region
+		 * @param row    first row of the region
+		 * @param width  amount of columns in the region
+		 * @param height amount of rows in the region
+		 */
+		RenderRegion(int col, int row, int width, int height) {
+			this.col = col;
+			this.row = row;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		protected void compute() {
+			if (width > tileSize || height > tileSize) {
+				if (width >= height) {
+					int half = width / 2;
+					invokeAll(new RenderRegion(col, row, half, height),
+							new RenderRegion(col + half, row, width - half, height));
+				} else {
+					int half = height / 2;
+					invokeAll(new RenderRegion(col, row, width, half),
+							new RenderRegion(col, row + half, width, height - half));
+				}
+				return;
+			}
+
+			if (!proceed())
+				return;
+			if (latticeColors != null)
+				latticeColors.get().clear();
+			PixelRenderer renderer = pixelRenderer(Rendering.this::renderPixel, false);
+			for (int i = row; i < row + height; ++i)
+				for (int j = col; j < col + width; ++j)
+					renderer.render(j, i);
+			pixelManager.pixelsDone(width * height);
+			fitBudget(width * height);
+			flushIfDue();
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import primitives.Point;
+import primitives.Vector;
+import static primitives.Util.*;
+
+/**
+ * Renderer of animation frame sequences - a camera flying along a path of
+ * keyframes through a scene. All the frames share the ray tracer and the scene
+ * of the given camera, and get its settings (view plane, threading, sampling
+ * and so on); only the position and the direction of the camera change from
+ * frame to frame.
+ * <p>
+ * Each frame is written to its own image file as soon as it is rendered, in a
+ * separate thread, so encoding a frame overlaps rendering the next ones. For
+ * frames too cheap to fill the cores by themselves, several frames may be
+ * rendered at once.
+ */
+public class SequenceRenderer {
+	/**
+	 * A keyframe of the camera path
+	 *
+	 * @param time     the time of the keyframe
+	 * @param position the camera position
+	 * @param vTo      the camera direction
+	 * @param vUp      the camera up direction
+	 */
+	private record Keyframe(double time, Point position, Vector vTo, Vector vUp) {
+	}
+
+	/** The camera the frames are built from */
+	private final Camera camera;
+	/** The keyframes of the camera path, ordered by time */
+	private final List<Keyframe> keyframes = new ArrayList<>();
+	/** The amount of the frames rendered at once */
+	private int parallelFrames = 1;
+
+	/**
+	 * Constructs a sequence renderer of a camera. The image writer of the camera
+	 * gives the resolution of the frames.
+	 *
+	 * @param camera the camera
+	 */
+	public SequenceRenderer(Camera camera) {
+		this.camera = camera;
+	}
+
+	/**
+	 * Adds a keyframe to the camera path. Between the keyframes the position and
+	 * the directions of the camera are interpolated linearly (the directions are
+	 * made orthogonal again), before the first keyframe and after the last one the
+	 * camera stays still.
+	 *
+	 * @param time     the time of the keyframe
+	 * @param position the camera position
+	 * @param vTo      the camera direction
+	 * @param vUp      the camera up direction, orthogonal to vTo
+	 * @return the sequence renderer
+	 * @throws IllegalArgumentException if the directions are not orthogonal, or a
+	 *                                  keyframe of the same time exists
+	 */
+	public SequenceRenderer addKeyframe(double time, Point position, Vector vTo, Vector vUp) {
+		if (!isZero(vTo.dotProduct(vUp)))
+			throw new IllegalArgumentException("Direction vectors must be orthogonal");
+		if (keyframes.stream().anyMatch(keyframe -> keyframe.time() == time))
+			throw new IllegalArgumentException("Keyframe time already exists");
+		keyframes.add(new Keyframe(time, position, vTo.normalize(), vUp.normalize()));
+		keyframes.sort(Comparator.comparingDouble(Keyframe::time));
+		return this;
+	}
+
+	/**
+	 * Sets the amount of the frames rendered at once - for frames too cheap to use
+	 * all the threads of the camera
+	 *
+	 * @param frames the amount of the frames
+	 * @return the sequence renderer
+	 */
+	public SequenceRenderer setParallelFrames(int frames) {
+		if (frames < 1)
+			throw new IllegalArgumentException("Parallel frames must be positive");
+		this.parallelFrames = frames;
+		return this;
+	}
+
+	/**
+	 * Builds the camera of a moment along the path, rendering into the given image
+	 * writer
+	 *
+	 * @param time        the time along the path
+	 * @param imageWriter the image writer of the frame
+	 * @return the camera
+	 * @throws IllegalStateException if the path has no keyframes
+	 */
+	public Camera cameraAt(double time, ImageWriter imageWriter) {
+		if (keyframes.isEmpty())
+			throw new IllegalStateException("Camera path has no keyframes");
+		Keyframe first = keyframes.getFirst(), last = keyframes.getLast();
+		Camera.Builder builder = Camera.getBuilder(camera).setImageWriter(imageWriter);
+		if (time <= first.time())
+			return builder.setLocation(first.position()).setDirection(first.vTo(), first.vUp()).build();
+		if (time >= last.time())
+			return builder.setLocation(last.position()).setDirection(last.vTo(), last.vUp()).build();
+
+		int next = 1;
+		while (keyframes.get(next).time() < time)
+			++next;
+		Keyframe a = keyframes.get(next - 1), b = keyframes.get(next);
+		double t = (time - a.time()) / (b.time() - a.time());
+		Point position = a.position().equals(b.position()) ? a.position()
+				: a.position().add(b.position().subtract(a.position()).scale(t));
+		Vector vTo = lerp(a.vTo(), b.vTo(), t);
+		Vector vUp = lerp(a.vUp(), b.vUp(), t);
+		// Gram-Schmidt - remove the part of vUp along vTo
+		double along = vUp.dotProduct(vTo);
+		if (!isZero(along))
+			vUp = vUp.subtract(vTo.scale(along)).normalize();
+		return builder.setLocation(position).setDirection(vTo, vUp).build();
+	}
+
+	/**
+	 * Interpolates two unit vectors linearly, and normalizes the result
+	 *
+	 * @param a the first vector
+	 * @param b the second vector
+	 * @param t the interpolation parameter, between 0 and 1
+	 * @return the interpolated unit vector
+	 * @throws IllegalArgumentException if the vectors are opposite at the
+	 *                                  midpoint
+	 */
+	private static Vector lerp(Vector a, Vector b, double t) {
+		if (isZero(t))
+			return a;
+		if (isZero(t - 1))
+			return b;
+		return a.scale(1 - t).add(b.scale(t)).normalize();
+	}
+
+	/**
+	 * Renders a frame sequence evenly spread over the path, from the first
+	 * keyframe to the last one, and writes each frame to the image file of its
+	 * name followed by the frame number ({@code name_0000.png} and so on). Returns
+	 * after all the frames are written. If the calling thread is interrupted, the
+	 * rendering is cancelled and the thread interrupt status is kept.
+	 *
+	 * @param name   the name of the sequence
+	 * @param frames the amount of the frames
+	 * @throws IllegalArgumentException if there are no frames
+	 * @throws IllegalStateException    if the path has no keyframes
+	 */
+	public void render(String name, int frames) {
+		if (frames < 1)
+			throw new IllegalArgumentException("Frames amount must be positive");
+		if (keyframes.isEmpty())
+			throw new IllegalStateException("Camera path has no keyframes");
+		double start = keyframes.getFirst().time(), end = keyframes.getLast().time();
+		int nX = camera.getImageWriter().getNx(), nY = camera.getImageWriter().getNy();
+
+		ExecutorService renderers = Executors.newFixedThreadPool(parallelFrames);
+		ExecutorService encoder = Executors.newSingleThreadExecutor();
+		// the frames in work - rendered or waiting for encoding - keep their images
+		Semaphore inWork = new Semaphore(parallelFrames + 1);
+		List<CompletableFuture<Void>> written = new ArrayList<>(frames);
+		try {
+			for (int frame = 0; frame < frames; ++frame) {
+				inWork.acquire();
+				double time = frames == 1 ? start : start + (end - start) * frame / (frames - 1);
+				ImageWriter imageWriter = new ImageWriter(String.format("%s_%04d", name, frame), nX, nY);
+				Camera frameCamera = cameraAt(time, imageWriter);
+				written.add(CompletableFuture.runAsync(frameCamera::renderImage, renderers)
+						.thenRunAsync(imageWriter::writeToImage, encoder)
+						.whenComplete((result, error) -> inWork.release()));
+			}
+			for (var frame : written)
+				frame.get();
+		} catch (InterruptedException e) {
+			written.forEach(frame -> frame.cancel(true));
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			written.forEach(frame -> frame.cancel(true));
+			if (e.getCause() instanceof RuntimeException cause)
+				throw cause;
+			if (e.getCause() instanceof Error cause)
+				throw cause;
+			throw new IllegalStateException("Frame rendering failed", e.getCause());
+		} finally {
+			renderers.shutdownNow();
+			encoder.shutdownNow();
+		}
+	}
+}
@@ -3,10 +3,14 @@ package renderer;
 import primitives.Ray;
 import scene.Scene;
 import primitives.Color;
+import primitives.ColorAccumulator;
 import primitives.Double3;
 import primitives.Material;
+import primitives.Point;
+import primitives.SampleRandom;
 import geometries.Intersectable.GeoPoint;
 import lighting.LightSource;
+import primitives.Vec3;
 import primitives.Vector;
 import static primitives.Util.alignZero;
 import static java.lang.Math.*;
@@ -18,20 +22,21 @@ import java.util.List;
  * This class extends the {@link RayTracerBase} abstract base class.
  */
 public class SimpleRayTracer extends RayTracerBase {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/**
-	 * Maximum recursion level for calculating colors considering transparency or
-	 * reflection. This constant defines the depth limit to prevent excessive
-	 * recursion. Adjust this value based on scene complexity and performance
-	 * considerations.
+	 * Default maximum recursion level for calculating colors considering
+	 * transparency or reflection. This constant defines the depth limit to prevent
+	 * excessive recursion.
 	 */
 	private static final int MAX_CALC_COLOR_LEVEL = 10;
 
 	/**
-	 * Minimum threshold value for the accumulated coefficient of transparency or
-	 * reflection. If the accumulated coefficient falls below this threshold,
-	 * recursion for transparency or reflection terminates to avoid negligible
-	 * contributions to the final color. Adjust this value based on scene specifics
-	 * and desired precision.
+	 * Default minimum threshold value for the accumulated coefficient of
+	 * transparency or reflection. If all the channels of the accumulated
+	 * coefficient fall below this threshold, recursion for transparency or
+	 * reflection terminates to avoid negligible contributions to the final color.
 	 */
 	private static final double MIN_CALC_COLOR_K = 0.001;
 
@@ -42,6 +47,30 @@ public class SimpleRayTracer extends RayTracerBase {
 	 */
 	private static final Double3 INITIAL_K = Double3.ONE;
 
+	/**
+	 * The amount of samples from which the samples of a pixel are summed with
+	 * compensation of the rounding errors.
+	 */
+	private static final int COMPENSATED_SAMPLES = 64;
+
+	/** The maximum recursion level of the ray budget */
+	private int maxLevel = MAX_CALC_COLOR_LEVEL;
+
+	/** The least accumulated coefficient of the ray budget */
+	private double minK = MIN_CALC_COLOR_K;
+
+	/**
+	 * Whether the accumulated coefficient is measured by its luminance (a ray
+	 * budget is configured), rather than channel by channel
+	 */
+	private boolean luminanceBudget = false;
+
+	/**
+	 * The luminance of the accumulated coefficient below which Russian roulette
+	 * decides whether the recursion goes on, 0 for no Russian roulette
+	 */
+	private double rouletteK = 0;
+
 	/**
 	 * Constructs a new SimpleRayTracer with the specified scene.
 	 *
@@ -51,28 +80,86 @@ public class SimpleRayTracer extends RayTracerBase {
 		super(scene);
 	}
 
+	/**
+	 * Sets the maximum recursion level of the reflected and refracted rays
+	 *
+	 * @param maxLevel the maximum level, 1 for no reflected and refracted rays
+	 * @return the ray tracer
+	 */
+	public SimpleRayTracer setMaxLevel(int maxLevel) {
+		if (maxLevel < 1)
+			throw new IllegalArgumentException("Maximum recursion level must be positive");
+		this.maxLevel = maxLevel;
+		return this;
+	}
+
+	/**
+	 * Sets the least contribution of a reflected or refracted ray - the recursion
+	 * stops when the luminance of the accumulated coefficient of transparency or
+	 * reflection falls below it, and so does the lighting through transparent
+	 * occluders. Without a ray budget the recursion stops when every channel of
+	 * the coefficient falls below {@value #MIN_CALC_COLOR_K}.
+	 *
+	 * @param minK the least luminance of the accumulated coefficient
+	 * @return the ray tracer
+	 */
+	public SimpleRayTracer setMinContribution(double minK) {
+		if (minK < 0 || minK >= 1)
+			throw new IllegalArgumentException("Minimum contribution must be between 0 and 1");
+		this.minK = minK;
+		this.luminanceBudget = true;
+		return this;
+	}
+
+	/**
+	 * Sets Russian roulette termination of the recursion. A reflected or refracted
+	 * ray whose accumulated coefficient has a luminance below the threshold is
+	 * traced with a probability of the luminance over the threshold, and its color
+	 * is divided by the probability, so the expected color is kept (the least
+	 * contribution still cuts the recursion). The decisions are drawn by hashing
+	 * the hit point, so a rendering is reproducible. Russian roulette measures the
+	 * coefficient by its luminance, as {@link #setMinContribution(double)}.
+	 *
+	 * @param threshold the luminance threshold, 0 for no Russian roulette
+	 * @return the ray tracer
+	 */
+	public SimpleRayTracer setRussianRoulette(double threshold) {
+		if (threshold < 0 || threshold > 1)
+			throw new IllegalArgumentException("Russian roulette threshold must be between 0 and 1");
+		this.rouletteK = threshold;
+		this.luminanceBudget = true;
+		return this;
+	}
+
 	@Override
 	public Color traceRay(Ray ray) {
 		GeoPoint closestPoint = findClosestIntersection(ray);
 		return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
 	}
 
+	@Override
+	public TracedRay traceRayAndDistance(Ray ray) {
+		GeoPoint closestPoint = findClosestIntersection(ray);
+		return closestPoint == null ? new TracedRay(scene.background, Double.POSITIVE_INFINITY)
+				: new TracedRay(calcColor(closestPoint, ray), closestPoint.point.distance(ray.getHead()));
+	}
+
 	@Override
 	public Color traceRays(List<Ray> rays) {
-		Color currentPixelColor = Color.BLACK;
+		ColorAccumulator currentPixelColor = new ColorAccumulator(rays.size() >= COMPENSATED_SAMPLES);
 		for (Ray ray : rays)
-			currentPixelColor = currentPixelColor.add(traceRay(ray));
-		return currentPixelColor.reduce(rays.size());
+			currentPixelColor.add(traceRay(ray));
+		return currentPixelColor.average();
 	}
 
 ///minip1
 	@Override
 	public Color computeFinalColor(List<Ray> rays) {
-		Color finalColor = Color.BLACK;
+		ColorAccumulator finalColor = new ColorAccumulator(rays.size() >= COMPENSATED_SAMPLES);
 		for (Ray ray : rays) {
-			finalColor = finalColor.add(traceRay(ray));
+			finalColor.add(traceRay(ray));
 		}
-		return finalColor.reduce(rays.size());
+		return finalColor.average();
 	}
 
 	/**
@@ -88,7 +175,7 @@ public class SimpleRayTracer extends RayTracerBase {
 	 *         reflections), and recursive effects of transparency or reflection.
 	 */
 	private Color calcColor(GeoPoint gp, Ray ray) {
-		return calcColor(gp, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).add(scene.ambientLight.getIntensity());
+		return calcColor(gp, ray, maxLevel, INITIAL_K).add(scene.ambientLight.getIntensity());
 	}
 
 	/**
@@ -127,7 +214,7 @@ public class SimpleRayTracer extends RayTracerBase {
 		if (nv == 0)
 			return null;
 
-		Vector vec = v.subtract(n.scale(2 * nv));
+		Vector vec = Vec3.register(0).set(v).addScaled(n, -2 * nv).toVector();
 		return new Ray(gp.point, vec, n);
 	}
 
@@ -147,7 +234,8 @@ public class SimpleRayTracer extends RayTracerBase {
 
 	/**
 	 * Calculates the combined global effects (such as reflection and refraction) at
-	 * a given geometric point using recursive ray tracing.
+	 * a given geometric point using recursive ray tracing. The reflected and the
+	 * refracted rays are constructed only if they can contribute.
 	 *
 	 * @param gp    The geometric point at which to calculate global effects.
 	 * @param ray   The view direction vector.
@@ -160,35 +248,90 @@ public class SimpleRayTracer extends RayTracerBase {
 	 */
 	private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k) {
 		Material material = gp.geometry.getMaterial();
+		double survivalT = survival(gp.point, k.product(material.kT), 0);
+		double survivalR = survival(gp.point, k.product(material.kR), 1);
+		if (survivalT == 0 && survivalR == 0)
+			return Color.BLACK;
+
 		Vector v = ray.getDirection();
 		Vector n = gp.geometry.getNormal(gp.point);
-		return calcGlobalEffect(constructRefractedRay(gp, v, n), material.kT, level, k)
-				.add(calcGlobalEffect(constructReflectedRay(gp, v, n), material.kR, level, k));
+		Color color = Color.BLACK;
+		if (survivalT != 0)
+			color = color.add(calcGlobalEffect(constructRefractedRay(gp, v, n), material.kT, survivalT, level, k));
+		if (survivalR != 0)
+			color = color.add(calcGlobalEffect(constructReflectedRay(gp, v, n), material.kR, survivalR, level, k));
+		return color;
+	}
+
+	/**
+	 * Checks whether an accumulated coefficient is too small to contribute - by
+	 * its luminance with a ray budget, otherwise by each of its channels
+	 *
+	 * @param k the accumulated coefficient
+	 * @return true if the coefficient is negligible
+	 */
+	private boolean negligible(Double3 k) {
+		return luminanceBudget ? luminance(k) < minK : k.lowerThan(minK);
+	}
+
+	/**
+	 * Returns the luminance of a coefficient
+	 *
+	 * @param k the coefficient
+	 * @return the luminance
+	 */
+	private static double luminance(Double3 k) {
+		return Color.luminance(k.d1, k.d2, k.d3);
+	}
+
+	/**
+	 * Decides whether a reflected or refracted ray is traced by its accumulated
+	 * coefficient - it is not traced if the coefficient is negligible, and it is
+	 * traced by Russian roulette if the luminance of the coefficient is below the
+	 * roulette threshold
+	 *
+	 * @param point  the point the ray starts at
+	 * @param kkx    the accumulated coefficient of the ray
+	 * @param effect the number of the effect (0 for refraction, 1 for reflection)
+	 * @return the probability the ray is traced by, or 0 if it is not traced
+	 */
+	private double survival(Point point, Double3 kkx, int effect) {
+		double luminance = luminance(kkx);
+		if (negligible(kkx) || luminance == 0)
+			return 0; // no contribution if the combined coefficient is too small
+		if (luminance >= rouletteK)
+			return 1;
+		double survival = luminance / rouletteK;
+		Double3 xyz = point.xyz;
+		long position = Double.doubleToLongBits(xyz.d2) ^ Long.rotateLeft(Double.doubleToLongBits(xyz.d3), 32);
+		return SampleRandom.random(Double.doubleToLongBits(xyz.d1), position, 0, effect) < survival ? survival : 0;
 	}
 
 	/**
 	 * Calculates the global effect (reflection or refraction) for a given ray and
 	 * coefficient.
 	 *
-	 * @param ray   The ray to trace for the global effect.
-	 * @param kx    The coefficient for the specific effect being calculated (kR for
-	 *              reflection, kT for refraction).
-	 * @param level The current recursion level for handling transparency or
-	 *              reflection effects.
-	 * @param k     The accumulated coefficient (e.g., reflection coefficient kR or
-	 *              transparency coefficient kT).
+	 * @param ray      The ray to trace for the global effect.
+	 * @param kx       The coefficient for the specific effect being calculated (kR
+	 *                 for reflection, kT for refraction).
+	 * @param survival The probability the ray is traced by (by Russian roulette),
+	 *                 which the color of its hit is divided by; a ray which hits
+	 *                 nothing gives the background as it is
+	 * @param level    The current recursion level for handling transparency or
+	 *                 reflection effects.
+	 * @param k        The accumulated coefficient (e.g., reflection coefficient kR
+	 *                 or transparency coefficient kT).
 	 * @return The calculated color representing the global effect for the given ray
 	 *         and coefficient.
 	 */
-	private Color calcGlobalEffect(Ray ray, Double3 kx, int level, Double3 k) {
-		Double3 kkx = k.product(kx);
-		if (kkx.lowerThan(MIN_CALC_COLOR_K))
-			return Color.BLACK; // Return no contribution if the combined coefficient is too small
-
+	private Color calcGlobalEffect(Ray ray, Double3 kx, double survival, int level, Double3 k) {
+		if (ray == null)
+			return Color.BLACK; // a grazing ray has no reflection
+		Double3 kkx = survival == 1 ? k.product(kx) : k.product(kx).scale(1 / survival);
 		GeoPoint gp = findClosestIntersection(ray);
 		return gp == null ? scene.background // If no intersection found, return background color
 				// Recursively calculate color with scaled coefficient
-				: calcColor(gp, ray, level - 1, kkx).scale(kx);
+				: calcColor(gp, ray, level - 1, kkx).scale(survival == 1 ? kx : kx.scale(1 / survival));
 	}
 
 	/**
@@ -200,7 +343,10 @@ public class SimpleRayTracer extends RayTracerBase {
 	 *         geometries, or null if no intersections are found.
 	 */
 	private GeoPoint findClosestIntersection(Ray ray) {
-		return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+		GeoPoint closest = ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+		if (closest != null)
+			hit(closest.geometry);
+		return closest;
 	}
 
 	/**
@@ -226,12 +372,19 @@ public class SimpleRayTracer extends RayTracerBase {
 		Material material = gp.geometry.getMaterial();
 		for (LightSource lightSource : scene.lights) {
 			Vector l = lightSource.getL(gp.point);
+			if (l == null)
+				continue; // the point is at the light source position
 			double nl = alignZero(n.dotProduct(l));
 			if (nl * nv > 0) {
 				Double3 ktr = transparency(gp, lightSource, l, n);
-				if (ktr.product(k).greaterThan(MIN_CALC_COLOR_K)) {
+				if (!negligible(ktr.product(k))) {
 					Color iL = lightSource.getIntensity(gp.point).scale(ktr);
-					color = color.add(iL.scale(calcDiffusive(material, nl).add(calcSpecular(material, n, l, nl, v))));
+					// combine the diffusive and the specular factors per channel at once
+					double diffusive = calcDiffusive(nl);
+					double specular = calcSpecular(material, nl, nv, v.dotProduct(l));
+					Double3 kD = material.kD, kS = material.kS;
+					color = color.add(iL.scale(new Double3(kD.d1 * diffusive + kS.d1 * specular,
+							kD.d2 * diffusive + kS.d2 * specular, kD.d3 * diffusive + kS.d3 * specular)));
 				}
 			}
 		}
@@ -261,6 +414,7 @@ public class SimpleRayTracer extends RayTracerBase {
 		double distanceToLight = ls.getDistance(gp.point);
 		for (GeoPoint intersectionPoint : intersections) {
 			if (alignZero(intersectionPoint.point.distance(gp.point) - distanceToLight) <= 0) {
+				hit(intersectionPoint.geometry); // a shadow changes with the occluder
 				ktr = ktr.product(intersectionPoint.geometry.getMaterial().kT);
 				if (ktr.equals(Double3.ZERO))
 					break;
@@ -270,124 +424,115 @@ public class SimpleRayTracer extends RayTracerBase {
 	}
 
 	/**
-	 * Calculates the diffuse reflection component based on the material properties
-	 * and the cosine of the angle between the normal vector and the light direction
-	 * vector.
+	 * Calculates the diffuse reflection factor - the cosine of the angle between
+	 * the normal vector and the light direction vector. It is to be multiplied by
+	 * the kD of the material.
 	 *
-	 * @param material The material of the geometry.
-	 * @param nl       The dot product of the normal vector and the light direction
-	 *                 vector.
-	 * @return The diffuse reflection color component.
+	 * @param nl The dot product of the normal vector and the light direction
+	 *           vector.
+	 * @return The diffuse reflection factor.
 	 */
-	private Double3 calcDiffusive(Material material, double nl) {
-		return material.kD.scale(abs(nl));
+	private double calcDiffusive(double nl) {
+		return abs(nl);
 	}
 
 	/**
-	 * Calculates the specular reflection component based on the material
-	 * properties, the normal vector, light direction vector, view direction vector,
-	 * and the cosine of the angle between the view direction and the reflection
-	 * direction.
+	 * Calculates the specular reflection factor based on the cosine of the angle
+	 * between the view direction and the reflection direction. It is to be
+	 * multiplied by the kS of the material. The reflection direction
+	 * r = l - 2(n*l)n is not constructed: v*r = v*l - 2(n*l)(n*v).
 	 *
 	 * @param material The material of the geometry.
-	 * @param n        The normal vector at the geometric point.
-	 * @param l        The direction vector from the point to the light source.
 	 * @param nl       The dot product of the normal vector and the light direction
 	 *                 vector.
-	 * @param v        The view direction vector.
-	 * @return The specular reflection color component.
+	 * @param nv       The dot product of the normal vector and the view direction
+	 *                 vector.
+	 * @param vl       The dot product of the view direction vector and the light
+	 *                 direction vector.
+	 * @return The specular reflection factor.
 	 */
-	private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-		Vector reflectVector = l.subtract(n.scale(nl * 2));
-		double minusVR = -alignZero(v.dotProduct(reflectVector));
-		return minusVR <= 0 ? Double3.ZERO : material.kS.scale(pow(minusVR, material.shininess));
+	private double calcSpecular(Material material, double nl, double nv, double vl) {
+		double minusVR = -alignZero(vl - 2 * nl * nv);
+		return minusVR <= 0 ? 0 : pow(minusVR, material.shininess);
 	}
 
 	@Override
 	public Color adaptiveTraceRays(List<Ray> rays) {
-		//the equality color of the pixel
-
-		int numOfSampleRays = (int) sqrt(rays.size());
-		int topRightIndex = (numOfSampleRays - 1) * numOfSampleRays + (numOfSampleRays - 1);
-		int topLeftIndex = (numOfSampleRays - 1) * numOfSampleRays;
-		int bottomLeftIndex = 0;
-		int bottomRightIndex = (numOfSampleRays - 1);
+		int size = (int) sqrt(rays.size());
+		return adaptiveTraceRays((x, y) -> rays.get(y * size + x), size, ADAPTIVE_THRESHOLD);
+	}
 
-		return adaptiveSuperSampling(rays, 3, topRightIndex, topLeftIndex, bottomLeftIndex, bottomRightIndex,
-				numOfSampleRays);
+	@Override
+	public Color adaptiveTraceRays(RayLattice lattice, int size, double threshold) {
+		if (size < 2 || Integer.bitCount(size - 1) != 1)
+			throw new IllegalArgumentException("Lattice size must be a power of 2 plus 1");
+		int last = size - 1;
+		return adaptiveSuperSampling(lattice, threshold, 0, 0, last, lattice.color(0, 0, this::traceRay),
+				lattice.color(last, 0, this::traceRay), lattice.color(0, last, this::traceRay),
+				lattice.color(last, last, this::traceRay));
 	}
 
 	/**
-	 * Performs adaptive supersampling to compute the color of a pixel based on
-	 * rays. This method calculates the color of a pixel using a set of rays,
-	 * performing recursive adaptive supersampling to refine the color calculation
-	 * based on differences between the center and corner rays.
+	 * Performs adaptive supersampling of a square cell of the lattice, whose
+	 * corner colors are already traced. If the corner colors are perceived the
+	 * same, the cell color is their average. Otherwise the cell is divided into
+	 * four quarters - the center and the midpoints of the sides are traced, and
+	 * each quarter is sampled recursively with the colors it shares with the
+	 * others - until the cells are one lattice step wide. The colors of the points
+	 * are taken from the lattice, so a point shared with a neighboring cell or
+	 * pixel is not traced again by a lattice which keeps the colors.
 	 *
-	 * @param rays             List of rays used for sampling the pixel.
-	 * @param levelOfAdaptive  The current level of adaptive sampling.
-	 * @param topRightIndex    The index of the top-right corner ray.
-	 * @param topLeftIndex     The index of the top-left corner ray.
-	 * @param bottomLeftIndex  The index of the bottom-left corner ray.
-	 * @param bottomRightIndex The index of the bottom-right corner ray.
-	 * @param numOfSampleRays  The number of rays used for sampling.
-	 * @return The computed color for the pixel.
+	 * @param lattice   the ray lattice
+	 * @param threshold the perceptual threshold of the color difference
+	 * @param x         the column of the top left corner of the cell
+	 * @param y         the row of the top left corner of the cell
+	 * @param span      the width and height of the cell in lattice steps
+	 * @param c00       the color of the top left corner
+	 * @param c10       the color of the top right corner
+	 * @param c01       the color of the bottom left corner
+	 * @param c11       the color of the bottom right corner
+	 * @return the computed color of the cell
 	 */
-	public Color adaptiveSuperSampling(List<Ray> rays, int levelOfAdaptive, int topRightIndex, int topLeftIndex,
-			int bottomLeftIndex, int bottomRightIndex, int numOfSampleRays) {
-		//the color of the pixel
-		int numOfAdaptiveRays = 5;
-
-		Ray centerRay = rays.get(rays.size() - 1);
-		Color centerColor = traceRay(centerRay);
-		Ray topRightCorner = rays.get(topRightIndex);
-		Color topRightColor = traceRay(topRightCorner);
-		Ray topLeftCorner = rays.get(topLeftIndex);
-		Color topLeftColor = traceRay(topLeftCorner);
-		Ray bottomLeftCorner = rays.get(bottomLeftIndex);
-		Color bottomLeftColor = traceRay(bottomLeftCorner);
-		Ray bottomRightCorner = rays.get(bottomRightIndex);
-		Color bottomRightColor = traceRay(bottomRightCorner);
-
-		if (levelOfAdaptive == 0) {
-			// Calculate the average color of the corners and the center
-			centerColor = centerColor.add(topRightColor, topLeftColor, bottomLeftColor, bottomRightColor);
-			return centerColor.reduce(numOfAdaptiveRays);
-		}
+	private Color adaptiveSuperSampling(RayLattice lattice, double threshold, int x, int y, int span, Color c00,
+			Color c10, Color c01, Color c11) {
+		if (span == 1 || perceivedSame(threshold, c00, c10, c01, c11))
+			return new ColorAccumulator().add(c00).add(c10).add(c01).add(c11).average();
+
+		int half = span / 2;
+		Color center = lattice.color(x + half, y + half, this::traceRay);
+		Color top = lattice.color(x + half, y, this::traceRay);
+		Color left = lattice.color(x, y + half, this::traceRay);
+		Color right = lattice.color(x + span, y + half, this::traceRay);
+		Color bottom = lattice.color(x + half, y + span, this::traceRay);
+		return new ColorAccumulator() //
+				.add(adaptiveSuperSampling(lattice, threshold, x, y, half, c00, top, left, center))
+				.add(adaptiveSuperSampling(lattice, threshold, x + half, y, half, top, c10, center, right))
+				.add(adaptiveSuperSampling(lattice, threshold, x, y + half, half, left, center, c01, bottom))
+				.add(adaptiveSuperSampling(lattice, threshold, x + half, y + half, half, center, right, bottom, c11))
+				.average();
+	}
 
-		// If the corner color is the same as the center color, returns the center color
-		if (topRightColor.equals(centerColor) && topLeftColor.equals(centerColor) && bottomLeftColor.equals(centerColor)
-				&& bottomRightColor.equals(centerColor)) {
-			return centerColor;
-		} else {
-			// for each color that is different from the center, the recursion goes down to
-			// the depth of the pixel and sums up
-			// the colors until it gets the same color as the center color,
-			if (!topRightColor.equals(centerColor)) {
-				Color color = adaptiveSuperSampling(rays, levelOfAdaptive - 1, topRightIndex - (numOfSampleRays + 1),
-						topLeftIndex, bottomLeftIndex, bottomRightIndex, numOfSampleRays);
-				topRightColor = topRightColor.add(color).reduce(2);
-			}
-			if (!topLeftColor.equals(centerColor)) {
-				Color color = adaptiveSuperSampling(rays, levelOfAdaptive - 1, topRightIndex,
-						topLeftIndex - (numOfSampleRays - 1), bottomLeftIndex, bottomRightIndex, numOfSampleRays);
-				topLeftColor = topLeftColor.add(color).reduce(2);
-			}
-			if (!bottomLeftColor.equals(centerColor)) {
-				Color color = adaptiveSuperSampling(rays, levelOfAdaptive - 1, topRightIndex, topLeftIndex,
-						bottomLeftIndex + (numOfSampleRays + 1), bottomRightIndex, numOfSampleRays);
-				bottomLeftColor = bottomLeftColor.add(color).reduce(2);
-			}
-			if (!bottomRightColor.equals(centerColor)) {
-				Color color = adaptiveSuperSampling(rays, levelOfAdaptive - 1, topRightIndex, topLeftIndex,
-						bottomLeftIndex, bottomRightIndex + (numOfSampleRays - 1), numOfSampleRays);
-				// bottomRightColor = bottomRightColor.add();
-				bottomRightColor = bottomRightColor.add(color).reduce(2);
+	/**
+	 * Checks whether colors are perceived the same - every two of them differ by
+	 * no more than the threshold. The difference is the sum of the differences of
+	 * the channels weighted by their share in the luminance (so green differences
+	 * count most and blue ones least), after saturating the channels at the
+	 * displayable maximum.
+	 *
+	 * @param threshold the perceptual threshold, in 8-bit levels
+	 * @param colors    the colors
+	 * @return true if the colors are perceived the same
+	 */
+	private static boolean perceivedSame(double threshold, Color... colors) {
+		for (int a = 0; a < colors.length; ++a)
+			for (int b = a + 1; b < colors.length; ++b) {
+				Double3 x = colors[a].getRgb(), y = colors[b].getRgb();
+				double difference = Color.luminance(abs(min(x.d1, 255) - min(y.d1, 255)),
+						abs(min(x.d2, 255) - min(y.d2, 255)), abs(min(x.d3, 255) - min(y.d3, 255)));
+				if (difference > threshold)
+					return false;
 			}
-
-			// Calculate and return the average color
-			centerColor = centerColor.add(topRightColor, topLeftColor, bottomLeftColor, bottomRightColor);
-			return centerColor.reduce(numOfAdaptiveRays);
-		}
+		return true;
 	}
 
-}
\ No newline at end of file
+}
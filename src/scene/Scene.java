@@ -5,13 +5,17 @@ import lighting.AmbientLight;
 import geometries.Geometries;
 import lighting.LightSource;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * A class representing a scene.
  */
-public class Scene {
+public class Scene implements Serializable {
+	/** Serialization version */
+	private static final long serialVersionUID = 1L;
+
 	/** The name of the scene */
 	public final String name;
 
@@ -25,7 +29,7 @@ public class Scene {
 	public Geometries geometries = new Geometries();
 
 	/** The lights in the scene */
-	public List<LightSource> lights = new LinkedList<>();
+	public LinkedList<LightSource> lights = new LinkedList<>();
 
 	/**
 	 * Constructs a Scene object with the given name.
@@ -72,11 +76,11 @@ public class Scene {
 	/**
 	 * Updates the lights in the scene.
 	 *
-	 * @param lights The new list of lights.
+	 * @param lights The new list of lights, copied into the scene.
 	 * @return This Scene object.
 	 */
 	public Scene setLights(List<LightSource> lights) {
-		this.lights = lights;
+		this.lights = new LinkedList<>(lights);
 		return this;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package test;
+
+import java.lang.management.ManagementFactory;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+/**
+ * Benchmark program measuring the heap allocation of the rendering core paths
+ * per pixel - the ray construction alone and the whole ray tracing of a small
+ * scene with reflection, transparency and shadows. Each measure is repeated
+ * after a warm-up, so the JIT compiler has already optimized the code.
+ * <p>
+ * The allocation is read from the HotSpot thread allocation counter, so the
+ * program needs a HotSpot based JVM. It is a plain program rather than a JMH
+ * benchmark, since the project has no benchmark harness dependency; its timing
+ * is indicative only, the allocation counts are exact.
+ */
+public final class AllocationBenchmark {
+	/** Image width and height in pixels */
+	private static final int SIZE = 200;
+	/** The amount of warm-up rounds before the measured one */
+	private static final int WARM_UP = 10;
+
+	/** Sink of the measured results, so the JIT compiler does not eliminate them */
+	private static Object sink;
+
+	/** The thread management bean with the allocation counters */
+	private static final com.sun.management.ThreadMXBean THREADS = //
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/** Private constructor - the class has only the main program */
+	private AllocationBenchmark() {
+	}
+
+	/**
+	 * Main program of the benchmark
+	 *
+	 * @param args irrelevant here
+	 */
+	public static void main(String[] args) {
+		Scene scene = new Scene("Allocation benchmark");
+		scene.geometries.add(
+				new Sphere(new Point(0, 0, -50), 50d).setEmission(new Color(0, 0, 100))
+						.setMaterial(new Material().setKD(0.4).setKS(0.3).setShininess(100).setKT(0.3)),
+				new Sphere(new Point(0, 0, -50), 25d).setEmission(new Color(100, 0, 0))
+						.setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(100)),
+				new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150))
+						.setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(60).setKR(0.3)));
+		scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+		scene.lights.add(new PointLight(new Color(700, 400, 400), new Point(60, 50, 0)).setKL(0.0004).setKQ(0.0000006));
+
+		SimpleRayTracer tracer = new SimpleRayTracer(scene);
+		Camera camera = Camera.getBuilder().setLocation(new Point(0, 0, 1000))
+				.setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpDistance(1000).setVpSize(200, 200)
+				.setImageWriter(new ImageWriter("allocationBenchmark", SIZE, SIZE)).setRayTracer(tracer).build();
+
+		report("Ray construction", () -> {
+			for (int i = 0; i < SIZE; ++i)
+				for (int j = 0; j < SIZE; ++j)
+					sink = camera.constructRay(SIZE, SIZE, j, i);
+		});
+		report("Ray tracing", () -> {
+			for (int i = 0; i < SIZE; ++i)
+				for (int j = 0; j < SIZE; ++j)
+					sink = tracer.traceRay(camera.constructRay(SIZE, SIZE, j, i));
+		});
+	}
+
+	/**
+	 * Runs a measure over all the image pixels and prints the bytes allocated per
+	 * pixel and the time per pixel of its last round
+	 *
+	 * @param name    the name of the measure
+	 * @param measure the measure for all the pixels
+	 */
+	private static void report(String name, Runnable measure) {
+		for (int round = 0; round < WARM_UP; ++round)
+			measure.run();
+		long thread = Thread.currentThread().threadId();
+		long bytes = THREADS.getThreadAllocatedBytes(thread);
+		long time = System.nanoTime();
+		measure.run();
+		time = System.nanoTime() - time;
+		bytes = THREADS.getThreadAllocatedBytes(thread) - bytes;
+		double pixels = SIZE * SIZE;
+		System.out.printf("%-20s %10.1f bytes/pixel %10.1f ns/pixel%n", name, bytes / pixels, time / pixels);
+	}
+}
@@ -0,0 +1,88 @@
+package test;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+/**
+ * Benchmark program comparing the scaling of the multi-threaded rendering
+ * modes - threads taking tiles one by one and fork/join work stealing - from a
+ * single thread up to all the cores. The scene has a mirror at one side only,
+ * so the cost of the pixels is uneven across the image.
+ */
+public final class ScalingBenchmark {
+	/** Image width and height in pixels */
+	private static final int SIZE = 400;
+	/** The amount of measured renders per configuration, the best one counts */
+	private static final int ROUNDS = 3;
+
+	/** Private constructor - the class has only the main program */
+	private ScalingBenchmark() {
+	}
+
+	/**
+	 * Main program of the benchmark
+	 *
+	 * @param args optional maximal amount of threads, all the cores by default
+	 */
+	public static void main(String[] args) {
+		Scene scene = new Scene("Scaling benchmark");
+		scene.geometries.add(
+				new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100)).setMaterial(
+						new Material().setKD(0.25).setKS(0.25).setShininess(20).setKT(new Double3(0.5, 0, 0))),
+				new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20))
+						.setMaterial(new Material().setKD(0.25).setKS(0.25).setShininess(20)),
+				new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500), new Point(670, 670, 3000))
+						.setEmission(new Color(20, 20, 20)).setMaterial(new Material().setKR(1)),
+				new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+						new Point(-1500, -1500, -2000)).setEmission(new Color(20, 20, 20))
+						.setMaterial(new Material().setKR(new Double3(0.5, 0, 0.4))));
+		scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+		scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+				.setKL(0.00001).setKQ(0.000005));
+
+		Camera.Builder builder = Camera.getBuilder().setLocation(new Point(0, 0, 10000))
+				.setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpDistance(10000).setVpSize(2500, 2500)
+				.setImageWriter(new ImageWriter("scalingBenchmark", SIZE, SIZE))
+				.setRayTracer(new SimpleRayTracer(scene));
+
+		// warm up the JIT compiler
+		render(builder.setMultiThreading(0).build());
+
+		int cores = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		double threadsBase = 0, forkJoinBase = 0;
+		System.out.printf("%7s %12s %8s %12s %8s%n", "threads", "tiles ms", "speedup", "fork/join ms", "speedup");
+		for (int threads = 1; threads <= cores; threads = threads < cores && threads * 2 > cores ? cores : threads * 2) {
+			double tiles = render(builder.setMultiThreading(threads).setForkJoin(false).build());
+			double forkJoin = render(builder.setMultiThreading(threads).setForkJoin(true).build());
+			if (threads == 1) {
+				threadsBase = tiles;
+				forkJoinBase = forkJoin;
+			}
+			System.out.printf("%7d %12.1f %8.2f %12.1f %8.2f%n", threads, tiles, threadsBase / tiles, forkJoin,
+					forkJoinBase / forkJoin);
+		}
+	}
+
+	/**
+	 * Renders the image several times and returns the best time
+	 *
+	 * @param camera the camera to render with
+	 * @return the best rendering time in milliseconds
+	 */
+	private static double render(Camera camera) {
+		double best = Double.POSITIVE_INFINITY;
+		for (int round = 0; round < ROUNDS; ++round) {
+			long time = System.nanoTime();
+			camera.renderImage();
+			best = Math.min(best, (System.nanoTime() - time) / 1e6);
+		}
+		return best;
+	}
+}
@@ -0,0 +1,367 @@
+package unittests.geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Mesh;
+import geometries.Mesh.Storage;
+import lighting.DirectionalLight;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+/**
+ * Unit tests for geometries.Mesh class
+ */
+class MeshTests {
+	/**
+	 * A small constant representing the precision for floating-point comparison.
+	 */
+	private static final double DELTA = 0.000001;
+
+	/** The vertices of a unit square pyramid with the apex at (0,0,1) */
+	private static final Point[] PYRAMID = { new Point(-1, -1, 0), new Point(1, -1, 0), new Point(1, 1, 0),
+			new Point(-1, 1, 0), new Point(0, 0, 1) };
+	/** The triangles of the pyramid - four sides and the base */
+	private static final int[] PYRAMID_FACES = { 0, 1, 4, 1, 2, 4, 2, 3, 4, 3, 0, 4, 0, 2, 1, 0, 3, 2 };
+
+	/**
+	 * Builds the vertices of a wavy grid.
+	 *
+	 * @param n the amount of grid cells in each direction
+	 * @return the vertices
+	 */
+	private static Point[] waveVertices(int n) {
+		Point[] vertices = new Point[(n + 1) * (n + 1)];
+		for (int i = 0; i <= n; ++i)
+			for (int j = 0; j <= n; ++j)
+				vertices[i * (n + 1) + j] = new Point(j * 10.1 - n * 5, i * 10.1 - n * 5,
+						Math.sin(i * 0.7) * Math.cos(j * 0.3) * 20 - 100);
+		return vertices;
+	}
+
+	/**
+	 * Builds the triangles of a wavy grid, two per grid cell.
+	 *
+	 * @param n the amount of grid cells in each direction
+	 * @return the vertex indices of the triangles
+	 */
+	private static int[] waveFaces(int n) {
+		int[] faces = new int[6 * n * n];
+		int f = 0;
+		for (int i = 0; i < n; ++i)
+			for (int j = 0; j < n; ++j) {
+				int v = i * (n + 1) + j;
+				faces[f++] = v;
+				faces[f++] = v + 1;
+				faces[f++] = v + n + 2;
+				faces[f++] = v;
+				faces[f++] = v + n + 2;
+				faces[f++] = v + n + 1;
+			}
+		return faces;
+	}
+
+	/**
+	 * Builds a wavy grid mesh with many chunks of triangles.
+	 *
+	 * @param n       the amount of grid cells in each direction
+	 * @param storage the storage mode of the mesh
+	 * @return the mesh
+	 */
+	private static Mesh wave(int n, Storage storage) {
+		return new Mesh(waveVertices(n), waveFaces(n), storage);
+	}
+
+	/**
+	 * Test method for {@link geometries.Mesh#Mesh(Point[], int[])}.
+	 */
+	@Test
+	void testConstructor() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Correct mesh
+		assertDoesNotThrow(() -> new Mesh(PYRAMID, PYRAMID_FACES), "Failed constructing a correct mesh");
+
+		// TC02: Amount of indices is not a multiple of 3
+		assertThrows(IllegalArgumentException.class, () -> new Mesh(PYRAMID, new int[] { 0, 1, 2, 3 }),
+				"Constructed a mesh with incomplete triangle");
+
+		// TC03: Index out of range
+		assertThrows(IllegalArgumentException.class, () -> new Mesh(PYRAMID, new int[] { 0, 1, 5 }),
+				"Constructed a mesh with wrong vertex index");
+	}
+
+	/**
+	 * Test method for {@link geometries.Mesh#getNormal(int)}.
+	 */
+	@Test
+	void testGetNormal() {
+		Mesh mesh = new Mesh(PYRAMID, PYRAMID_FACES);
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Base triangle normal
+		assertEquals(new Vector(0, 0, -1), mesh.getNormal(4), "Wrong mesh triangle normal");
+		// TC02: Side triangle normal is a unit vector orthogonal to its edges
+		Vector n = mesh.getNormal(0);
+		assertEquals(1, n.length(), DELTA, "Mesh triangle normal is not a unit vector");
+		assertEquals(0, n.dotProduct(PYRAMID[1].subtract(PYRAMID[0])), DELTA, "Normal is not orthogonal");
+		assertEquals(0, n.dotProduct(PYRAMID[4].subtract(PYRAMID[0])), DELTA, "Normal is not orthogonal");
+	}
+
+	/**
+	 * Test method for {@link geometries.Mesh#getNormal(primitives.Point)}.
+	 */
+	@Test
+	void testGetNormalAtPoint() {
+		Mesh mesh = new Mesh(PYRAMID, PYRAMID_FACES);
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Point on the base
+		assertEquals(new Vector(0, 0, -1), mesh.getNormal(new Point(0.5, -0.2, 0)), "Wrong mesh normal");
+		// TC02: Point on a side is the normal of its triangle
+		assertEquals(mesh.getNormal(0), mesh.getNormal(new Point(0, -2.0 / 3, 1.0 / 3)), "Wrong mesh normal");
+		// TC03: Point off the mesh
+		assertThrows(IllegalArgumentException.class, () -> mesh.getNormal(new Point(0, 0, 0.5)),
+				"Point off the mesh must throw");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Point on a vertex shared by several triangles is the normal of the
+		// first of them
+		assertEquals(mesh.getNormal(0), mesh.getNormal(new Point(-1, -1, 0)), "Wrong mesh normal at vertex");
+	}
+
+	/**
+	 * Test method for {@link geometries.Mesh#findIntersections(primitives.Ray)}.
+	 */
+	@Test
+	void testFindIntersections() {
+		Mesh mesh = new Mesh(PYRAMID, PYRAMID_FACES);
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Ray crosses a side and the base
+		List<Point> result = mesh.findIntersections(new Ray(new Point(0.2, 0.1, 5), new Vector(0, 0, -1)));
+		assertNotNull(result, "Ray through the mesh must intersect");
+		assertEquals(2, result.size(), "Wrong number of intersection points");
+		assertTrue(result.contains(new Point(0.2, 0.1, 0)), "Missing the base intersection point");
+
+		// TC02: Ray misses the mesh
+		assertNull(mesh.findIntersections(new Ray(new Point(3, 3, 5), new Vector(0, 0, -1))),
+				"Ray outside the mesh must not intersect");
+
+		// TC03: Ray starts after the mesh
+		assertNull(mesh.findIntersections(new Ray(new Point(0.2, 0.1, -1), new Vector(0, 0, -1))),
+				"Ray starting after the mesh must not intersect");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Ray through an edge of the base (between two base triangles)
+		result = mesh.findIntersections(new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1)));
+		assertNull(result, "Ray through an edge must not intersect");
+	}
+
+	/**
+	 * Test method for single precision storage of {@link geometries.Mesh}.
+	 */
+	@Test
+	void testFloatStorage() {
+		Mesh doubleMesh = wave(40, Storage.DOUBLE);
+		Mesh floatMesh = wave(40, Storage.FLOAT);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Float storage takes half of the memory
+		assertEquals(doubleMesh.getStorageBytes(), 2 * floatMesh.getStorageBytes(), "Float storage is not half");
+
+		// TC02: Both meshes are hit by the same rays at almost the same points
+		for (int i = -19; i < 20; ++i)
+			for (int j = -19; j < 20; ++j) {
+				Ray ray = new Ray(new Point(i * 9.7 + 0.13, j * 9.7 + 0.29, 0), //
+						new Vector(0.005 * i, 0.005 * j, -1));
+				List<Point> expected = doubleMesh.findIntersections(ray);
+				List<Point> result = floatMesh.findIntersections(ray);
+				assertNotNull(expected, "Ray must intersect the mesh " + ray);
+				assertNotNull(result, "Float mesh missed a ray " + ray);
+				assertEquals(expected.size(), result.size(), "Wrong number of intersection points");
+				assertEquals(0, expected.getFirst().distance(result.getFirst()), 0.0001, "Wrong intersection point");
+			}
+	}
+
+	/**
+	 * Test method for off-heap storage of {@link geometries.Mesh}.
+	 * 
+	 * @throws IOException if the temporary mesh file cannot be created
+	 */
+	@Test
+	void testOffHeapStorage() throws IOException {
+		Mesh floatMesh = wave(40, Storage.FLOAT);
+		Mesh directMesh = wave(40, Storage.OFF_HEAP);
+		File file = File.createTempFile("mesh", ".bin");
+		file.deleteOnExit();
+		Mesh mappedMesh = new Mesh(waveVertices(40), waveFaces(40), file.toPath());
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The data is kept off the heap
+		assertFalse(floatMesh.isOffHeap(), "Float mesh must be kept in the heap");
+		assertTrue(directMesh.isOffHeap(), "Off-heap mesh is kept in the heap");
+		assertTrue(mappedMesh.isOffHeap(), "Mapped mesh is kept in the heap");
+		assertTrue(file.length() > floatMesh.getStorageBytes(), "Mesh file is not filled");
+
+		// TC02: Off-heap meshes are hit at the same points as the float mesh
+		for (int i = -19; i < 20; i += 3)
+			for (int j = -19; j < 20; j += 3) {
+				Ray ray = new Ray(new Point(i * 9.7 + 0.13, j * 9.7 + 0.29, 0), //
+						new Vector(0.005 * i, 0.005 * j, -1));
+				List<Point> expected = floatMesh.findIntersections(ray);
+				assertEquals(expected, directMesh.findIntersections(ray), "Wrong direct memory mesh intersections");
+				assertEquals(expected, mappedMesh.findIntersections(ray), "Wrong mapped mesh intersections");
+			}
+	}
+
+	/**
+	 * Test method for quantized storage of {@link geometries.Mesh}.
+	 */
+	@Test
+	void testQuantizedStorage() {
+		Mesh doubleMesh = wave(40, Storage.DOUBLE);
+		Mesh floatMesh = wave(40, Storage.FLOAT);
+		final double maxError = 0.05;
+		Mesh quantizedMesh = new Mesh(waveVertices(40), waveFaces(40), maxError);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The reported error is within the requested bound
+		assertEquals(0, doubleMesh.getMaxError(), "Double storage must be exact");
+		assertTrue(quantizedMesh.getMaxError() <= maxError, "Quantization error exceeds the bound");
+
+		// TC02: Quantized vertices take less memory than float ones, even with the
+		// stored normals (4 bytes per triangle) quantized mesh is smaller than double
+		long normalsBytes = 4L * quantizedMesh.getTrianglesCount();
+		assertTrue(quantizedMesh.getStorageBytes() - normalsBytes < floatMesh.getStorageBytes(),
+				"Quantized vertices are not smaller");
+		assertTrue(quantizedMesh.getStorageBytes() < doubleMesh.getStorageBytes(), "Quantized mesh is not smaller");
+
+		// TC03: The intersections are within the error bound
+		for (int i = -19; i < 20; i += 2)
+			for (int j = -19; j < 20; j += 2) {
+				Ray ray = new Ray(new Point(i * 9.7 + 0.13, j * 9.7 + 0.29, 0), //
+						new Vector(0.005 * i, 0.005 * j, -1));
+				List<Point> expected = doubleMesh.findIntersections(ray);
+				List<Point> result = quantizedMesh.findIntersections(ray);
+				assertNotNull(result, "Quantized mesh missed a ray " + ray);
+				assertEquals(expected.size(), result.size(), "Wrong number of intersection points");
+				assertEquals(0, expected.getFirst().distance(result.getFirst()), 0.01, "Wrong intersection point");
+			}
+
+		// TC04: The decoded normals are close to the original ones
+		for (int triangle = 0; triangle < doubleMesh.getTrianglesCount(); ++triangle)
+			assertEquals(1, doubleMesh.getNormal(triangle).dotProduct(quantizedMesh.getNormal(triangle)), 0.00001,
+					"Wrong decoded normal");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Zero error bound
+		assertThrows(IllegalArgumentException.class, () -> new Mesh(waveVertices(2), waveFaces(2), 0d),
+				"Constructed a mesh with zero error bound");
+		// TC11: Error bound below the finest quantization
+		assertThrows(IllegalArgumentException.class, () -> new Mesh(waveVertices(40), waveFaces(40), 1e-13),
+				"Constructed a mesh with unreachable error bound");
+	}
+
+	/**
+	 * Test method for serialization of {@link geometries.Mesh}.
+	 * 
+	 * @throws IOException            if the serialization fails
+	 * @throws ClassNotFoundException if the deserialization fails
+	 */
+	@Test
+	void testSerialization() throws IOException, ClassNotFoundException {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A mesh of each storage mode is deserialized into the same storage,
+		// and it is hit at the same points
+		for (Mesh mesh : List.of(wave(20, Storage.DOUBLE), wave(20, Storage.FLOAT), wave(20, Storage.OFF_HEAP),
+				new Mesh(waveVertices(20), waveFaces(20), 0.05))) {
+			mesh.setEmission(new Color(1, 2, 3));
+			var buffer = new ByteArrayOutputStream();
+			try (var out = new ObjectOutputStream(buffer)) {
+				out.writeObject(mesh);
+			}
+			Mesh copy;
+			try (var in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+				copy = (Mesh) in.readObject();
+			}
+			assertEquals(mesh.getStorageBytes(), copy.getStorageBytes(), "Wrong storage of the copy");
+			assertEquals(mesh.isOffHeap(), copy.isOffHeap(), "Wrong storage of the copy");
+			assertTrue(mesh.getEmission().similar(copy.getEmission()), "Wrong emission of the copy");
+			for (int i = -9; i < 10; i += 2)
+				for (int j = -9; j < 10; j += 2) {
+					Ray ray = new Ray(new Point(i * 9.7 + 0.13, j * 9.7 + 0.29, 0), //
+							new Vector(0.005 * i, 0.005 * j, -1));
+					List<Point> expected = mesh.findIntersections(ray);
+					List<Point> result = copy.findIntersections(ray);
+					assertNotNull(result, "The copy missed a ray " + ray);
+					assertEquals(0, expected.getFirst().distance(result.getFirst()), 0.01, "Wrong intersection point");
+				}
+		}
+
+		// TC02: A quantized mesh is restored as it is, with no further error
+		Mesh mesh = new Mesh(waveVertices(20), waveFaces(20), 0.05);
+		var buffer = new ByteArrayOutputStream();
+		try (var out = new ObjectOutputStream(buffer)) {
+			out.writeObject(mesh);
+		}
+		Mesh copy;
+		try (var in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+			copy = (Mesh) in.readObject();
+		}
+		assertEquals(mesh.getMaxError(), copy.getMaxError(), "Wrong error of the copy");
+		for (int triangle = 0; triangle < mesh.getTrianglesCount(); ++triangle)
+			assertEquals(mesh.getNormal(triangle), copy.getNormal(triangle), "Wrong normal of the copy");
+	}
+
+	/**
+	 * Image-diff test of single precision storage of {@link geometries.Mesh}: the
+	 * same scene is traced with both storage modes and the pixels are compared.
+	 */
+	@Test
+	void testFloatStorageImage() {
+		final int size = 100;
+		int[][] expected = trace(wave(40, Storage.DOUBLE), size);
+		int[][] result = trace(wave(40, Storage.FLOAT), size);
+		int different = 0;
+		for (int i = 0; i < size; ++i)
+			for (int j = 0; j < size; ++j)
+				if (Math.abs(expected[i][j] - result[i][j]) > 1)
+					++different;
+		// only rays passing just by a shared edge may hit another triangle
+		assertTrue(different <= size * size / 1000, "Float storage changed " + different + " pixels");
+	}
+
+	/**
+	 * Traces a small image of a mesh and returns the gray levels of its pixels.
+	 *
+	 * @param mesh the mesh
+	 * @param size the resolution of the image
+	 * @return matrix of the pixel gray levels
+	 */
+	private static int[][] trace(Mesh mesh, int size) {
+		Scene scene = new Scene("Mesh");
+		mesh.setEmission(new Color(20, 20, 60)).setMaterial(new Material().setKD(0.6).setKS(0.3).setShininess(20));
+		scene.geometries.add(mesh);
+		scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(1, 1, -1)));
+		SimpleRayTracer tracer = new SimpleRayTracer(scene);
+		Camera camera = Camera.getBuilder().setLocation(new Point(0, -300, 200))
+				.setDirection(new Vector(0, 300, -300), new Vector(0, 1, 1)).setVpSize(200, 200).setVpDistance(200)
+				.setRayTracer(tracer).setImageWriter(new ImageWriter("mesh", size, size)).build();
+		int[][] pixels = new int[size][size];
+		for (int i = 0; i < size; ++i)
+			for (int j = 0; j < size; ++j) {
+				java.awt.Color color = tracer.traceRay(camera.constructRay(size, size, j, i)).getColor();
+				pixels[i][j] = color.getRed() + color.getGreen() + color.getBlue();
+			}
+		return pixels;
+	}
+}
@@ -0,0 +1,68 @@
+package unittests.geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Geometries;
+import geometries.Sphere;
+import geometries.SphereSet;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Unit tests for geometries.SphereSet class
+ */
+class SphereSetTests {
+	/** Spheres of radius 1, all but one of them along the x axis */
+	private final Sphere[] spheres = { new Sphere(new Point(9, 0, 0), 1d), new Sphere(new Point(3, 0, 0), 1d),
+			new Sphere(new Point(6, 0, 0), 1d), new Sphere(new Point(0, 5, 0), 1d), new Sphere(new Point(-3, 0, 0), 1d) };
+
+	/**
+	 * Test method for {@link geometries.SphereSet#findNearest(Ray, double, double)}.
+	 */
+	@Test
+	void testFindNearest() {
+		SphereSet set = new SphereSet(spheres);
+		final double inf = Double.POSITIVE_INFINITY;
+		Ray ray = new Ray(Point.ZERO, new Vector(1, 0, 0));
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The nearest of several hit spheres
+		assertEquals(1, set.findNearest(ray, 0, inf), "Wrong nearest sphere");
+		// TC02: The nearest sphere beyond the lower bound
+		assertEquals(2, set.findNearest(ray, 4.5, inf), "Wrong nearest sphere beyond the lower bound");
+		// TC03: No sphere within the range
+		assertEquals(-1, set.findNearest(ray, 0, 1.5), "No sphere should be found in the range");
+		// TC04: Ray misses all the spheres
+		assertEquals(-1, set.findNearest(new Ray(Point.ZERO, new Vector(0, 0, 1)), 0, inf), "Ray must miss");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Ray starts inside a sphere - its exit point is the nearest
+		Ray inside = new Ray(new Point(6.5, 0, 0), new Vector(1, 0, 0));
+		assertEquals(2, set.findNearest(inside, 0, inf), "Wrong nearest sphere from inside");
+		assertEquals(0.5, spheres[2].findNearest(inside, 0, inf), 0.000001, "Wrong distance from inside");
+	}
+
+	/**
+	 * Test method for {@link geometries.SphereSet#findIntersections(Ray)}.
+	 */
+	@Test
+	void testFindIntersections() {
+		SphereSet set = new SphereSet(spheres);
+		Geometries separate = new Geometries(spheres);
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The set finds the same intersections as the separate spheres
+		for (Ray ray : List.of(new Ray(Point.ZERO, new Vector(1, 0, 0)), new Ray(Point.ZERO, new Vector(-1, 0, 0)),
+				new Ray(new Point(3, 0, 0), new Vector(1, 0.01, 0)), new Ray(Point.ZERO, new Vector(0, 1, 0)))) {
+			List<Point> expected = separate.findIntersections(ray);
+			List<Point> result = set.findIntersections(ray);
+			assertEquals(expected.size(), result.size(), "Wrong number of intersection points");
+			assertTrue(result.containsAll(expected), "Wrong intersection points");
+		}
+		// TC02: Ray misses all the spheres
+		assertNull(set.findIntersections(new Ray(Point.ZERO, new Vector(0, 0, 1))), "Ray must miss");
+	}
+}
@@ -19,6 +19,10 @@ import java.util.List;
  * @author Tal and Avital
  */
 class SphereTests {
+	/**
+	 * A small constant representing the precision for floating-point comparison.
+	 */
+	private static final double DELTA = 0.000001;
 
 	/**
 	 * Test method for {@link geometries.Sphere#getNormal(primitives.Point)}.
@@ -150,4 +154,40 @@ class SphereTests {
 				"Ray orthogonal to center line should not intersect");
 
 	}
+
+	/**
+	 * Test method for {@link geometries.Sphere#findNearest(Ray, double, double)}.
+	 */
+	@Test
+	void testFindNearest() {
+		Sphere sphere = new Sphere(new Point(1, 0, 0), 1d);
+		final double inf = Double.POSITIVE_INFINITY;
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Ray starts before the sphere - the entry point
+		assertEquals(1, sphere.findNearest(new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0)), 0, inf), DELTA,
+				"Wrong nearest intersection");
+		// TC02: Ray starts inside the sphere - the exit point
+		assertEquals(1.5, sphere.findNearest(new Ray(new Point(0.5, 0, 0), new Vector(1, 0, 0)), 0, inf), DELTA,
+				"Wrong nearest intersection from inside");
+		// TC03: Ray misses the sphere
+		assertEquals(inf, sphere.findNearest(new Ray(new Point(-1, 2, 0), new Vector(1, 0, 0)), 0, inf),
+				"Ray outside the sphere must not intersect");
+		// TC04: Both intersections are beyond the upper bound
+		assertEquals(inf, sphere.findNearest(new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0)), 0, 0.5),
+				"Intersection beyond the range must be ignored");
+		// TC05: The entry point is below the lower bound - the exit point
+		assertEquals(3, sphere.findNearest(new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0)), 2, inf), DELTA,
+				"Intersection below the range must be ignored");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Ray starts at the center
+		assertEquals(1, sphere.findNearest(new Ray(new Point(1, 0, 0), new Vector(0, 0, 1)), 0, inf), DELTA,
+				"Wrong nearest intersection from the center");
+		// TC11: Ray is tangent to the sphere
+		assertEquals(inf, sphere.findNearest(new Ray(new Point(0, 1, 0), new Vector(1, 0, 0)), 0, inf),
+				"Tangent ray must not intersect");
+		// TC12: Ray starts on the surface and goes outside
+		assertEquals(inf, sphere.findNearest(new Ray(new Point(2, 0, 0), new Vector(1, 0, 0)), 0, inf),
+				"Ray from the surface outwards must not intersect");
+	}
 }
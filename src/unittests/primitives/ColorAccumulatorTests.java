@@ -0,0 +1,56 @@
+package unittests.primitives;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.Color;
+import primitives.ColorAccumulator;
+
+/**
+ * Unit tests for primitives.ColorAccumulator class
+ */
+class ColorAccumulatorTests {
+
+	/**
+	 * Test method for {@link primitives.ColorAccumulator#average()}.
+	 */
+	@Test
+	void testAverage() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Average of several colors
+		ColorAccumulator colors = new ColorAccumulator().add(new Color(10, 20, 30)).add(new Color(30, 20, 10));
+		assertTrue(new Color(20, 20, 20).similar(colors.average()), "Wrong average color");
+		assertTrue(new Color(40, 40, 40).similar(colors.sum()), "Wrong sum color");
+		// TC02: Weighted average
+		colors.reset().add(new Color(10, 10, 10), 0.5).add(new Color(30, 30, 30), 1.5);
+		assertEquals(2, colors.getWeight(), "Wrong total weight");
+		assertTrue(new Color(25, 25, 25).similar(colors.average()), "Wrong weighted average color");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Nothing was added
+		assertTrue(Color.BLACK.similar(new ColorAccumulator().average()), "Empty average must be black");
+	}
+
+	/**
+	 * Test method for {@link primitives.ColorAccumulator#add(Color)} with
+	 * compensated summation.
+	 */
+	@Test
+	void testCompensatedAdd() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Small colors added to a huge one are lost by the plain summation, but
+		// kept by the compensated one
+		Color huge = new Color(1e16, 0, 0);
+		Color small = new Color(1, 0, 0);
+		ColorAccumulator plain = new ColorAccumulator().add(huge);
+		ColorAccumulator compensated = new ColorAccumulator(true).add(huge);
+		for (int i = 0; i < 10; ++i) {
+			plain.add(small);
+			compensated.add(small);
+		}
+		Color expected = new Color(1e16 + 10, 0, 0);
+		assertFalse(expected.similar(plain.sum()), "Plain summation is expected to lose the small colors");
+		assertTrue(expected.similar(compensated.sum()), "Compensated summation lost the small colors");
+	}
+}
@@ -43,6 +43,20 @@ class PointTests {
 
 	}
 
+	/**
+	 * Test method for {@link primitives.Point#subtractOrNull(primitives.Point)}.
+	 */
+	@Test
+	void testSubtractOrNull() {
+		Point p1 = new Point(1, 2, 3);
+		// ============Equivalence Partitions Tests ==============
+		// TC01: Different points - same result as subtract()
+		assertEquals(new Vector(1, 2, 3), new Point(2, 4, 6).subtractOrNull(p1), "wrong subtractOrNull result");
+		// =============== Boundary Values Tests ==================
+		// TC10: A point and itself give null instead of the zero vector exception
+		assertNull(p1.subtractOrNull(new Point(1, 2, 3)), "subtractOrNull of the same point must be null");
+	}
+
 	/**
 	 * Test method for {@link primitives.Point#add(primitives.Vector)}.
 	 */
@@ -0,0 +1,44 @@
+package unittests.primitives;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.SampleRandom;
+
+/**
+ * Unit tests for primitives.SampleRandom class
+ */
+class SampleRandomTests {
+
+	/**
+	 * Test method for {@link primitives.SampleRandom#random(long, long, int, int)}.
+	 */
+	@Test
+	void testRandom() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The same counters give the same number
+		assertEquals(SampleRandom.random(7, 12, 3, 1), SampleRandom.random(7, 12, 3, 1), "Random is not repeatable");
+		// TC02: Other seed, pixel, sample or dimension give another number
+		double random = SampleRandom.random(7, 12, 3, 1);
+		assertNotEquals(random, SampleRandom.random(8, 12, 3, 1), "Seed is ignored");
+		assertNotEquals(random, SampleRandom.random(7, 13, 3, 1), "Pixel is ignored");
+		assertNotEquals(random, SampleRandom.random(7, 12, 4, 1), "Sample is ignored");
+		assertNotEquals(random, SampleRandom.random(7, 12, 3, 0), "Dimension is ignored");
+		// TC03: The numbers are spread evenly in [0, 1)
+		int[] bins = new int[10];
+		final int count = 100000;
+		for (int sample = 0; sample < count; ++sample) {
+			double value = SampleRandom.random(0, 5, sample, 0);
+			assertTrue(value >= 0 && value < 1, "Random out of range");
+			++bins[(int) (value * bins.length)];
+		}
+		for (int bin : bins)
+			assertEquals(count / bins.length, bin, count / bins.length / 20, "Random is not uniform");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Samples shared by all the pixels differ from those of the first pixel
+		assertNotEquals(SampleRandom.random(0, SampleRandom.ALL_PIXELS, 0, 0), SampleRandom.random(0, 0, 0, 0),
+				"Shared samples equal pixel samples");
+	}
+}
@@ -0,0 +1,139 @@
+package unittests.primitives;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.*;
+
+/**
+ * Unit tests for primitives.Sampler implementations
+ */
+class SamplerTests {
+
+	/**
+	 * Counts the samples of a pixel in each cell of a grid over the first two
+	 * dimensions, and checks the samples are in range
+	 * 
+	 * @param sampler the sampler
+	 * @param samples the amount of the samples
+	 * @param columns the amount of the grid columns
+	 * @param rows    the amount of the grid rows
+	 * @return the counts of the cells
+	 */
+	private static int[] cells(Sampler sampler, int samples, int columns, int rows) {
+		int[] cells = new int[columns * rows];
+		for (int sample = 0; sample < samples; ++sample) {
+			double x = sampler.get(3, 5, 7, sample, 0), y = sampler.get(3, 5, 7, sample, 1);
+			assertTrue(x >= 0 && x < 1 && y >= 0 && y < 1, "Sample out of range");
+			++cells[(int) (y * rows) * columns + (int) (x * columns)];
+		}
+		return cells;
+	}
+
+	/**
+	 * Checks that the samples of different pixels differ
+	 * 
+	 * @param sampler the sampler
+	 */
+	private static void assertScrambled(Sampler sampler) {
+		assertNotEquals(sampler.get(3, 5, 7, 0, 0), sampler.get(3, 6, 7, 0, 0), "Pixel column is ignored");
+		assertNotEquals(sampler.get(3, 5, 7, 0, 0), sampler.get(3, 5, 8, 0, 0), "Pixel row is ignored");
+		assertNotEquals(sampler.get(3, 5, 7, 0, 0), sampler.get(4, 5, 7, 0, 0), "Seed is ignored");
+		assertEquals(sampler.get(3, 5, 7, 2, 1), sampler.get(3, 5, 7, 2, 1), "Sampler is not repeatable");
+	}
+
+	/**
+	 * Test method for {@link primitives.StratifiedSampler#get(long, int, int, int, int)}.
+	 */
+	@Test
+	void testStratified() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Each cell of the grid gets a single sample
+		Sampler sampler = new StratifiedSampler(16);
+		for (int count : cells(sampler, 16, 4, 4))
+			assertEquals(1, count, "Samples are not stratified");
+		// TC02: The pixels have their own samples
+		assertScrambled(sampler);
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Samples beyond the grid visit the cells again
+		for (int count : cells(new StratifiedSampler(10), 32, 4, 4))
+			assertEquals(2, count, "Samples are not stratified");
+		// TC11: Zero samples
+		assertThrows(IllegalArgumentException.class, () -> new StratifiedSampler(0), "Zero samples must throw");
+	}
+
+	/**
+	 * Test method for {@link primitives.HaltonSampler#get(long, int, int, int, int)}.
+	 */
+	@Test
+	void testHalton() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The samples are spread evenly
+		Sampler sampler = new HaltonSampler();
+		for (int count : cells(sampler, 64, 8, 8))
+			assertTrue(count <= 3, "Samples are not spread evenly");
+		// TC02: The pixels have their own samples
+		assertScrambled(sampler);
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Dimension beyond the bases
+		assertThrows(IllegalArgumentException.class, () -> sampler.get(0, 0, 0, 0, 16), "Wrong dimension must throw");
+	}
+
+	/**
+	 * Test method for {@link primitives.SobolSampler#get(long, int, int, int, int)}.
+	 */
+	@Test
+	void testSobol() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Each elementary interval gets a single sample
+		Sampler sampler = new SobolSampler();
+		for (int count : cells(sampler, 64, 8, 8))
+			assertEquals(1, count, "Samples are not stratified");
+		for (int count : cells(sampler, 64, 16, 4))
+			assertEquals(1, count, "Samples are not stratified");
+		// TC02: The pixels have their own samples
+		assertScrambled(sampler);
+		// TC03: Higher dimensions are stratified as well
+		int[] bins = new int[16];
+		for (int sample = 0; sample < 16; ++sample)
+			++bins[(int) (sampler.get(3, 5, 7, sample, 7) * 16)];
+		for (int count : bins)
+			assertEquals(1, count, "Dimension is not stratified");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Dimension beyond the direction numbers
+		assertThrows(IllegalArgumentException.class, () -> sampler.get(0, 0, 0, 0, 8), "Wrong dimension must throw");
+	}
+
+	/**
+	 * Test method for {@link primitives.BlueNoiseSampler#get(long, int, int, int, int)}.
+	 */
+	@Test
+	void testBlueNoise() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The samples of a pixel are spread evenly
+		Sampler sampler = new BlueNoiseSampler();
+		for (int count : cells(sampler, 64, 8, 8))
+			assertTrue(count <= 3, "Samples are not spread evenly");
+		// TC02: The pixels have their own samples
+		assertScrambled(sampler);
+		// TC03: The first samples of a tile of pixels are spread evenly, and the
+		// samples of neighbouring pixels are far apart
+		int[] bins = new int[16];
+		double distance = 0;
+		for (int y = 0; y < 64; ++y)
+			for (int x = 0; x < 64; ++x) {
+				double value = sampler.get(0, x, y, 0, 0);
+				++bins[(int) (value * 16)];
+				double difference = Math.abs(value - sampler.get(0, x + 1, y, 0, 0));
+				distance += Math.min(difference, 1 - difference);
+			}
+		for (int count : bins)
+			assertEquals(256, count, "Pixels are not spread evenly");
+		// independent random values are a quarter apart on average
+		assertTrue(distance / 4096 > 0.3, "Neighbouring pixels are not far apart");
+	}
+}
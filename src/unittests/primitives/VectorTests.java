@@ -213,6 +213,24 @@ class VectorTests {
 				"crossProduct() with same directions does not throw an exception");
 	}
 
+	/**
+	 * Test method for {@link primitives.Vector#crossProductOrNull(primitives.Vector)}.
+	 */
+	@Test
+	void testCrossProductOrNull() {
+		Vector v1 = new Vector(1, 2, 3);
+		Vector v3 = new Vector(0, 3, -2);
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Not parallel vectors - same result as crossProduct()
+		assertEquals(v1.crossProduct(v3), v1.crossProductOrNull(v3), "crossProductOrNull() wrong result");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Parallel vectors with the same direction
+		assertNull(v1.crossProductOrNull(new Vector(2, 4, 6)), "crossProductOrNull() of parallel vectors");
+		// TC11: Parallel vectors with opposite directions
+		assertNull(v1.crossProductOrNull(new Vector(-1, -2, -3)), "crossProductOrNull() of opposite vectors");
+	}
+
 	/**
 	 * Test method for {@link primitives.Vector#lengthSquared()}.
 	 */
@@ -257,6 +275,12 @@ class VectorTests {
 		Vector unitVector = new Vector(1, 0, 0);
 		Vector nUnitVector = unitVector.normalize();
 		assertEquals(unitVector, nUnitVector, "normalized vector is not the same as the original unit vector");
+		// TC03: Test for a vector which is already normalized - no new vector
+		assertSame(n, n.normalize(), "normalized vector must not be normalized again");
+		// TC04: Test for the opposite of a normalized vector - stays normalized
+		Vector opposite = n.scale(-1);
+		assertEquals(new Vector(0, -0.6, -0.8), opposite, "wrong opposite vector");
+		assertSame(opposite, opposite.normalize(), "opposite of a normalized vector must stay normalized");
 
 	}
 
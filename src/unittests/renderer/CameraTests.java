@@ -1,9 +1,26 @@
 package unittests.renderer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import geometries.Intersectable.GeoPoint;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
 import primitives.*;
 import renderer.*;
 import scene.Scene;
@@ -53,4 +70,642 @@ class CameraTests {
 
 	}
 
+	/**
+	 * Test method for {@link renderer.Camera#renderImage()}.
+	 * 
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	void testRenderImage() throws InterruptedException {
+		Scene scene = new Scene("Render test");
+		final Color red = new Color(100, 0, 0);
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(red));
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene))
+				.setImageWriter(imageWriter).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A camera renders the whole image again and again, in each threading
+		// mode
+		for (Camera camera : List.of(builder.setMultiThreading(2).setForkJoin(false).build(),
+				builder.setForkJoin(true).build(), builder.setMultiThreading(0).setForkJoin(false).build()))
+			for (int round = 0; round < 2; ++round) {
+				camera.printGrid(1, Color.YELLOW);
+				camera.renderImage();
+				assertTrue(red.similar(imageWriter.getPixel(10, 10)), "Wrong color of the sphere");
+				assertTrue(Color.BLACK.similar(imageWriter.getPixel(0, 0)), "Wrong color of the background");
+			}
+
+		// TC02: Concurrent renderings by the same camera
+		Camera camera = builder.setMultiThreading(2).build();
+		camera.printGrid(1, Color.YELLOW);
+		Thread other = new Thread(camera::renderImage);
+		other.start();
+		camera.renderImage();
+		other.join();
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertFalse(Color.YELLOW.similar(imageWriter.getPixel(j, i)), "Pixel was not rendered");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera#renderImage()} with progressive
+	 * rendering.
+	 */
+	@Test
+	void testRenderProgressive() {
+		Scene scene = new Scene("Render test");
+		final Color red = new Color(100, 0, 0);
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(red));
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		ImageWriter progressive = new ImageWriter("Render test", 20, 20);
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4);
+		builder.setImageWriter(expected).build().renderImage();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Several samples per pixel refine the pixels on the sphere edge only
+		builder.setImageWriter(progressive).setProgressive(8).setMultiThreading(2).build().renderImage();
+		assertTrue(red.similar(progressive.getPixel(10, 10)), "Wrong color inside the sphere");
+		assertTrue(Color.BLACK.similar(progressive.getPixel(0, 0)), "Wrong color of the background");
+		boolean refined = false;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				refined |= !expected.getPixel(j, i).similar(progressive.getPixel(j, i));
+		assertTrue(refined, "The sphere edge was not refined");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A single sample per pixel is the same as the regular rendering
+		builder.setProgressive(1).build().renderImage();
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(progressive.getPixel(j, i)), "Wrong pixel color");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera#renderImage(Duration)}.
+	 */
+	@Test
+	void testRenderImageBudget() {
+		Scene scene = new Scene("Render test");
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(100, 0, 0)));
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene))
+				.setImageWriter(new ImageWriter("Render test", 100, 100)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setStatistics(statistics);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The budget is enough for all the samples
+		builder.setProgressive(4).build().renderImage(Duration.ofMinutes(1));
+		assertTrue(statistics.isComplete(), "Rendering must be complete");
+		assertEquals(4, statistics.getTargetSamples(), "Wrong target samples");
+		assertEquals(1, statistics.getQuality(), 0.000001, "Wrong quality level");
+
+		// TC02: The budget is too short for all the samples - the rendering stops in
+		// time with lower quality
+		builder.setProgressive(1000000).build().renderImage(Duration.ofMillis(300));
+		assertTrue(statistics.getElapsed().toMillis() < 2000, "Rendering did not stop in time");
+		assertTrue(statistics.getQuality() < 1, "Quality must be lowered");
+		assertTrue(statistics.getTargetSamples() < 1000000, "Target samples must be lowered");
+		assertTrue(statistics.getSamples() > 0, "No samples were traced");
+
+		// a diagonal edge, slowly traced
+		Scene slow = new Scene("Render test");
+		slow.geometries.add(new Triangle(new Point(-1000, 1000, -400), new Point(1000, -1000, -400),
+				new Point(1000, 1000, -400)).setEmission(new Color(255, 255, 255)),
+				// a sphere behind the camera, slowing down the tracing of every ray
+				new Sphere(new Point(0, 0, 100), 1d) {
+					@Override
+					protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+						long end = System.nanoTime() + 20_000;
+						while (System.nanoTime() < end)
+							Thread.onSpinWait();
+						return super.findGeoIntersectionsHelper(ray);
+					}
+				});
+		builder.setRayTracer(new SimpleRayTracer(slow)).setImageWriter(new ImageWriter("Render test", 40, 40))
+				.setProgressive(0).setTileSize(4);
+
+		// TC03: Super sampling lowers its levels to fit in the budget, in a single
+		// pass
+		builder.setSuperSempling(8, 0).build().renderImage();
+		double fullSamples = statistics.getSamplesPerPixel();
+		Duration budget = statistics.getElapsed().dividedBy(3);
+		builder.build().renderImage(budget);
+		assertTrue(statistics.isComplete(), "Rendering must be complete");
+		assertTrue(statistics.getSamplesPerPixel() < fullSamples, "Super sampling levels must be lowered");
+		builder.setSuperSempling(false);
+
+		// TC04: Adaptive depth of field lowers its aperture samples to fit in the
+		// budget, in a single pass
+		// stripes behind the focus, blurred into noise in every pixel
+		for (int x = -400; x < 400; x += 40)
+			slow.geometries.add(new Polygon(new Point(x, -1000, -399), new Point(x + 20, -1000, -399),
+					new Point(x + 20, 1000, -399), new Point(x, 1000, -399)).setEmission(new Color(0, 0, 255)));
+		builder.setRayTracer(new SimpleRayTracer(slow)).setFocalSize(50, 100, 100).setAdaptiveDepthOfField(0.01)
+				.build().renderImage();
+		fullSamples = statistics.getSamplesPerPixel();
+		budget = statistics.getElapsed().dividedBy(3);
+		builder.build().renderImage(budget);
+		assertTrue(statistics.isComplete(), "Rendering must be complete");
+		assertTrue(statistics.getSamplesPerPixel() < fullSamples, "Aperture samples must be lowered");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera#renderImage()} with a render control
+	 * and checkpoints.
+	 * 
+	 * @param folder temporary folder for the checkpoint file
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	void testRenderControl(@TempDir Path folder) throws InterruptedException {
+		RenderControl control = new RenderControl();
+		AtomicInteger rays = new AtomicInteger();
+		Scene scene = new Scene("Render test");
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(100, 0, 0)),
+				// a sphere behind the camera, cancelling the rendering once in the middle
+				new Sphere(new Point(0, 0, 100), 1d) {
+					@Override
+					protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+						if (rays.incrementAndGet() == 200)
+							control.cancel();
+						return super.findGeoIntersectionsHelper(ray);
+					}
+				});
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		Path checkpoint = folder.resolve("render.checkpoint");
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4).setStatistics(statistics);
+		builder.setImageWriter(expected).build().renderImage();
+		Camera camera = builder.setImageWriter(imageWriter).setRenderControl(control).setCheckpoint(checkpoint, 0)
+				.build();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A cancelled rendering stops after the tiles in work and saves a
+		// checkpoint
+		rays.set(0);
+		control.reset();
+		camera.printGrid(1, Color.YELLOW);
+		camera.renderImage();
+		assertFalse(statistics.isComplete(), "Cancelled rendering must be incomplete");
+		assertTrue(statistics.getSamples() >= 200 && statistics.getSamples() < 400, "Wrong amount of samples");
+		assertTrue(Files.exists(checkpoint), "Missing checkpoint");
+
+		// TC02: A rendering continues from the checkpoint, and deletes it at its end
+		control.reset();
+		camera.printGrid(1, Color.YELLOW);
+		long done = statistics.getSamples();
+		camera.renderImage();
+		assertTrue(statistics.isComplete(), "Rendering must be complete");
+		assertEquals(400 - done, statistics.getSamples(), "The done tiles must not be rendered again");
+		assertFalse(Files.exists(checkpoint), "Checkpoint must be deleted");
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+
+		// TC03: A paused rendering waits until it is resumed
+		control.pause();
+		Thread rendering = new Thread(camera::renderImage);
+		rendering.start();
+		rendering.join(200);
+		assertTrue(rendering.isAlive(), "Paused rendering must wait");
+		control.resume();
+		rendering.join();
+		assertTrue(statistics.isComplete(), "Resumed rendering must be complete");
+		assertFalse(Files.exists(checkpoint), "Checkpoint must be deleted");
+
+		// TC04: An interrupted rendering in threads stops, and returns only after its
+		// threads have stopped writing - both with a thread pool and with fork/join
+		AtomicReference<CountDownLatch> slowed = new AtomicReference<>();
+		Scene slow = new Scene("Render test");
+		slow.geometries.add(new Sphere(new Point(0, 0, -100), 50d) {
+			@Override
+			protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+				if (rays.incrementAndGet() >= 100) { // slow rays from the middle of a tile on
+					slowed.get().countDown();
+					long end = System.nanoTime() + 2_000_000L;
+					while (System.nanoTime() < end)
+						Thread.onSpinWait();
+				}
+				return super.findGeoIntersectionsHelper(ray);
+			}
+		});
+		builder.setRayTracer(new SimpleRayTracer(slow)).setRenderControl(null).setCheckpoint(null, 0)
+				.setMultiThreading(2);
+		for (boolean forkJoin : new boolean[] { false, true }) {
+			rays.set(0);
+			slowed.set(new CountDownLatch(1));
+			Camera threaded = builder.setForkJoin(forkJoin).build();
+			Thread interrupted = new Thread(threaded::renderImage);
+			interrupted.start();
+			slowed.get().await();
+			interrupted.interrupt();
+			interrupted.join();
+			int traced = rays.get();
+			assertTrue(traced < 400, "Interrupted rendering must stop, fork/join: " + forkJoin);
+			Thread.sleep(200);
+			assertEquals(traced, rays.get(),
+					"A thread is still rendering after the rendering has returned, fork/join: " + forkJoin);
+		}
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera#renderRegion(int, int, int, int)} and
+	 * {@link renderer.Camera#renderTiles(int...)}.
+	 */
+	@Test
+	void testRenderRegion() {
+		Scene scene = new Scene("Render test");
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(100, 0, 0)));
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4).setStatistics(statistics);
+		builder.setImageWriter(expected).build().renderImage();
+		builder.setImageWriter(imageWriter);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A rectangle is rendered, the rest of the image is untouched
+		Camera threads = builder.setMultiThreading(2).build();
+		threads.printGrid(1, Color.YELLOW);
+		threads.renderRegion(5, 3, 7, 6);
+		assertEquals(42, statistics.getPixels(), "Wrong amount of rendered pixels");
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				if (j >= 5 && j < 12 && i >= 3 && i < 9)
+					assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+				else
+					assertTrue(Color.YELLOW.similar(imageWriter.getPixel(j, i)), "Pixel out of the region rendered");
+
+		// TC02: A set of tiles is rendered, the rest of the image is untouched
+		Camera forkJoin = builder.setForkJoin(true).build();
+		forkJoin.printGrid(1, Color.YELLOW);
+		forkJoin.renderTiles(forkJoin.getTileIndex(10, 10), 0);
+		assertEquals(32, statistics.getPixels(), "Wrong amount of rendered pixels");
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				if (j >= 8 && j < 12 && i >= 8 && i < 12 || j < 4 && i < 4)
+					assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+				else
+					assertTrue(Color.YELLOW.similar(imageWriter.getPixel(j, i)), "Pixel out of the tiles rendered");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: The whole image as a region
+		forkJoin.printGrid(1, Color.YELLOW);
+		forkJoin.renderRegion(0, 0, 20, 20);
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+
+		// TC11: A region out of the image
+		assertThrows(IllegalArgumentException.class, () -> forkJoin.renderRegion(15, 0, 6, 20),
+				"Region out of the image must throw");
+
+		// TC12: A tile out of the image
+		assertThrows(IllegalArgumentException.class, () -> forkJoin.renderTiles(25), "Tile out of the image must throw");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera#renderChanged(geometries.Geometry...)}.
+	 */
+	@Test
+	void testRenderChanged() {
+		Scene scene = new Scene("Render test");
+		Sphere left = new Sphere(new Point(-35, 0, -100), 30d);
+		Sphere right = new Sphere(new Point(35, 0, -100), 30d);
+		left.setEmission(new Color(100, 0, 0)).setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20));
+		right.setEmission(new Color(0, 0, 100)).setMaterial(new Material().setKD(0.5));
+		scene.geometries.add(left, right);
+		scene.lights.add(new PointLight(new Color(200, 200, 200), new Point(0, 50, 0)));
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4);
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		Camera camera = builder.setImageWriter(imageWriter).setGeometryIds(true).setMultiThreading(2)
+				.setStatistics(statistics).build();
+		camera.renderImage();
+		GeometryIdBuffer ids = camera.getGeometryIds();
+		int leftPixels = 0;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				for (int id : ids.getIds(j, i))
+					if (id == ids.getId(left))
+						++leftPixels;
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: After a material tweak only the pixels of the geometry are traced
+		left.setEmission(new Color(0, 100, 0));
+		camera.renderChanged(left);
+		assertEquals(leftPixels, statistics.getPixels(), "Wrong amount of re-rendered pixels");
+		assertTrue(leftPixels > 0 && leftPixels < 400, "Wrong pixels of the geometry");
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(expected).setGeometryIds(false).setStatistics(null).build().renderImage();
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+
+		// TC02: A new geometry is traced where it covers the image now
+		Sphere added = new Sphere(new Point(0, 40, -100), 15d);
+		scene.geometries.add(added.setEmission(new Color(100, 100, 0)));
+		camera.renderChanged(added);
+		assertTrue(statistics.getPixels() > 0 && statistics.getPixels() < 400, "Wrong amount of re-rendered pixels");
+		builder.build().renderImage();
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A change which no pixel sees re-renders nothing
+		camera.printGrid(1, Color.YELLOW);
+		camera.renderChanged(new Sphere(new Point(0, 0, 100), 1d));
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(Color.YELLOW.similar(imageWriter.getPixel(j, i)), "Unaffected pixel rendered");
+
+		// TC11: A camera without geometry ids
+		assertThrows(IllegalStateException.class, () -> builder.build().renderChanged(left),
+				"Re-rendering without geometry ids must throw");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera.Builder#setSeed(long)}.
+	 */
+	@Test
+	void testSeed() {
+		Scene scene = new Scene("Render test");
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 30d).setEmission(new Color(100, 0, 0)),
+				new Sphere(new Point(20, 20, -300), 40d).setEmission(new Color(0, 0, 100)));
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4).setFocalSize(20, 100, 16).setSeed(5);
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(expected).setSampler(new BlueNoiseSampler()).build().renderImage();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The same seed renders the same image in any threading mode
+		for (Camera camera : List.of(builder.build(), builder.setMultiThreading(3).build(),
+				builder.setForkJoin(true).build())) {
+			ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+			Camera.getBuilder(camera).setImageWriter(imageWriter).build().renderImage();
+			for (int i = 0; i < 20; ++i)
+				for (int j = 0; j < 20; ++j)
+					assertEquals(expected.getPixel(j, i).getRgb(), imageWriter.getPixel(j, i).getRgb(),
+							"Rendering is not reproducible");
+		}
+
+		// TC02: Another seed renders another image
+		ImageWriter other = new ImageWriter("Render test", 20, 20);
+		builder.setSeed(6).setImageWriter(other).build().renderImage();
+		boolean differs = false;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				differs |= !expected.getPixel(j, i).getRgb().equals(other.getPixel(j, i).getRgb());
+		assertTrue(differs, "Seed is ignored");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera.Builder#setMultiThreading(int)} with
+	 * auto-tuning.
+	 */
+	@Test
+	void testAutoTune() {
+		Scene scene = new Scene("Render test");
+		scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(100, 0, 0)));
+		ImageWriter expected = new ImageWriter("Render test", 40, 40);
+		ImageWriter imageWriter = new ImageWriter("Render test", 40, 40);
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(8).setStatistics(statistics);
+		builder.setImageWriter(expected).build().renderImage();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The tuned configuration renders the same image, and is reported
+		Camera camera = builder.setImageWriter(imageWriter).setMultiThreading(-3).setForkJoin(true).build();
+		camera.renderImage();
+		for (int i = 0; i < 40; ++i)
+			for (int j = 0; j < 40; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+		int threads = statistics.getThreads(), tileSize = statistics.getTileSize();
+		assertTrue(threads >= 1 && threads <= Runtime.getRuntime().availableProcessors(), "Wrong tuned threads");
+		assertTrue(List.of(4, 8, 16).contains(tileSize), "Wrong tuned tile size");
+		assertTrue(statistics.getScalingEfficiency() > 0, "Scaling efficiency not measured");
+
+		// TC02: The configuration is tuned once for the scene
+		builder.build().renderImage();
+		assertEquals(threads, statistics.getThreads(), "Scene tuned again");
+		assertEquals(tileSize, statistics.getTileSize(), "Scene tuned again");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Tiles are rendered by the configured tile size
+		camera.printGrid(1, Color.YELLOW);
+		camera.renderTiles(camera.getTileIndex(8, 0));
+		assertEquals(8, statistics.getTileSize(), "Tiles must keep the configured size");
+		assertTrue(expected.getPixel(15, 7).similar(imageWriter.getPixel(15, 7)), "Wrong pixel color");
+		assertTrue(Color.YELLOW.similar(imageWriter.getPixel(16, 7)), "Pixel out of the tile rendered");
+
+		// TC11: Wrong amount of threads
+		assertThrows(IllegalArgumentException.class, () -> builder.setMultiThreading(-4),
+				"Multithreading below -3 must throw");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera.Builder#setSuperSempling(int, double)}.
+	 * 
+	 * @param folder temporary folder for the checkpoint file
+	 */
+	@Test
+	void testSuperSampling(@TempDir Path folder) {
+		Scene scene = new Scene("Render test");
+		// a diagonal edge across the image
+		scene.geometries.add(new Triangle(new Point(-1000, 1000, -100), new Point(1000, -1000, -100),
+				new Point(1000, 1000, -100)).setEmission(new Color(255, 255, 255)));
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setTileSize(4).setStatistics(statistics).setImageWriter(imageWriter);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Only the pixels on the edge are divided, and they are blended
+		builder.setSuperSempling(3, 4).build().renderImage();
+		double samplesPerPixel = statistics.getSamplesPerPixel();
+		assertTrue(samplesPerPixel > 25.0 / 16 && samplesPerPixel < 6, "Wrong average samples per pixel");
+		int blended = 0;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j) {
+				double green = imageWriter.getPixel(j, i).getRgb().d2;
+				if (green > 0 && green < 255)
+					++blended;
+			}
+		assertTrue(blended >= 19 && blended <= 40, "Edge pixels are not blended");
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				expected.writePixel(j, i, imageWriter.getPixel(j, i));
+
+		// TC02: Multi-threaded rendering gives the same image
+		builder.setMultiThreading(2).build().renderImage();
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+
+		// TC03: Samples shared by the pixels of a larger tile are traced once, with
+		// the same image
+		builder.setTileSize(20).build().renderImage();
+		assertTrue(statistics.getSamplesPerPixel() < samplesPerPixel, "Shared samples are traced again");
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+		builder.setTileSize(4);
+
+		// TC04: A checkpointed rendering is super sampled as well
+		builder.setCheckpoint(folder.resolve("render.checkpoint"), 0).build().renderImage();
+		assertEquals(samplesPerPixel, statistics.getSamplesPerPixel(), 1e-10, "Wrong average samples per pixel");
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				assertTrue(expected.getPixel(j, i).similar(imageWriter.getPixel(j, i)), "Wrong pixel color");
+		builder.setCheckpoint(null, 0);
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A threshold above any difference samples the corners only, each
+		// corner once in a tile
+		builder.setSuperSempling(3, 1000).build().renderImage();
+		assertEquals(25.0 / 16, statistics.getSamplesPerPixel(), 1e-10, "Pixels must not be divided");
+
+		// TC11: A single level divides each edge pixel once
+		builder.setSuperSempling(1, 0).build().renderImage();
+		assertTrue(statistics.getSamplesPerPixel() > 25.0 / 16 && statistics.getSamplesPerPixel() < 2.5,
+				"Wrong average samples per pixel");
+
+		// TC12: Wrong amount of levels
+		assertThrows(IllegalArgumentException.class, () -> builder.setSuperSempling(0, 4),
+				"Zero super sampling levels must throw");
+
+		// TC13: Super sampling does not apply with depth of field or progressive
+		// rendering
+		assertThrows(IllegalStateException.class, () -> builder.setFocalSize(1, 100, 3).build(),
+				"Super sampling with depth of field must throw");
+		builder.setFocalSize(1, 100, 1);
+		assertThrows(IllegalStateException.class, () -> builder.setProgressive(4).build(),
+				"Super sampling with progressive rendering must throw");
+		builder.setProgressive(0);
+	}
+
+	/**
+	 * Test method for
+	 * {@link renderer.Camera.Builder#setAdaptiveDepthOfField(double)}.
+	 */
+	@Test
+	void testAdaptiveDepthOfField() {
+		Scene scene = new Scene("Render test");
+		// a square in focus in the middle, and a sphere far behind it
+		scene.geometries.add(
+				new Polygon(new Point(-30, -30, -100), new Point(30, -30, -100), new Point(30, 30, -100),
+						new Point(-30, 30, -100)).setEmission(new Color(255, 0, 0)),
+				new Sphere(new Point(0, 0, -400), 150d).setEmission(new Color(0, 0, 255)));
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		RenderStatistics statistics = new RenderStatistics();
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setStatistics(statistics).setImageWriter(imageWriter);
+		ImageWriter pinhole = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(pinhole).build().renderImage();
+		ImageWriter full = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(full).setFocalSize(20, 100, 10).build().renderImage();
+		double fullSamples = statistics.getSamplesPerPixel();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The pixels in focus trace the primary ray only, the blurred pixels
+		// trace fewer rays than all the aperture points
+		builder.setImageWriter(imageWriter).setAdaptiveDepthOfField(1).build().renderImage();
+		assertTrue(statistics.getSamplesPerPixel() < fullSamples / 2, "Too many samples per pixel");
+		for (int i = 8; i < 12; ++i)
+			for (int j = 8; j < 12; ++j)
+				assertEquals(pinhole.getPixel(j, i).getRgb(), imageWriter.getPixel(j, i).getRgb(),
+						"Pixel in focus must keep the primary ray color");
+
+		// TC02: The blurred pixels are close to the full depth of field
+		double error = 0;
+		int blurred = 0;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j) {
+				error += Math.abs(full.getPixel(j, i).luminance() - imageWriter.getPixel(j, i).luminance());
+				if (!pinhole.getPixel(j, i).similar(imageWriter.getPixel(j, i)))
+					++blurred;
+			}
+		assertTrue(error / 400 < 5, "Blurred pixels differ from the full depth of field");
+		assertTrue(blurred > 0, "Pixels out of focus must be blurred");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A zero tolerance gives the full depth of field
+		builder.setAdaptiveDepthOfField(0).build().renderImage();
+		assertEquals(fullSamples, statistics.getSamplesPerPixel(), 1e-10, "Zero tolerance must sample all");
+
+		// TC11: Negative tolerance
+		assertThrows(IllegalArgumentException.class, () -> builder.setAdaptiveDepthOfField(-1),
+				"Negative tolerance must throw");
+	}
+
+	/**
+	 * Test method for {@link renderer.Camera.Builder#setSampler(Sampler)}.
+	 */
+	@Test
+	void testSampler() {
+		Scene scene = new Scene("Render test");
+		// an edge far behind the focus, blurred across several pixels
+		scene.geometries.add(new Triangle(new Point(-1000, 1000, -400), new Point(1000, -1000, -400),
+				new Point(1000, 1000, -400)).setEmission(new Color(255, 255, 255)));
+		ImageWriter imageWriter = new ImageWriter("Render test", 20, 20);
+		Camera.Builder builder = Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setLocation(Point.ZERO)
+				.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10).setVpSize(20, 20)
+				.setImageWriter(imageWriter);
+		ImageWriter reference = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(reference).setFocalSize(10, 100, 100).setSampler(new SobolSampler()).build()
+				.renderImage();
+		builder.setImageWriter(imageWriter).setGridDensity(16);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: The stratified and the low-discrepancy samplers get closer to the
+		// reference than random aperture points
+		builder.setSampler(null).build().renderImage();
+		double randomError = error(reference, imageWriter);
+		for (Sampler sampler : List.of(new StratifiedSampler(16), new HaltonSampler(), new SobolSampler())) {
+			builder.setSampler(sampler).build().renderImage();
+			assertTrue(error(reference, imageWriter) < randomError, "Sampler is noisier than random");
+		}
+
+		// TC02: Multi-threaded rendering gives the same image
+		ImageWriter expected = new ImageWriter("Render test", 20, 20);
+		builder.setImageWriter(expected).setSampler(new BlueNoiseSampler()).build().renderImage();
+		builder.setImageWriter(imageWriter).setMultiThreading(2).build().renderImage();
+		assertEquals(0, error(expected, imageWriter), "Wrong pixel color");
+	}
+
+	/**
+	 * Measures the average difference of the luminance of two images of 20x20
+	 * pixels
+	 * 
+	 * @param expected the expected image
+	 * @param result   the result image
+	 * @return the average difference
+	 */
+	private static double error(ImageWriter expected, ImageWriter result) {
+		double error = 0;
+		for (int i = 0; i < 20; ++i)
+			for (int j = 0; j < 20; ++j)
+				error += Math.abs(expected.getPixel(j, i).luminance() - result.getPixel(j, i).luminance());
+		return error / 400;
+	}
 }
@@ -29,7 +29,7 @@ public class MyTest {
 
 		final Camera.Builder cameraBuilder = Camera.getBuilder().setLocation(new Point(0, 0, 2500))
 				.setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpSize(200, 200).setVpDistance(850)
-				.setFocalSize(20, 1600, 100).setSuperSempling(true).setMultiThreading(3)
+				.setFocalSize(20, 1600, 100).setMultiThreading(3)
 				.setRayTracer(new SimpleRayTracer(scene));
 
 		final Camera.Builder cameraBuilder1 = Camera.getBuilder().setLocation(new Point(0, 0, 2500))
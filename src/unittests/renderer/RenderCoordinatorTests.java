@@ -0,0 +1,131 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import lighting.PointLight;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Testing RenderCoordinator and RenderWorker Classes
+ */
+class RenderCoordinatorTests {
+	/** The size of the test image */
+	private static final int SIZE = 40;
+
+	/**
+	 * Builds a camera of a small scene with several geometry types and a light
+	 *
+	 * @param imageWriter the image writer of the camera
+	 * @return the camera
+	 */
+	private static Camera camera(ImageWriter imageWriter) {
+		Scene scene = new Scene("Distributed test");
+		scene.geometries.add(
+				new Sphere(new Point(0, 0, -100), 30d).setEmission(new Color(100, 0, 0))
+						.setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(30)),
+				new Triangle(new Point(-50, -50, -150), new Point(50, -50, -150), new Point(0, 50, -150))
+						.setEmission(new Color(0, 0, 100)),
+				new Mesh(new Point[] { new Point(-40, 20, -120), new Point(-20, 20, -120), new Point(-30, 40, -120) },
+						new int[] { 0, 1, 2 }).setEmission(new Color(0, 100, 0)));
+		scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(50, 50, 0)));
+		return Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setImageWriter(imageWriter)
+				.setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10)
+				.setVpSize(20, 20).setTileSize(8).build();
+	}
+
+	/**
+	 * Checks that two images are the same
+	 *
+	 * @param expected the expected image
+	 * @param result   the result image
+	 */
+	private static void assertSameImage(ImageWriter expected, ImageWriter result) {
+		for (int i = 0; i < SIZE; ++i)
+			for (int j = 0; j < SIZE; ++j)
+				assertTrue(expected.getPixel(j, i).similar(result.getPixel(j, i)), "Wrong pixel color");
+	}
+
+	/**
+	 * Connects to a coordinator, waiting until it listens
+	 *
+	 * @param host the coordinator address
+	 * @param port the coordinator port
+	 * @return the connection
+	 * @throws IOException          if the connection fails
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static Socket connect(InetAddress host, int port) throws IOException, InterruptedException {
+		while (true)
+			try {
+				return new Socket(host, port);
+			} catch (ConnectException e) {
+				Thread.sleep(10);
+			}
+	}
+
+	/**
+	 * Test method for {@link renderer.RenderCoordinator#render()}.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	void testRender() throws Exception {
+		ImageWriter expected = new ImageWriter("Distributed test", SIZE, SIZE);
+		camera(expected).renderImage();
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Local worker processes render the whole image
+		ImageWriter result = new ImageWriter("Distributed test", SIZE, SIZE);
+		new RenderCoordinator(camera(result)).setWorkers(2).setWorkerThreads(1).render();
+		assertSameImage(expected, result);
+
+		// TC02: The tiles of a failed worker are rendered by another worker
+		int port;
+		try (ServerSocket free = new ServerSocket(0)) {
+			port = free.getLocalPort();
+		}
+		InetAddress host = InetAddress.getLoopbackAddress();
+		ImageWriter retried = new ImageWriter("Distributed test", SIZE, SIZE);
+		RenderCoordinator coordinator = new RenderCoordinator(camera(retried)).setWorkers(0).setAddress(host, port);
+		Thread rendering = new Thread(coordinator::render);
+		rendering.start();
+		try (Socket failing = connect(host, port);
+				var in = new DataInputStream(new BufferedInputStream(failing.getInputStream()));
+				var out = new DataOutputStream(failing.getOutputStream())) {
+			out.writeInt(1);
+			out.flush();
+			in.skipNBytes(8); // the image size
+			in.skipNBytes(in.readInt()); // the camera
+			assertTrue(in.readInt() > 0, "The failing worker got no tiles");
+		} // the worker fails before sending the pixels
+		RenderWorker.main(new String[] { host.getHostAddress(), Integer.toString(port), "1" });
+		rendering.join();
+		assertSameImage(expected, retried);
+	}
+
+	/**
+	 * Test method for {@link renderer.RenderWorker#main(String[])}.
+	 */
+	@Test
+	void testWorkerArguments() {
+		// =============== Boundary Values Tests ==================
+		// TC10: The coordinator port is missing
+		assertThrows(IllegalArgumentException.class, () -> RenderWorker.main(new String[] { "localhost" }),
+				"Missing coordinator port must throw");
+	}
+}
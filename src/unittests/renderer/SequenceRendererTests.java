@@ -0,0 +1,106 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import lighting.PointLight;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Testing SequenceRenderer Class
+ */
+class SequenceRendererTests {
+	/** The size of the test frames */
+	private static final int SIZE = 30;
+
+	/**
+	 * Builds a camera of a small scene
+	 *
+	 * @param imageWriter the image writer of the camera
+	 * @return the camera
+	 */
+	private static Camera camera(ImageWriter imageWriter) {
+		Scene scene = new Scene("Sequence test");
+		scene.geometries.add(
+				new Sphere(new Point(0, 0, -100), 30d).setEmission(new Color(100, 0, 0))
+						.setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(30)),
+				new Triangle(new Point(-50, -50, -150), new Point(50, -50, -150), new Point(0, 50, -150))
+						.setEmission(new Color(0, 0, 100)));
+		scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(50, 50, 0)));
+		return Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setImageWriter(imageWriter)
+				.setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpDistance(10)
+				.setVpSize(20, 20).build();
+	}
+
+	/**
+	 * Reads a written frame
+	 *
+	 * @param name the frame name
+	 * @return the frame image
+	 * @throws IOException if the frame cannot be read
+	 */
+	private static BufferedImage frame(String name) throws IOException {
+		return ImageIO.read(new File(System.getProperty("user.dir") + "/images/" + name + ".png"));
+	}
+
+	/**
+	 * Test method for {@link renderer.SequenceRenderer#render(String, int)}.
+	 *
+	 * @throws IOException if a frame cannot be read
+	 */
+	@Test
+	void testRender() throws IOException {
+		SequenceRenderer sequence = new SequenceRenderer(camera(new ImageWriter("Sequence test", SIZE, SIZE)))
+				.addKeyframe(0, Point.ZERO, new Vector(0, 0, -1), new Vector(0, -1, 0))
+				.addKeyframe(2, new Point(20, 0, 0), new Vector(-0.2, 0, -1), new Vector(0, -1, 0));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A frame between the keyframes is rendered by the interpolated camera
+		sequence.render("sequence test", 3);
+		ImageWriter middle = new ImageWriter("sequence test middle", SIZE, SIZE);
+		Vector vTo = new Vector(0, 0, -1).scale(0.5).add(new Vector(-0.2, 0, -1).normalize().scale(0.5)).normalize();
+		Camera.getBuilder(camera(middle)).setLocation(new Point(10, 0, 0)).setDirection(vTo, new Vector(0, -1, 0))
+				.build().renderImage();
+		middle.writeToImage();
+		BufferedImage expected = frame("sequence test middle"), result = frame("sequence test_0001");
+		for (int i = 0; i < SIZE; ++i)
+			for (int j = 0; j < SIZE; ++j)
+				assertEquals(expected.getRGB(j, i), result.getRGB(j, i), "Wrong interpolated frame");
+
+		// TC02: Frames rendered at once are the same as frames rendered one by one
+		sequence.setParallelFrames(2).render("sequence test parallel", 3);
+		for (int frame = 0; frame < 3; ++frame) {
+			BufferedImage single = frame(String.format("sequence test_%04d", frame));
+			BufferedImage parallel = frame(String.format("sequence test parallel_%04d", frame));
+			for (int i = 0; i < SIZE; ++i)
+				for (int j = 0; j < SIZE; ++j)
+					assertEquals(single.getRGB(j, i), parallel.getRGB(j, i), "Wrong parallel frame");
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A path without keyframes
+		SequenceRenderer empty = new SequenceRenderer(camera(new ImageWriter("Sequence test", SIZE, SIZE)));
+		assertThrows(IllegalStateException.class, () -> empty.render("sequence test", 2),
+				"Rendering a path without keyframes must throw");
+		// TC11: Keyframe directions which are not orthogonal
+		assertThrows(IllegalArgumentException.class,
+				() -> sequence.addKeyframe(3, Point.ZERO, new Vector(0, 0, -1), new Vector(0, -1, -1)),
+				"Non orthogonal keyframe directions must throw");
+		// TC12: A single frame is the first keyframe
+		sequence.render("sequence test single", 1);
+		assertTrue(new File(System.getProperty("user.dir") + "/images/sequence test single_0000.png").exists(),
+				"Single frame was not written");
+	}
+}
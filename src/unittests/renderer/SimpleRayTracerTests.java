@@ -0,0 +1,143 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Plane;
+import primitives.*;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+/**
+ * Testing SimpleRayTracer Class
+ */
+class SimpleRayTracerTests {
+	/** The reflection coefficient of the mirror */
+	private static final double KR = 0.05;
+
+	/**
+	 * Builds a ray tracer of a weak black mirror, reflecting a white wall
+	 *
+	 * @return the ray tracer
+	 */
+	private static SimpleRayTracer mirror() {
+		return mirror(new Double3(KR));
+	}
+
+	/**
+	 * Builds a ray tracer of a black mirror, reflecting a white wall behind the
+	 * heads of the traced rays
+	 *
+	 * @param kR the reflection coefficient of the mirror
+	 * @return the ray tracer
+	 */
+	private static SimpleRayTracer mirror(Double3 kR) {
+		Scene scene = new Scene("Ray budget test");
+		scene.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+				.setMaterial(new Material().setKR(kR)),
+				new Plane(new Point(0, 0, 10), new Vector(0, 0, -1)).setEmission(new Color(255, 255, 255)));
+		return new SimpleRayTracer(scene);
+	}
+
+	/**
+	 * Traces a ray straight to the mirror, reflected straight back
+	 *
+	 * @param rayTracer the ray tracer
+	 * @param x         the x coordinate of the ray head
+	 * @param y         the y coordinate of the ray head
+	 * @return the green component of the color of the ray
+	 */
+	private static double trace(SimpleRayTracer rayTracer, double x, double y) {
+		return rayTracer.traceRay(new Ray(new Point(x, y, 0), new Vector(0, 0, -1))).getRgb().d2;
+	}
+
+	/**
+	 * Test method for
+	 * {@link renderer.SimpleRayTracer#traceRayAndDistance(primitives.Ray)}.
+	 */
+	@Test
+	void testTraceRayAndDistance() {
+		SimpleRayTracer rayTracer = mirror();
+		Ray ray = new Ray(new Point(1, 2, 0), new Vector(0, 0, -1));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A ray hitting a geometry gets its color and the distance to the hit
+		var traced = rayTracer.traceRayAndDistance(ray);
+		assertEquals(100, traced.distance(), 1e-10, "Wrong distance to the hit");
+		assertEquals(rayTracer.traceRay(ray).getRgb(), traced.color().getRgb(), "Wrong color of the ray");
+
+		// TC02: A ray hitting nothing gets the background at an infinite distance
+		traced = rayTracer.traceRayAndDistance(new Ray(new Point(1, 2, 0), new Vector(1, 0, 0)));
+		assertEquals(Double.POSITIVE_INFINITY, traced.distance(), "Wrong distance of a miss");
+		assertEquals(Color.BLACK.getRgb(), traced.color().getRgb(), "Wrong color of a miss");
+	}
+
+	/**
+	 * Test method for {@link renderer.SimpleRayTracer#setRussianRoulette(double)}.
+	 */
+	@Test
+	void testRussianRoulette() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: Without Russian roulette each ray gets the reflection
+		assertEquals(KR * 255, trace(mirror(), 1, 2), 1e-10, "Wrong reflection");
+
+		// TC02: Russian roulette traces some of the reflections, stronger, and keeps
+		// the average
+		SimpleRayTracer rayTracer = mirror().setRussianRoulette(0.5);
+		double sum = 0;
+		int traced = 0;
+		for (int y = 0; y < 20; ++y)
+			for (int x = 0; x < 20; ++x) {
+				double green = trace(rayTracer, x, y);
+				assertTrue(green == 0 || Math.abs(green - 255 * KR * 10) < 1e-10, "Wrong roulette reflection");
+				if (green != 0)
+					++traced;
+				sum += green;
+			}
+		assertTrue(traced > 0 && traced < 400, "Russian roulette is not random");
+		assertEquals(KR * 255, sum / 400, KR * 255 * 0.3, "Russian roulette is biased");
+
+		// TC03: The same ray gets the same decision
+		assertEquals(trace(rayTracer, 3, 4), trace(rayTracer, 3, 4), "Russian roulette is not repeatable");
+
+		// TC04: A reflection which hits nothing gives the background as it is
+		Scene scene = new Scene("Ray budget test").setBackground(new Color(255, 255, 255));
+		scene.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+				.setMaterial(new Material().setKR(KR)));
+		assertEquals(255, trace(new SimpleRayTracer(scene), 1, 2), 1e-10, "Background must not be scaled");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: Threshold out of range
+		assertThrows(IllegalArgumentException.class, () -> mirror().setRussianRoulette(1.5),
+				"Wrong roulette threshold must throw");
+	}
+
+	/**
+	 * Test method for {@link renderer.SimpleRayTracer#setMaxLevel(int)} and
+	 * {@link renderer.SimpleRayTracer#setMinContribution(double)}.
+	 */
+	@Test
+	void testRayBudget() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: A contribution below the least one is not traced
+		assertEquals(0, trace(mirror().setMinContribution(0.1), 1, 2), "Negligible reflection is traced");
+		// TC02: Without a budget a weak single channel reflection is traced, with a
+		// budget its luminance is negligible
+		Double3 red = new Double3(0.002, 0, 0);
+		Ray ray = new Ray(new Point(1, 2, 0), new Vector(0, 0, -1));
+		assertEquals(0.002 * 255, mirror(red).traceRay(ray).getRgb().d1, 1e-10, "Weak reflection is not traced");
+		assertEquals(0, mirror(red).setMinContribution(0.001).traceRay(ray).getRgb().d1,
+				"Negligible luminance is traced");
+
+		// =============== Boundary Values Tests ==================
+		// TC10: A single level traces no reflections
+		assertEquals(0, trace(mirror().setMaxLevel(1), 1, 2), "Reflection beyond the maximum level");
+		// TC11: A contribution at the least one is traced
+		assertEquals(KR * 255, trace(mirror().setMinContribution(KR), 1, 2), 1e-10, "Wrong reflection");
+		// TC12: Wrong values
+		assertThrows(IllegalArgumentException.class, () -> mirror().setMaxLevel(0), "Zero levels must throw");
+		assertThrows(IllegalArgumentException.class, () -> mirror().setMinContribution(-0.1),
+				"Negative contribution must throw");
+	}
+}